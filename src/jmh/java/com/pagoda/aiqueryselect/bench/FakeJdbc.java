@@ -0,0 +1,257 @@
+package com.pagoda.aiqueryselect.bench;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+
+/**
+ * In-process JDBC stand-in for benchmarks.
+ * <p>
+ * Statements are answered by a function of SQL text and bind parameters. Every execute and every
+ * fetch beyond the first batch counts as one round trip and can be charged a simulated network delay,
+ * so the benchmarks show how round trip count turns into wall-clock time without a real database.
+ */
+public final class FakeJdbc {
+
+    /**
+     * Oracle's default row prefetch when the statement does not set a fetch size.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 10;
+
+    /**
+     * The vendor type code the Oracle driver reports for BINARY_DOUBLE columns.
+     */
+    public static final int BINARY_DOUBLE = 101;
+
+    private final BiFunction<String, List<Object>, Result> responder;
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong statements = new AtomicLong();
+    private volatile long roundTripNanos;
+
+    public FakeJdbc(BiFunction<String, List<Object>, Result> responder) {
+        this.responder = responder;
+    }
+
+    public void setRoundTripMicros(long micros) {
+        this.roundTripNanos = micros * 1_000L;
+    }
+
+    public long roundTrips() {
+        return roundTrips.get();
+    }
+
+    public long statements() {
+        return statements.get();
+    }
+
+    public void resetCounters() {
+        roundTrips.set(0);
+        statements.set(0);
+    }
+
+    public DataSource dataSource() {
+        return proxy(DataSource.class, (p, m, args) -> switch (m.getName()) {
+            case "getConnection" -> connection();
+            case "isWrapperFor" -> false;
+            default -> defaultValue(m);
+        });
+    }
+
+    /**
+     * A standalone result set over fixed rows, without any round trip accounting.
+     */
+    public static ResultSet resultSet(Result result) {
+        return new FakeJdbc((sql, params) -> result).newResultSet(result, Integer.MAX_VALUE);
+    }
+
+    private Connection connection() {
+        return proxy(Connection.class, (p, m, args) -> switch (m.getName()) {
+            case "prepareStatement" -> statement((String) args[0]);
+            case "createStatement" -> statement(null);
+            case "getAutoCommit" -> true;
+            case "isValid" -> true;
+            case "isWrapperFor" -> false;
+            default -> defaultValue(m);
+        });
+    }
+
+    private PreparedStatement statement(String preparedSql) {
+        Map<Integer, Object> params = new HashMap<>();
+        int[] fetchSize = {DEFAULT_FETCH_SIZE};
+        return proxy(PreparedStatement.class, (p, m, args) -> {
+            String name = m.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+                    && !name.equals("setFetchSize")) {
+                params.put(index, args[1]);
+                return null;
+            }
+            return switch (name) {
+                case "setFetchSize" -> {
+                    fetchSize[0] = Math.max(1, (Integer) args[0]);
+                    yield null;
+                }
+                case "getFetchSize" -> fetchSize[0];
+                case "executeQuery" -> {
+                    String sql = args != null && args.length > 0 ? (String) args[0] : preparedSql;
+                    List<Object> bound = new ArrayList<>();
+                    for (int i = 1; params.containsKey(i); i++) {
+                        bound.add(params.get(i));
+                    }
+                    statements.incrementAndGet();
+                    roundTrip();
+                    yield newResultSet(responder.apply(sql, bound), fetchSize[0]);
+                }
+                case "isWrapperFor" -> false;
+                default -> defaultValue(m);
+            };
+        });
+    }
+
+    private ResultSet newResultSet(Result result, int fetchSize) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < result.labels().size(); i++) {
+            index.put(result.labels().get(i).toUpperCase(Locale.ROOT), i);
+        }
+        int[] cursor = {-1};
+        boolean[] wasNull = {false};
+        ResultSetMetaData metaData = metaData(result);
+        return proxy(ResultSet.class, (p, m, args) -> {
+            String name = m.getName();
+            if (name.equals("next")) {
+                cursor[0]++;
+                if (cursor[0] > 0 && cursor[0] % fetchSize == 0 && cursor[0] <= result.rows().size()) {
+                    roundTrip();
+                }
+                return cursor[0] < result.rows().size();
+            }
+            if (name.startsWith("get") && args != null && args.length == 1
+                    && (args[0] instanceof String || args[0] instanceof Integer)) {
+                int column = args[0] instanceof String label
+                        ? index.getOrDefault(label.toUpperCase(Locale.ROOT), -1)
+                        : (Integer) args[0] - 1;
+                if (column < 0) {
+                    throw new SQLException("Invalid column " + args[0]);
+                }
+                Object value = result.rows().get(cursor[0])[column];
+                wasNull[0] = value == null;
+                return convert(value, m.getReturnType());
+            }
+            return switch (name) {
+                case "wasNull" -> wasNull[0];
+                case "getMetaData" -> metaData;
+                case "findColumn" -> index.get(((String) args[0]).toUpperCase(Locale.ROOT)) + 1;
+                case "isWrapperFor" -> false;
+                default -> defaultValue(m);
+            };
+        });
+    }
+
+    private static ResultSetMetaData metaData(Result result) {
+        return proxy(ResultSetMetaData.class, (p, m, args) -> switch (m.getName()) {
+            case "getColumnCount" -> result.labels().size();
+            case "getColumnLabel", "getColumnName" -> result.labels().get((Integer) args[0] - 1);
+            case "getColumnType" -> result.types()[(Integer) args[0] - 1];
+            case "getColumnTypeName" -> typeName(result.types()[(Integer) args[0] - 1]);
+            case "getPrecision" -> result.types()[(Integer) args[0] - 1] == Types.NUMERIC ? 10 : 0;
+            case "isWrapperFor" -> false;
+            default -> defaultValue(m);
+        });
+    }
+
+    private void roundTrip() {
+        roundTrips.incrementAndGet();
+        long nanos = roundTripNanos;
+        if (nanos > 0) {
+            LockSupport.parkNanos(nanos);
+        }
+    }
+
+    private static Object convert(Object value, Class<?> type) {
+        if (type == Object.class) {
+            return value;
+        }
+        if (value == null) {
+            return primitiveDefault(type);
+        }
+        if (type == String.class) {
+            return value.toString();
+        }
+        if (value instanceof Number number) {
+            if (type == int.class) return number.intValue();
+            if (type == long.class) return number.longValue();
+            if (type == double.class) return number.doubleValue();
+            if (type == float.class) return number.floatValue();
+            if (type == short.class) return number.shortValue();
+            if (type == BigDecimal.class) return new BigDecimal(number.toString());
+        }
+        return value;
+    }
+
+    private static String typeName(int type) {
+        return switch (type) {
+            case Types.NUMERIC -> "NUMBER";
+            case Types.VARCHAR -> "VARCHAR2";
+            case Types.TIMESTAMP -> "TIMESTAMP";
+            case BINARY_DOUBLE -> "BINARY_DOUBLE";
+            default -> "UNKNOWN";
+        };
+    }
+
+    private static Object defaultValue(Method method) {
+        return primitiveDefault(method.getReturnType());
+    }
+
+    private static Object primitiveDefault(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0d;
+        if (type == float.class) return 0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(FakeJdbc.class.getClassLoader(), new Class<?>[]{type}, (p, m, args) -> {
+            if (m.getDeclaringClass() == Object.class) {
+                return switch (m.getName()) {
+                    case "hashCode" -> System.identityHashCode(p);
+                    case "equals" -> p == args[0];
+                    default -> type.getSimpleName() + "@fake";
+                };
+            }
+            return handler.invoke(p, m, args);
+        });
+    }
+
+    /**
+     * Rows returned for one statement, with labels and {@link Types} codes per column.
+     */
+    public record Result(List<String> labels, int[] types, List<Object[]> rows) {
+
+        public static Result of(List<String> labels, List<Object[]> rows) {
+            int[] types = new int[labels.size()];
+            Arrays.fill(types, Types.VARCHAR);
+            return new Result(labels, types, rows);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.pagoda.aiqueryselect.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the time from spawning the server process to its first {@code tools/list} response,
+ * the way an MCP client starts it once per session.
+ * <p>
+ * Not a JMH benchmark: every sample is a fresh JVM. Each launch mode is started {@code runs} times
+ * and the min, median and max are printed for the {@code initialize} and {@code tools/list}
+ * responses. The server needs a reachable database, so the {@code --DB_*} arguments are passed
+ * through. Run with {@code ./gradlew startupBenchmark -PstartupArgs="--DB_URL=... --DB_USERNAME=...
+ * --DB_PASSWORD=..."}.
+ * <p>
+ * Arguments: {@code <boot jar> <faststart dir> <runs> [server arguments...]}. The {@code faststart+cds}
+ * mode is skipped unless {@code fastStartArchive} has produced {@code application.jsa}.
+ */
+public final class StartupBenchmark {
+
+    private static final long RUN_TIMEOUT_SECONDS = 120;
+
+    private static final Pattern ID_1 = Pattern.compile("\"id\"\\s*:\\s*1\\b");
+    private static final Pattern ID_2 = Pattern.compile("\"id\"\\s*:\\s*2\\b");
+
+    private static final String INITIALIZE = """
+            {"jsonrpc":"2.0","id":1,"method":"initialize","params":{"protocolVersion":"2025-06-18",\
+            "capabilities":{},"clientInfo":{"name":"startup-benchmark","version":"1.0"}}}
+            """;
+    private static final String INITIALIZED = """
+            {"jsonrpc":"2.0","method":"notifications/initialized"}
+            """;
+    private static final String TOOLS_LIST = """
+            {"jsonrpc":"2.0","id":2,"method":"tools/list","params":{}}
+            """;
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: StartupBenchmark <boot jar> <faststart dir> <runs> [server arguments...]");
+            System.exit(2);
+        }
+        File jar = new File(args[0]);
+        File fastStartDir = new File(args[1]);
+        int runs = Integer.parseInt(args[2]);
+        List<String> serverArgs = Arrays.asList(args).subList(3, args.length);
+        String java = ProcessHandle.current().info().command().orElse("java");
+
+        List<Mode> modes = new ArrayList<>();
+        modes.add(new Mode("default", List.of("-jar", jar.getPath())));
+        modes.add(new Mode("faststart", List.of("-Dspring.profiles.active=faststart", "-jar", jar.getPath())));
+        File archive = new File(fastStartDir, "application.jsa");
+        if (archive.isFile()) {
+            modes.add(new Mode("faststart+cds", List.of("-XX:SharedArchiveFile=" + archive.getPath(),
+                    "-Dspring.profiles.active=faststart", "-jar", new File(fastStartDir, jar.getName()).getPath())));
+        }
+
+        System.out.printf("%-14s %-10s %12s %12s %12s%n", "Mode", "Response", "Min (ms)", "Median (ms)", "Max (ms)");
+        for (Mode mode : modes) {
+            long[] initialize = new long[runs];
+            long[] toolsList = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                List<String> command = new ArrayList<>();
+                command.add(java);
+                command.addAll(mode.jvmArgs());
+                command.addAll(serverArgs);
+                long[] sample = launch(command);
+                initialize[i] = sample[0];
+                toolsList[i] = sample[1];
+            }
+            print(mode.name(), "initialize", initialize);
+            print(mode.name(), "tools/list", toolsList);
+        }
+    }
+
+    /**
+     * Returns the milliseconds from spawn to the {@code initialize} and {@code tools/list} responses.
+     */
+    private static long[] launch(List<String> command) throws Exception {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try (OutputStream stdin = process.getOutputStream();
+             BufferedReader stdout = new BufferedReader(
+                     new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            // Sent right away: the pipe buffers it until the server reads stdin
+            send(stdin, INITIALIZE);
+            long initialized = -1;
+            String line;
+            while ((line = stdout.readLine()) != null) {
+                if (System.nanoTime() - start > TimeUnit.SECONDS.toNanos(RUN_TIMEOUT_SECONDS)) {
+                    break;
+                }
+                if (!line.startsWith("{")) {
+                    continue;
+                }
+                if (initialized < 0 && ID_1.matcher(line).find()) {
+                    initialized = System.nanoTime();
+                    send(stdin, INITIALIZED);
+                    send(stdin, TOOLS_LIST);
+                } else if (initialized >= 0 && ID_2.matcher(line).find()) {
+                    return new long[]{
+                            TimeUnit.NANOSECONDS.toMillis(initialized - start),
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                    };
+                }
+            }
+            throw new IllegalStateException("Server exited or timed out before answering tools/list: " + command);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static void send(OutputStream stdin, String message) throws Exception {
+        stdin.write(message.getBytes(StandardCharsets.UTF_8));
+        stdin.flush();
+    }
+
+    private static void print(String mode, String response, long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-14s %-10s %12d %12d %12d%n",
+                mode, response, sorted[0], sorted[sorted.length / 2], sorted[sorted.length - 1]);
+    }
+
+    private record Mode(String name, List<String> jvmArgs) {
+    }
+}
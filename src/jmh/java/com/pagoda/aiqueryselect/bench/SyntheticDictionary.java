@@ -0,0 +1,195 @@
+package com.pagoda.aiqueryselect.bench;
+
+import com.pagoda.aiqueryselect.model.ColumnInfo;
+import com.pagoda.aiqueryselect.model.ConstraintInfo;
+import com.pagoda.aiqueryselect.model.ForeignKeyInfo;
+import com.pagoda.aiqueryselect.model.TableInfo;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Deterministic fake Oracle data dictionary that answers the ALL_* queries issued by the catalog code.
+ * <p>
+ * Tables are spread over owners of {@value #TABLES_PER_OWNER} tables each, with a realistic mix of
+ * repeated column names, data types, Korean comments, primary keys, check constraints and foreign keys.
+ */
+public final class SyntheticDictionary {
+
+    static final int TABLES_PER_OWNER = 500;
+
+    private static final String[] COMMON_COLUMNS = {"ID", "CREATED_AT", "CREATED_BY", "UPDATED_AT", "UPDATED_BY", "STATUS"};
+    private static final String[] TYPES = {"VARCHAR2", "NUMBER", "DATE", "TIMESTAMP(6)", "CHAR", "CLOB"};
+    private static final String[] WORDS = {"CUSTOMER", "ORDER", "ITEM", "PRICE", "AMOUNT", "CODE", "NAME", "TYPE",
+            "REGION", "BRANCH", "ACCOUNT", "PRODUCT", "INVOICE", "PAYMENT", "ADDRESS", "PHONE", "EMAIL", "NOTE"};
+    private static final String[] KOREAN = {"고객", "주문", "상품", "가격", "금액", "코드", "이름", "유형", "지역", "계좌"};
+
+    private final List<TableInfo> tables;
+    private final Map<String, TableInfo> byKey;
+
+    private SyntheticDictionary(List<TableInfo> tables) {
+        this.tables = tables;
+        this.byKey = new LinkedHashMap<>();
+        for (TableInfo table : tables) {
+            byKey.put(table.owner() + "." + table.tableName(), table);
+        }
+    }
+
+    public static SyntheticDictionary generate(int tableCount) {
+        Random random = new Random(42);
+        List<TableInfo> tables = new ArrayList<>(tableCount);
+        for (int t = 0; t < tableCount; t++) {
+            String owner = "APP_%02d".formatted(t / TABLES_PER_OWNER);
+            String tableName = WORDS[t % WORDS.length] + "_" + WORDS[(t / WORDS.length) % WORDS.length] + "_" + t;
+
+            List<ColumnInfo> columns = new ArrayList<>();
+            int columnCount = 4 + random.nextInt(27);
+            for (int c = 0; c < columnCount; c++) {
+                String name = c < COMMON_COLUMNS.length ? COMMON_COLUMNS[c] : WORDS[random.nextInt(WORDS.length)] + "_" + c;
+                String type = c == 0 ? "NUMBER" : TYPES[random.nextInt(TYPES.length)];
+                columns.add(new ColumnInfo(
+                        name,
+                        type,
+                        type.equals("VARCHAR2") ? 50 + random.nextInt(200) : 22,
+                        type.equals("NUMBER") ? 10 + random.nextInt(9) : null,
+                        type.equals("NUMBER") ? random.nextInt(3) : null,
+                        c != 0,
+                        c == 1 ? "SYSDATE" : null,
+                        random.nextInt(3) == 0 ? KOREAN[random.nextInt(KOREAN.length)] + " " + name.toLowerCase() : null,
+                        c + 1
+                ));
+            }
+
+            List<ConstraintInfo> constraints = new ArrayList<>();
+            constraints.add(new ConstraintInfo("PK_" + t, "P", List.of("ID"), null));
+            if (t % 4 == 0) {
+                constraints.add(new ConstraintInfo("CK_" + t, "C", List.of("STATUS"), "STATUS IN ('A', 'I')"));
+            }
+
+            List<ForeignKeyInfo> foreignKeys = new ArrayList<>();
+            if (t % 3 == 1 && t % TABLES_PER_OWNER > 0) {
+                TableInfo parent = tables.get(t - 1);
+                foreignKeys.add(new ForeignKeyInfo("FK_" + t, tableName, List.of("ID"),
+                        parent.tableName(), List.of("ID"), "NO ACTION"));
+            }
+
+            tables.add(new TableInfo(owner, tableName, KOREAN[t % KOREAN.length] + " 테이블 " + t, (long) random.nextInt(1_000_000),
+                    columns, constraints, foreignKeys));
+        }
+        return new SyntheticDictionary(tables);
+    }
+
+    public List<TableInfo> tables() {
+        return tables;
+    }
+
+    public FakeJdbc jdbc() {
+        return new FakeJdbc(this::respond);
+    }
+
+    /**
+     * Answers one dictionary statement. An {@code OWNER IN} predicate binds owners; otherwise two bind
+     * parameters mean owner and table, one means table name.
+     */
+    public FakeJdbc.Result respond(String sql, List<Object> params) {
+        if (sql.contains("PRODUCT_COMPONENT_VERSION")) {
+            return FakeJdbc.Result.of(List.of("VERSION"), List.<Object[]>of(new Object[]{"19.0.0.0.0"}));
+        }
+
+        if (sql.contains("ALL_OBJECTS")) {
+            return FakeJdbc.Result.of(List.of("TABLE_COUNT", "LAST_DDL"),
+                    List.<Object[]>of(new Object[]{(long) tables.size(), "20260101000000"}));
+        }
+
+        if (sql.contains("GROUP BY t.OWNER")) {
+            Map<String, Integer> tableCounts = new TreeMap<>();
+            tables.forEach(table -> tableCounts.merge(table.owner(), 1, Integer::sum));
+            List<Object[]> rows = new ArrayList<>();
+            tableCounts.forEach((owner, count) -> rows.add(new Object[]{owner, count}));
+            return FakeJdbc.Result.of(List.of("OWNER", "TABLE_COUNT"), rows);
+        }
+
+        List<TableInfo> scope = scope(sql, params);
+        boolean aggregated = sql.contains("LISTAGG");
+        List<Object[]> rows = new ArrayList<>();
+
+        if (sql.contains("R_CONSTRAINT_NAME")) {
+            for (TableInfo table : scope) {
+                for (ForeignKeyInfo fk : table.foreignKeys()) {
+                    if (aggregated) {
+                        rows.add(new Object[]{table.owner(), table.tableName(), fk.constraintName(), fk.deleteRule(),
+                                table.owner(), fk.targetTable(), null, null,
+                                String.join(", ", fk.sourceColumns()), String.join(", ", fk.targetColumns())});
+                        continue;
+                    }
+                    for (int i = 0; i < fk.sourceColumns().size(); i++) {
+                        rows.add(new Object[]{table.owner(), table.tableName(), fk.constraintName(), fk.deleteRule(),
+                                table.owner(), fk.targetTable(), fk.sourceColumns().get(i), fk.targetColumns().get(i),
+                                null, null});
+                    }
+                }
+            }
+            return FakeJdbc.Result.of(List.of("OWNER", "TABLE_NAME", "CONSTRAINT_NAME", "DELETE_RULE", "R_OWNER",
+                    "R_TABLE_NAME", "COLUMN_NAME", "R_COLUMN_NAME", "SOURCE_COLUMNS", "TARGET_COLUMNS"), rows);
+        }
+
+        if (sql.contains("ALL_CONSTRAINTS")) {
+            for (TableInfo table : scope) {
+                for (ConstraintInfo constraint : table.constraints()) {
+                    if (aggregated) {
+                        rows.add(new Object[]{table.owner(), table.tableName(), constraint.constraintName(),
+                                constraint.constraintType(), constraint.searchCondition(), null,
+                                String.join(", ", constraint.columns())});
+                        continue;
+                    }
+                    for (String column : constraint.columns()) {
+                        rows.add(new Object[]{table.owner(), table.tableName(), constraint.constraintName(),
+                                constraint.constraintType(), constraint.searchCondition(), column, null});
+                    }
+                }
+            }
+            return FakeJdbc.Result.of(List.of("OWNER", "TABLE_NAME", "CONSTRAINT_NAME", "CONSTRAINT_TYPE",
+                    "SEARCH_CONDITION", "COLUMN_NAME", "COLUMNS"), rows);
+        }
+
+        if (sql.contains("ALL_TAB_COLUMNS")) {
+            for (TableInfo table : scope) {
+                for (ColumnInfo column : table.columns()) {
+                    rows.add(new Object[]{table.owner(), table.tableName(), column.columnName(), column.dataType(),
+                            column.dataLength(), column.dataPrecision(), column.dataScale(),
+                            column.nullable() ? "Y" : "N", column.defaultValue(), column.comments(),
+                            column.columnPosition()});
+                }
+            }
+            return FakeJdbc.Result.of(List.of("OWNER", "TABLE_NAME", "COLUMN_NAME", "DATA_TYPE", "DATA_LENGTH",
+                    "DATA_PRECISION", "DATA_SCALE", "NULLABLE", "DATA_DEFAULT", "COMMENTS", "COLUMN_ID"), rows);
+        }
+
+        if (sql.contains("ALL_TABLES")) {
+            for (TableInfo table : scope) {
+                rows.add(new Object[]{table.owner(), table.tableName(), table.comments(), table.numRows()});
+            }
+            return FakeJdbc.Result.of(List.of("OWNER", "TABLE_NAME", "COMMENTS", "NUM_ROWS"), rows);
+        }
+
+        throw new IllegalArgumentException("Unsupported dictionary query: " + sql);
+    }
+
+    private List<TableInfo> scope(String sql, List<Object> params) {
+        if (sql.contains("OWNER IN (")) {
+            return tables.stream().filter(t -> params.contains(t.owner())).toList();
+        }
+        if (params.size() >= 2) {
+            TableInfo table = byKey.get(params.get(0) + "." + params.get(1));
+            return table != null ? List.of(table) : List.of();
+        }
+        if (params.size() == 1) {
+            return tables.stream().filter(t -> t.tableName().equals(params.get(0))).toList();
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,45 @@
+package com.pagoda.aiqueryselect.bench;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic query results shaped like a typical {@code execute-select} answer: an id, a few
+ * low-cardinality codes, free text, a timestamp and amounts.
+ */
+public final class SyntheticResults {
+
+    private static final List<String> LABELS = List.of(
+            "ORDER_ID", "STATUS", "REGION", "CUSTOMER_NAME", "NOTE", "CREATED_AT", "QUANTITY", "AMOUNT");
+    private static final int[] TYPES = {
+            Types.NUMERIC, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP,
+            Types.NUMERIC, FakeJdbc.BINARY_DOUBLE};
+    private static final String[] STATUSES = {"OPEN", "SHIPPED", "CLOSED", "RETURNED"};
+    private static final String[] REGIONS = {"서울", "부산", "대구", "인천", "광주", "대전", "울산"};
+
+    private SyntheticResults() {
+    }
+
+    public static FakeJdbc.Result orders(int rowCount) {
+        Random random = new Random(7);
+        long baseTime = 1_767_225_600_000L;
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        for (int r = 0; r < rowCount; r++) {
+            rows.add(new Object[]{
+                    (long) (100_000 + r),
+                    STATUSES[random.nextInt(STATUSES.length)],
+                    REGIONS[random.nextInt(REGIONS.length)],
+                    "Customer " + random.nextInt(5_000),
+                    random.nextInt(4) == 0 ? null : "Deliver before noon | gate code " + random.nextInt(10_000)
+                            + (random.nextInt(10) == 0 ? "\nsecond line of a long delivery note that will be truncated by the renderer" : ""),
+                    new Timestamp(baseTime + r * 60_000L),
+                    (long) (1 + random.nextInt(20)),
+                    random.nextInt(1_000_000) / 100.0
+            });
+        }
+        return new FakeJdbc.Result(LABELS, TYPES.clone(), rows);
+    }
+}
@@ -0,0 +1,115 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.bench.FakeJdbc;
+import com.pagoda.aiqueryselect.bench.SyntheticDictionary;
+import com.pagoda.aiqueryselect.config.CatalogConfig;
+import com.pagoda.aiqueryselect.model.ForeignKeyInfo;
+import com.pagoda.aiqueryselect.model.TableInfo;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the {@code schema://overview} model per-table (the old path, one table and one column read
+ * per table) and with the bulk loader.
+ * <p>
+ * Each measurement is a single load, so the {@code roundTrips} and {@code statements} counters read
+ * per load. With {@code rttMicros > 0} every round trip is charged that much simulated network latency.
+ * {@code threads} is the bulk loader's per-owner parallelism; 1 loads on the calling thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CatalogLoadBenchmark {
+
+    @Param({"100", "1000", "6000"})
+    public int tables;
+
+    @Param({"0", "300"})
+    public long rttMicros;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private FakeJdbc jdbc;
+    private CatalogLoader catalogLoader;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jdbc = SyntheticDictionary.generate(tables).jdbc();
+        jdbc.setRoundTripMicros(rttMicros);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(jdbc.dataSource());
+        CatalogConfig catalogConfig = new CatalogConfig();
+        catalogConfig.getParallel().setThreads(threads);
+        catalogConfig.getParallel().setConnections(threads);
+        catalogLoader = new CatalogLoader(jdbcTemplate, catalogConfig);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetCounters() {
+        jdbc.resetCounters();
+    }
+
+    @Benchmark
+    public Map<String, List<TableInfo>> perTable(RoundTrips counters) {
+        Map<String, List<TableInfo>> schemaMap = new LinkedHashMap<>();
+        for (TableInfo table : catalogLoader.loadTables(CatalogScope.all())) {
+            TableInfo fullTable = catalogLoader.loadOverviewTable(table.owner(), table.tableName());
+            schemaMap.computeIfAbsent(table.owner(), k -> new ArrayList<>()).add(fullTable);
+        }
+        counters.record(jdbc);
+        return schemaMap;
+    }
+
+    @Benchmark
+    public Map<String, List<TableInfo>> bulk(RoundTrips counters) {
+        Map<String, List<TableInfo>> overview = catalogLoader.loadOverview();
+        counters.record(jdbc);
+        return overview;
+    }
+
+    @Benchmark
+    public List<ForeignKeyInfo> foreignKeys(RoundTrips counters) {
+        List<ForeignKeyInfo> foreignKeys = catalogLoader.loadAllForeignKeys();
+        counters.record(jdbc);
+        return foreignKeys;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RoundTrips {
+        public long roundTrips;
+        public long statements;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            roundTrips = 0;
+            statements = 0;
+        }
+
+        void record(FakeJdbc jdbc) {
+            roundTrips += jdbc.roundTrips();
+            statements += jdbc.statements();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.bench.SyntheticDictionary;
+import com.pagoda.aiqueryselect.model.TableInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code search-schema} lookups against an index of the synthetic catalog, for an English name
+ * query, a partial word and a Korean comment query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchemaSearchBenchmark {
+
+    @Param({"1000", "6000"})
+    public int tables;
+
+    @Param({"customer order", "cust", "테이블"})
+    public String query;
+
+    private SchemaSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, List<TableInfo>> overview = new LinkedHashMap<>();
+        for (TableInfo table : SyntheticDictionary.generate(tables).tables()) {
+            overview.computeIfAbsent(table.owner(), k -> new ArrayList<>()).add(table);
+        }
+        index = SchemaSearchIndex.build(overview);
+    }
+
+    @Benchmark
+    public List<SchemaSearchIndex.Hit> search() {
+        return index.search(query, 20);
+    }
+}
@@ -0,0 +1,74 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.bench.FakeJdbc;
+import com.pagoda.aiqueryselect.bench.SyntheticDictionary;
+import com.pagoda.aiqueryselect.config.CatalogConfig;
+import com.pagoda.aiqueryselect.model.TableInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the details of one table the way {@code get-table-schema} does on a cache miss, with the
+ * four dictionary statements issued one after another and concurrently.
+ * <p>
+ * The statement count is the same for both; with {@code rttMicros > 0} the concurrent load should
+ * take about one round trip instead of four.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableDetailBenchmark {
+
+    @Param({"0", "300", "2000"})
+    public long rttMicros;
+
+    private FakeJdbc jdbc;
+    private CatalogLoader catalogLoader;
+    private CatalogScope scope;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticDictionary dictionary = SyntheticDictionary.generate(1000);
+        jdbc = dictionary.jdbc();
+        jdbc.setRoundTripMicros(rttMicros);
+        catalogLoader = new CatalogLoader(new JdbcTemplate(jdbc.dataSource()), new CatalogConfig());
+        TableInfo table = dictionary.tables().get(1);
+        scope = CatalogScope.table(table.owner(), table.tableName());
+    }
+
+    @Setup(Level.Invocation)
+    public void resetCounters() {
+        jdbc.resetCounters();
+    }
+
+    @Benchmark
+    public List<TableInfo> sequential(CatalogLoadBenchmark.RoundTrips counters) {
+        List<TableInfo> tables = catalogLoader.loadDetailsSequentially(scope);
+        counters.record(jdbc);
+        return tables;
+    }
+
+    @Benchmark
+    public List<TableInfo> concurrent(CatalogLoadBenchmark.RoundTrips counters) {
+        List<TableInfo> tables = catalogLoader.loadDetailsConcurrently(scope);
+        counters.record(jdbc);
+        return tables;
+    }
+}
@@ -0,0 +1,88 @@
+package com.pagoda.aiqueryselect.resources;
+
+import com.pagoda.aiqueryselect.admission.AdmissionController;
+import com.pagoda.aiqueryselect.bench.FakeJdbc;
+import com.pagoda.aiqueryselect.bench.SyntheticDictionary;
+import com.pagoda.aiqueryselect.catalog.CatalogLoader;
+import com.pagoda.aiqueryselect.catalog.CatalogRepository;
+import com.pagoda.aiqueryselect.catalog.CatalogSnapshotStore;
+import com.pagoda.aiqueryselect.config.AdmissionConfig;
+import com.pagoda.aiqueryselect.config.CacheConfig;
+import com.pagoda.aiqueryselect.config.CachePolicyConfig;
+import com.pagoda.aiqueryselect.config.CatalogConfig;
+import com.pagoda.aiqueryselect.service.SchemaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders {@code schema://overview} from an already loaded synthetic catalog, so only the markdown
+ * generation is measured. {@code cold} uses a fresh resource with no per-table fragments, which is
+ * the first render after startup; {@code warm} reuses them, which is every render after a DDL change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SchemaOverviewBenchmark {
+
+    @Param({"100", "1000", "10000", "50000"})
+    public int tables;
+
+    private SchemaService schemaService;
+    private AdmissionController admissionController;
+    private SchemaDocuments warmDocuments;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FakeJdbc jdbc = SyntheticDictionary.generate(tables).jdbc();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(jdbc.dataSource());
+        CatalogConfig catalogConfig = new CatalogConfig();
+        catalogConfig.getSnapshot().setEnabled(false);
+        CatalogLoader catalogLoader = new CatalogLoader(jdbcTemplate, catalogConfig);
+        CatalogRepository catalogRepository = new CatalogRepository(catalogLoader,
+                new CatalogSnapshotStore(catalogConfig, new StandardEnvironment()), new ConcurrentMapCacheManager());
+        schemaService = new SchemaService(catalogRepository);
+
+        // Loads the catalog once; every render below reads the published snapshot
+        schemaService.getSchemaOverview();
+        admissionController = new AdmissionController(new AdmissionConfig());
+        warmDocuments = documents();
+        warmDocuments.overview();
+    }
+
+    @Benchmark
+    public String cold() {
+        return documents().overview();
+    }
+
+    @Benchmark
+    public String warm() {
+        return warmDocuments.overview();
+    }
+
+    /**
+     * Called directly rather than through a proxy, so the overview itself is never served from the
+     * cache; only the per-table fragment cache, empty here, is used.
+     */
+    private SchemaDocuments documents() {
+        return new SchemaDocuments(schemaService, admissionController,
+                new CacheConfig().cacheManager(new CachePolicyConfig()));
+    }
+}
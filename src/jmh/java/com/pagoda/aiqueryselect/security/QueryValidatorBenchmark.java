@@ -0,0 +1,117 @@
+package com.pagoda.aiqueryselect.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single-pass {@link QueryValidator} with the regex-based {@link LegacyQueryValidator}.
+ * <p>
+ * {@code testCases} runs every query from {@code QueryValidatorTest} per invocation; the other
+ * workloads validate one generated SELECT with the given number of joined tables and predicates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryValidatorBenchmark {
+
+    static final List<String> TEST_CASES = List.of(
+            "SELECT * FROM employees",
+            "SELECT id, name FROM users WHERE status = 'active'",
+            "SELECT e.name, d.department_name FROM employees e JOIN departments d ON e.dept_id = d.id",
+            "SELECT * FROM employees WHERE dept_id IN (SELECT id FROM departments WHERE active = 1)",
+            "WITH active_employees AS (SELECT * FROM employees WHERE status = 'active') SELECT * FROM active_employees",
+            "SELECT dept_id, COUNT(*) as cnt FROM employees GROUP BY dept_id HAVING COUNT(*) > 5",
+            "SELECT * FROM employees ORDER BY hire_date DESC FETCH FIRST 10 ROWS ONLY",
+            "SELECT * FROM employees;",
+            "select * from employees",
+            "SeLeCt * FrOm employees",
+            "INSERT INTO employees (name) VALUES ('test')",
+            "UPDATE employees SET name = 'test'",
+            "DELETE FROM employees",
+            "DROP TABLE employees",
+            "MERGE INTO employees USING temp ON (1=1) WHEN MATCHED THEN UPDATE SET name='x'",
+            "GRANT SELECT ON employees TO user1",
+            "LOCK TABLE employees IN EXCLUSIVE MODE",
+            "SELECT * FROM employees; DROP TABLE employees",
+            "SELECT * FROM employees /* ; DELETE FROM employees */",
+            "SELECT * FROM employees -- ; DELETE FROM employees",
+            "SELECT * FROM employees UNION DELETE FROM employees",
+            "SELECT * FROM (DELETE FROM employees RETURNING *)",
+            "SELECT /* this is\na multiline\ncomment */ * FROM employees",
+            "SELECT /* block */ * -- line\nFROM employees",
+            "/* just a comment */",
+            "SHOW TABLES",
+            "(SELECT * FROM employees)",
+            "SELECT * FROM (SELECT id FROM employees) t",
+            "SELECT * FROM employees WHERE action = 'DELETE'",
+            "SELECT update_count FROM statistics",
+            "SELECT * FROM employees WHERE DELETE = 1"
+    );
+
+    @Param({"testCases", "joins10", "joins100", "joins1000"})
+    public String workload;
+
+    private final QueryValidator validator = new QueryValidator();
+    private final LegacyQueryValidator legacy = new LegacyQueryValidator();
+
+    private List<String> queries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        queries = workload.equals("testCases")
+                ? TEST_CASES
+                : List.of(generate(Integer.parseInt(workload.substring("joins".length()))));
+    }
+
+    @Benchmark
+    public void lexer(Blackhole bh) {
+        for (String query : queries) {
+            bh.consume(validator.validate(query));
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        for (String query : queries) {
+            bh.consume(legacy.validate(query));
+        }
+    }
+
+    /**
+     * A valid query, so both validators have to scan all of it.
+     */
+    static String generate(int tables) {
+        StringBuilder sb = new StringBuilder("SELECT /*+ LEADING(t0) */ t0.id");
+        for (int t = 1; t < tables; t++) {
+            sb.append(", t").append(t).append(".updated_at AS t").append(t).append("_updated");
+        }
+        sb.append("\nFROM orders t0");
+        for (int t = 1; t < tables; t++) {
+            sb.append("\n  JOIN order_items t").append(t)
+                    .append(" ON t").append(t).append(".order_id = t").append(t - 1).append(".id")
+                    .append(" -- join ").append(t);
+        }
+        sb.append("\nWHERE t0.status IN ('OPEN', 'SHIPPED')");
+        for (int t = 1; t < tables; t++) {
+            sb.append("\n  AND t").append(t).append(".note <> 'it''s closed, see ticket ").append(t).append('\'');
+        }
+        return sb.toString();
+    }
+}
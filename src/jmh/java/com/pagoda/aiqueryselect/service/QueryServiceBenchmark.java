@@ -0,0 +1,93 @@
+package com.pagoda.aiqueryselect.service;
+
+import com.pagoda.aiqueryselect.bench.FakeJdbc;
+import com.pagoda.aiqueryselect.bench.SyntheticResults;
+import com.pagoda.aiqueryselect.config.ConfigValue;
+import com.pagoda.aiqueryselect.config.DatabaseConfig;
+import com.pagoda.aiqueryselect.query.CursorRegistry;
+import com.pagoda.aiqueryselect.query.MarkdownResultRenderer;
+import com.pagoda.aiqueryselect.query.PlanGuard;
+import com.pagoda.aiqueryselect.query.QueryExecutor;
+import com.pagoda.aiqueryselect.query.SpillStore;
+import com.pagoda.aiqueryselect.security.QueryValidator;
+import com.pagoda.aiqueryselect.service.QueryService.QueryOutput;
+import com.pagoda.aiqueryselect.service.QueryService.QueryResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query execution hot paths against an in-process result set: row limiting, materializing a
+ * {@link QueryResult}, and streaming the same rows into the markdown renderer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryServiceBenchmark {
+
+    private static final String QUERY = "SELECT * FROM orders WHERE status = 'OPEN'";
+
+    private static final List<String> LIMIT_QUERIES = List.of(
+            QUERY,
+            "SELECT o.order_id, c.name FROM orders o JOIN customers c ON c.id = o.customer_id ORDER BY o.created_at DESC",
+            "SELECT * FROM orders FETCH FIRST 10 ROWS ONLY",
+            "SELECT * FROM orders WHERE ROWNUM <= 5"
+    );
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    @Param({"true", "false"})
+    public boolean over12;
+
+    private QueryService queryService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConfigValue.isOver12 = over12;
+        FakeJdbc.Result result = SyntheticResults.orders(rows);
+        FakeJdbc jdbc = new FakeJdbc((sql, params) -> result);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(jdbc.dataSource());
+        DatabaseConfig databaseConfig = new DatabaseConfig();
+        // The plan guard is disabled by default, so no EXPLAIN PLAN is issued
+        QueryExecutor queryExecutor = new QueryExecutor(jdbcTemplate);
+        PlanGuard planGuard = new PlanGuard(queryExecutor, databaseConfig, new ConcurrentMapCacheManager());
+        queryService = new QueryService(queryExecutor, new QueryValidator(), databaseConfig, planGuard,
+                new CursorRegistry(databaseConfig), new SpillStore(databaseConfig));
+    }
+
+    @Benchmark
+    public void applyRowLimit(Blackhole bh) {
+        for (String query : LIMIT_QUERIES) {
+            bh.consume(queryService.applyRowLimit(query, rows));
+        }
+    }
+
+    @Benchmark
+    public QueryResult materialize() {
+        return queryService.executeQuery(QUERY, rows);
+    }
+
+    @Benchmark
+    public QueryOutput stream() {
+        return queryService.renderQuery(QUERY, rows, new MarkdownResultRenderer(rows));
+    }
+}
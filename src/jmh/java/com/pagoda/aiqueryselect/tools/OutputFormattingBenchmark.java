@@ -0,0 +1,105 @@
+package com.pagoda.aiqueryselect.tools;
+
+import com.pagoda.aiqueryselect.bench.FakeJdbc;
+import com.pagoda.aiqueryselect.bench.SyntheticDictionary;
+import com.pagoda.aiqueryselect.bench.SyntheticResults;
+import com.pagoda.aiqueryselect.catalog.CatalogMarkdown;
+import com.pagoda.aiqueryselect.model.TableInfo;
+import com.pagoda.aiqueryselect.query.ColumnarResult;
+import com.pagoda.aiqueryselect.query.MarkdownResultRenderer;
+import com.pagoda.aiqueryselect.query.ResultFormat;
+import com.pagoda.aiqueryselect.query.ResultRenderer;
+import com.pagoda.aiqueryselect.service.QueryService.QueryResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Markdown produced by the tools: query results, both from a materialized {@link QueryResult} and
+ * streamed from a result set, and the {@code get-table-schema} page. The CSV and JSON result
+ * formats are streamed the same way for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputFormattingBenchmark {
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    private FakeJdbc.Result result;
+    private QueryResult materialized;
+    private List<TableInfo> tables;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        result = SyntheticResults.orders(rows);
+        ResultSet rs = FakeJdbc.resultSet(result);
+        ColumnarResult.Builder builder = new ColumnarResult.Builder(rs.getMetaData(), rows);
+        while (rs.next()) {
+            builder.add(rs);
+        }
+        materialized = QueryResult.success(builder.build(), false, rows);
+
+        tables = SyntheticDictionary.generate(200).tables();
+    }
+
+    @Benchmark
+    public String renderMaterialized() {
+        return MarkdownResultRenderer.render(materialized);
+    }
+
+    @Benchmark
+    public String renderStreamed() throws SQLException {
+        return stream(new MarkdownResultRenderer(rows));
+    }
+
+    @Benchmark
+    public String renderStreamedCsv() throws SQLException {
+        return stream(ResultFormat.CSV.renderer(rows));
+    }
+
+    @Benchmark
+    public String renderStreamedJson() throws SQLException {
+        return stream(ResultFormat.JSON.renderer(rows));
+    }
+
+    private String stream(ResultRenderer renderer) throws SQLException {
+        ResultSet rs = FakeJdbc.resultSet(result);
+        renderer.start(rs.getMetaData());
+        int count = 0;
+        while (rs.next()) {
+            renderer.row(rs);
+            count++;
+        }
+        return renderer.finish(count, false, rows);
+    }
+
+    /**
+     * Renders 200 tables of 4 to 30 columns per invocation.
+     */
+    @Benchmark
+    public void formatTableSchema(Blackhole bh) {
+        for (TableInfo table : tables) {
+            bh.consume(CatalogMarkdown.table(table));
+        }
+    }
+}
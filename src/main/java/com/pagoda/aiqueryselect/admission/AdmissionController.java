@@ -0,0 +1,227 @@
+package com.pagoda.aiqueryselect.admission;
+
+import com.pagoda.aiqueryselect.config.AdmissionConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Admits database work through one bounded lane per {@link ToolClass}.
+ * <p>
+ * Each lane runs at most {@code max-concurrent} calls at once. Further callers wait in per-client
+ * FIFO queues that are served round-robin, so one chatty client cannot starve the others. A caller
+ * that finds the lane's queue full, or that is not admitted within {@code max-wait}, fails
+ * immediately with a {@link BusyException} carrying a retry hint. The hint is estimated from the
+ * queue depth and the lane's recent hold times.
+ */
+@Component
+public class AdmissionController {
+
+    private static final long MIN_RETRY_AFTER_MILLIS = 50;
+
+    private final Map<ToolClass, Lane> lanes = new EnumMap<>(ToolClass.class);
+
+    public AdmissionController(AdmissionConfig admissionConfig) {
+        lanes.put(ToolClass.QUERY, new Lane(ToolClass.QUERY, admissionConfig.getQuery()));
+        lanes.put(ToolClass.SCHEMA, new Lane(ToolClass.SCHEMA, admissionConfig.getSchema()));
+    }
+
+    public <T> T call(ToolClass toolClass, String clientId, Supplier<T> work) {
+        Lane lane = lanes.get(toolClass);
+        lane.acquire(clientId != null ? clientId : "default");
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            lane.release(System.nanoTime() - start);
+        }
+    }
+
+    public List<LaneStats> stats() {
+        List<LaneStats> stats = new ArrayList<>();
+        lanes.values().forEach(lane -> stats.add(lane.stats()));
+        return stats;
+    }
+
+    public record LaneStats(ToolClass toolClass, int maxConcurrent, int inFlight, int queued, int clients,
+                            long admitted, long rejected, long timedOut, double avgWaitMillis,
+                            double maxWaitMillis, double avgHoldMillis) {
+    }
+
+    private static final class Lane {
+
+        // Weight of the newest sample in the hold time average
+        private static final double EWMA_ALPHA = 0.2;
+
+        private final ToolClass toolClass;
+        private final int maxConcurrent;
+        private final int maxQueue;
+        private final long maxWaitNanos;
+        private final ReentrantLock lock = new ReentrantLock();
+        // Client id -> waiters; re-inserting a client moves it to the back for round-robin
+        private final LinkedHashMap<String, ArrayDeque<CompletableFuture<Void>>> waiting = new LinkedHashMap<>();
+
+        private int inFlight;
+        private int queued;
+        private long admitted;
+        private long rejected;
+        private long timedOut;
+        private long totalWaitNanos;
+        private long maxWaitNanosSeen;
+        private double avgHoldNanos;
+
+        Lane(ToolClass toolClass, AdmissionConfig.Lane config) {
+            this.toolClass = toolClass;
+            this.maxConcurrent = Math.max(1, config.getMaxConcurrent());
+            this.maxQueue = Math.max(0, config.getMaxQueue());
+            this.maxWaitNanos = config.getMaxWait().toNanos();
+        }
+
+        void acquire(String clientId) {
+            CompletableFuture<Void> ticket;
+            long enqueued = System.nanoTime();
+            lock.lock();
+            try {
+                if (inFlight < maxConcurrent && queued == 0) {
+                    inFlight++;
+                    admitted++;
+                    return;
+                }
+                if (queued >= maxQueue) {
+                    rejected++;
+                    throw busy();
+                }
+                ticket = new CompletableFuture<>();
+                waiting.computeIfAbsent(clientId, k -> new ArrayDeque<>()).add(ticket);
+                queued++;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                ticket.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+                recordWait(System.nanoTime() - enqueued);
+            } catch (TimeoutException | InterruptedException e) {
+                if (!withdraw(clientId, ticket)) {
+                    // Granted while timing out: the slot is ours, so take it
+                    recordWait(System.nanoTime() - enqueued);
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return;
+                }
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for admission");
+                }
+                lock.lock();
+                try {
+                    timedOut++;
+                    throw busy();
+                } finally {
+                    lock.unlock();
+                }
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        void release(long heldNanos) {
+            lock.lock();
+            try {
+                avgHoldNanos = avgHoldNanos == 0 ? heldNanos : avgHoldNanos + EWMA_ALPHA * (heldNanos - avgHoldNanos);
+                CompletableFuture<Void> next = nextWaiter();
+                if (next != null) {
+                    // The slot passes straight to the next waiter, so inFlight is unchanged
+                    admitted++;
+                    next.complete(null);
+                } else {
+                    inFlight--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Takes the oldest waiter of the client at the front and moves that client to the back.
+         */
+        private CompletableFuture<Void> nextWaiter() {
+            Iterator<Map.Entry<String, ArrayDeque<CompletableFuture<Void>>>> it = waiting.entrySet().iterator();
+            if (!it.hasNext()) {
+                return null;
+            }
+            Map.Entry<String, ArrayDeque<CompletableFuture<Void>>> entry = it.next();
+            CompletableFuture<Void> next = entry.getValue().poll();
+            it.remove();
+            if (!entry.getValue().isEmpty()) {
+                waiting.put(entry.getKey(), entry.getValue());
+            }
+            queued--;
+            return next;
+        }
+
+        /**
+         * Removes a waiter that gave up. Returns {@code false} if it had already been granted.
+         */
+        private boolean withdraw(String clientId, CompletableFuture<Void> ticket) {
+            lock.lock();
+            try {
+                if (ticket.isDone()) {
+                    return false;
+                }
+                ArrayDeque<CompletableFuture<Void>> queue = waiting.get(clientId);
+                if (queue != null && queue.remove(ticket)) {
+                    queued--;
+                    if (queue.isEmpty()) {
+                        waiting.remove(clientId);
+                    }
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void recordWait(long nanos) {
+            lock.lock();
+            try {
+                totalWaitNanos += nanos;
+                maxWaitNanosSeen = Math.max(maxWaitNanosSeen, nanos);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private BusyException busy() {
+            double holdMillis = Math.max(1, avgHoldNanos / 1_000_000);
+            long retryAfter = (long) Math.ceil((queued + 1) * holdMillis / maxConcurrent);
+            return new BusyException(toolClass, queued, Math.max(MIN_RETRY_AFTER_MILLIS, retryAfter));
+        }
+
+        LaneStats stats() {
+            lock.lock();
+            try {
+                return new LaneStats(toolClass, maxConcurrent, inFlight, queued, waiting.size(),
+                        admitted, rejected, timedOut,
+                        admitted == 0 ? 0 : totalWaitNanos / 1_000_000.0 / admitted,
+                        maxWaitNanosSeen / 1_000_000.0,
+                        avgHoldNanos / 1_000_000.0);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
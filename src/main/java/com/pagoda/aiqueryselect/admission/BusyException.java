@@ -0,0 +1,19 @@
+package com.pagoda.aiqueryselect.admission;
+
+/**
+ * Thrown when a request cannot be admitted in time. The message tells the client when to retry.
+ */
+public class BusyException extends RuntimeException {
+
+    private final long retryAfterMillis;
+
+    public BusyException(ToolClass toolClass, int queued, long retryAfterMillis) {
+        super("Server busy: " + queued + " " + toolClass.name().toLowerCase() + " request(s) queued, retry after "
+                + retryAfterMillis + " ms");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,10 @@
+package com.pagoda.aiqueryselect.admission;
+
+/**
+ * Kinds of database work that are admitted through separate lanes, so cheap schema lookups do not
+ * queue behind long-running SELECTs.
+ */
+public enum ToolClass {
+    QUERY,
+    SCHEMA
+}
@@ -0,0 +1,570 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.config.CatalogConfig;
+import com.pagoda.aiqueryselect.model.ColumnInfo;
+import com.pagoda.aiqueryselect.model.ConstraintInfo;
+import com.pagoda.aiqueryselect.model.ForeignKeyInfo;
+import com.pagoda.aiqueryselect.model.TableInfo;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Reads the data dictionary in a fixed number of set-based passes instead of one query per table.
+ * <p>
+ * Each pass streams one dictionary view for the whole {@link CatalogScope} with a large fetch size,
+ * and rows are grouped by owner/table in memory. Loading the overview costs two statements no matter
+ * how many tables exist; loading full table details costs four, which can be issued concurrently.
+ * Full catalog loads are additionally split by owner across a bounded number of connections.
+ */
+@Component
+public class CatalogLoader {
+
+    static final String TABLES_SQL = """
+            SELECT t.OWNER, t.TABLE_NAME, tc.COMMENTS, t.NUM_ROWS
+            FROM ALL_TABLES t
+            LEFT JOIN ALL_TAB_COMMENTS tc ON t.OWNER = tc.OWNER AND t.TABLE_NAME = tc.TABLE_NAME
+            WHERE %s
+            ORDER BY t.OWNER, t.TABLE_NAME
+            """;
+
+    // DATA_DEFAULT is a LONG column, which forces the driver into row-at-a-time fetching,
+    // so it is only read for the small detail scopes.
+    static final String COLUMNS_SQL = """
+            SELECT c.OWNER, c.TABLE_NAME, c.COLUMN_NAME, c.DATA_TYPE, c.DATA_LENGTH, c.DATA_PRECISION,
+                   c.DATA_SCALE, c.NULLABLE, %s AS DATA_DEFAULT, cc.COMMENTS, c.COLUMN_ID
+            FROM ALL_TAB_COLUMNS c
+            LEFT JOIN ALL_COL_COMMENTS cc
+                ON c.OWNER = cc.OWNER AND c.TABLE_NAME = cc.TABLE_NAME AND c.COLUMN_NAME = cc.COLUMN_NAME
+            WHERE %s
+            ORDER BY c.OWNER, c.TABLE_NAME, c.COLUMN_ID
+            """;
+
+    static final String CONSTRAINTS_SQL = """
+            SELECT c.OWNER, c.TABLE_NAME, c.CONSTRAINT_NAME, c.CONSTRAINT_TYPE, c.SEARCH_CONDITION,
+                   cc.COLUMN_NAME
+            FROM ALL_CONSTRAINTS c
+            LEFT JOIN ALL_CONS_COLUMNS cc
+                ON c.OWNER = cc.OWNER AND c.CONSTRAINT_NAME = cc.CONSTRAINT_NAME
+            WHERE %s
+              AND c.CONSTRAINT_TYPE IN ('P', 'U', 'C')
+            ORDER BY c.OWNER, c.TABLE_NAME, c.CONSTRAINT_TYPE, c.CONSTRAINT_NAME, cc.POSITION
+            """;
+
+    static final String FOREIGN_KEYS_SQL = """
+            SELECT c.OWNER, c.TABLE_NAME, c.CONSTRAINT_NAME, c.DELETE_RULE,
+                   c.R_OWNER, rc.TABLE_NAME AS R_TABLE_NAME, cc.COLUMN_NAME, rcc.COLUMN_NAME AS R_COLUMN_NAME
+            FROM ALL_CONSTRAINTS c
+            JOIN ALL_CONS_COLUMNS cc
+                ON c.OWNER = cc.OWNER AND c.CONSTRAINT_NAME = cc.CONSTRAINT_NAME
+            JOIN ALL_CONSTRAINTS rc
+                ON c.R_OWNER = rc.OWNER AND c.R_CONSTRAINT_NAME = rc.CONSTRAINT_NAME
+            JOIN ALL_CONS_COLUMNS rcc
+                ON rc.OWNER = rcc.OWNER AND rc.CONSTRAINT_NAME = rcc.CONSTRAINT_NAME
+               AND rcc.POSITION = cc.POSITION
+            WHERE %s
+              AND c.CONSTRAINT_TYPE = 'R'
+            ORDER BY c.OWNER, c.TABLE_NAME, c.CONSTRAINT_NAME, cc.POSITION
+            """;
+
+    static final String OWNERS_SQL = """
+            SELECT t.OWNER, COUNT(*) AS TABLE_COUNT
+            FROM ALL_TABLES t
+            WHERE %s
+            GROUP BY t.OWNER
+            ORDER BY t.OWNER
+            """.formatted(CatalogScope.all().predicate("t"));
+
+    static final String FINGERPRINT_SQL = """
+            SELECT COUNT(*) AS TABLE_COUNT,
+                   TO_CHAR(MAX(o.LAST_DDL_TIME), 'YYYYMMDDHH24MISS') AS LAST_DDL
+            FROM ALL_OBJECTS o
+            WHERE o.OBJECT_TYPE = 'TABLE'
+              AND o.OWNER NOT IN (%s)
+            """.formatted(ExcludedSchemas.SQL_LIST);
+
+    static final String DDL_TIMES_SQL = """
+            SELECT o.OWNER, o.OBJECT_NAME, TO_CHAR(o.LAST_DDL_TIME, 'YYYYMMDDHH24MISS') AS LAST_DDL
+            FROM ALL_OBJECTS o
+            WHERE o.OBJECT_TYPE = 'TABLE'
+              AND o.OWNER NOT IN (%s)
+            """.formatted(ExcludedSchemas.SQL_LIST);
+
+    private static final int PARTITIONS_PER_THREAD = 2;
+    // Columns, constraints and foreign keys each borrow a connection; the table read uses the caller's
+    private static final int EXTRA_DETAIL_READS = 3;
+    // Oracle rejects IN lists with more than 1000 expressions
+    private static final int MAX_OWNERS_PER_PARTITION = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogConfig catalogConfig;
+    private final Semaphore detailConnections;
+    private final Semaphore loadConnections;
+
+    public CatalogLoader(JdbcTemplate jdbcTemplate, CatalogConfig catalogConfig) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalogConfig = catalogConfig;
+        this.detailConnections = new Semaphore(Math.max(catalogConfig.getDetailConnections(), 0));
+        this.loadConnections = new Semaphore(Math.max(catalogConfig.getParallel().getConnections(), 0));
+    }
+
+    /**
+     * Tables with their columns, grouped by owner in owner/table order.
+     * <p>
+     * The table list is read first; the columns are then read per owner partition on as many
+     * connections as {@link #acquireLoadConnections()} could take. When it could not take at least
+     * two, for example while another full load holds them, the load reads sequentially instead.
+     */
+    public Map<String, List<TableInfo>> loadOverview() {
+        int parallelism = acquireLoadConnections();
+        if (parallelism <= 1) {
+            return groupByOwner(load(CatalogScope.all(), false));
+        }
+        try {
+            Map<String, TableInfo> tables = readTables(CatalogScope.all(), true);
+            Map<String, Integer> tableCounts = new LinkedHashMap<>();
+            tables.values().forEach(table -> tableCounts.merge(table.owner(), 1, Integer::sum));
+
+            Map<String, List<ColumnInfo>> columns = new HashMap<>(tables.size() * 2);
+            inParallel(partition(tableCounts, parallelism), parallelism,
+                    scope -> readColumns(scope, tables::containsKey, false))
+                    .forEach(columns::putAll);
+            return groupByOwner(assemble(tables, columns, Map.of(), Map.of()));
+        } finally {
+            loadConnections.release(parallelism);
+        }
+    }
+
+    /**
+     * Takes up to {@link #parallelism()} of the {@code app.catalog.parallel.connections} permits
+     * without waiting, and returns how many it took. Taking one would not make the load any
+     * faster, so it then takes none and returns 0.
+     */
+    int acquireLoadConnections() {
+        for (int permits = parallelism(); permits > 1; permits--) {
+            if (loadConnections.tryAcquire(permits)) {
+                return permits;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Tables in the scope with columns, constraints and foreign keys, in owner/table order.
+     * <p>
+     * With {@code app.catalog.concurrent-details} the four reads are issued at the same time, so a
+     * detail fetch waits for about one database round trip instead of four. The three extra
+     * connections come out of {@code app.catalog.detail-connections}; when those are all in use the
+     * reads run one after another, so detail loads never hold more connections than were budgeted.
+     */
+    public List<TableInfo> loadDetails(CatalogScope scope) {
+        if (!catalogConfig.isConcurrentDetails() || !detailConnections.tryAcquire(EXTRA_DETAIL_READS)) {
+            return load(scope, true);
+        }
+        try {
+            return loadDetailsConcurrently(scope);
+        } finally {
+            detailConnections.release(EXTRA_DETAIL_READS);
+        }
+    }
+
+    List<TableInfo> loadDetailsSequentially(CatalogScope scope) {
+        return load(scope, true);
+    }
+
+    /**
+     * Runs the table read on the calling thread and the other three on virtual threads. Each
+     * statement borrows its own pooled connection and returns it as soon as it is done. A single
+     * UNION ALL statement is not an option: DATA_DEFAULT and SEARCH_CONDITION are LONG columns,
+     * which Oracle does not allow in set operations.
+     */
+    List<TableInfo> loadDetailsConcurrently(CatalogScope scope) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // The tables are not known yet, so rows for views are kept and simply never looked up
+            Future<Map<String, List<ColumnInfo>>> columns =
+                    executor.submit(() -> readColumns(scope, key -> true, true));
+            Future<Map<String, List<ConstraintInfo>>> constraints =
+                    executor.submit(() -> readConstraints(scope, key -> true));
+            Future<Map<String, List<ForeignKeyInfo>>> foreignKeys =
+                    executor.submit(() -> readForeignKeys(scope, key -> true, false));
+
+            Map<String, TableInfo> tables = readTables(scope, false);
+            return assemble(tables, join(columns), join(constraints), join(foreignKeys));
+        }
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading the catalog", e);
+        }
+    }
+
+    /**
+     * Table rows only, without any per-table dictionary reads.
+     */
+    public List<TableInfo> loadTables(CatalogScope scope) {
+        return new ArrayList<>(readTables(scope, scope.isAll()).values());
+    }
+
+    /**
+     * One table with its columns as it appears in the overview, or {@code null} if it no longer
+     * exists or is not an overview table.
+     */
+    public TableInfo loadOverviewTable(String owner, String tableName) {
+        List<TableInfo> tables = load(CatalogScope.table(owner, tableName), false);
+        return tables.isEmpty() ? null : tables.get(0);
+    }
+
+    /**
+     * Every foreign key in the catalog, with owner-qualified source and target table names.
+     */
+    public List<ForeignKeyInfo> loadAllForeignKeys() {
+        int parallelism = parallelism();
+        if (parallelism <= 1) {
+            return loadForeignKeys(CatalogScope.all());
+        }
+
+        Map<String, Integer> tableCounts = new LinkedHashMap<>();
+        stream(OWNERS_SQL, new Object[0], rs -> tableCounts.put(rs.getString("OWNER"), rs.getInt("TABLE_COUNT")));
+        // Partitions are contiguous runs of owners, so concatenating them keeps owner/table order
+        List<ForeignKeyInfo> result = new ArrayList<>();
+        inParallel(partition(tableCounts, parallelism), parallelism, this::loadForeignKeys)
+                .forEach(result::addAll);
+        return result;
+    }
+
+    /**
+     * Foreign keys declared by the tables in the scope, with owner-qualified table names.
+     */
+    public List<ForeignKeyInfo> loadForeignKeys(CatalogScope scope) {
+        List<ForeignKeyInfo> result = new ArrayList<>();
+        readForeignKeys(scope, key -> true, true).values().forEach(result::addAll);
+        return result;
+    }
+
+    /**
+     * Runs every detail statement for the scope without assembling the result, so the connection's
+     * implicit statement cache already holds them when {@code get-table-schema} is first called.
+     */
+    public void primeDetails(CatalogScope scope) {
+        Map<String, TableInfo> tables = readTables(scope, false);
+        readColumns(scope, tables::containsKey, true);
+        readConstraints(scope, tables::containsKey);
+        readForeignKeys(scope, tables::containsKey, false);
+    }
+
+    /**
+     * Number of connections a full load would like to use at once: {@code app.catalog.parallel.threads},
+     * but never more than {@code max-pool-fraction} of the Hikari pool.
+     */
+    int parallelism() {
+        CatalogConfig.Parallel parallel = catalogConfig.getParallel();
+        long byPool = (long) Math.floor(poolSize(jdbcTemplate.getDataSource()) * parallel.getMaxPoolFraction());
+        return (int) Math.max(1, Math.min(parallel.getThreads(), byPool));
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            return hikari.getMaximumPoolSize();
+        }
+        if (dataSource instanceof SingleConnectionDataSource) {
+            return 1;
+        }
+        // Not a pool we know the size of, so only the thread count applies
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Splits the owners, in the given order, into contiguous partitions of roughly equal table
+     * count. There are about two partitions per thread so one large owner does not leave the other
+     * threads idle, and never more owners in one partition than Oracle allows in an IN list.
+     */
+    static List<CatalogScope> partition(Map<String, Integer> tableCounts, int parallelism) {
+        long slots = (long) parallelism * PARTITIONS_PER_THREAD;
+        long total = tableCounts.values().stream().mapToLong(Integer::longValue).sum();
+        long target = Math.max(1, (total + slots - 1) / slots);
+
+        List<CatalogScope> partitions = new ArrayList<>();
+        List<String> owners = new ArrayList<>();
+        long size = 0;
+        for (Map.Entry<String, Integer> entry : tableCounts.entrySet()) {
+            owners.add(entry.getKey());
+            size += entry.getValue();
+            if (size >= target || owners.size() == MAX_OWNERS_PER_PARTITION) {
+                partitions.add(CatalogScope.owners(owners));
+                owners = new ArrayList<>();
+                size = 0;
+            }
+        }
+        if (!owners.isEmpty()) {
+            partitions.add(CatalogScope.owners(owners));
+        }
+        return partitions;
+    }
+
+    /**
+     * Reads every partition on at most {@code parallelism} virtual threads and returns the results
+     * in partition order. The first failure cancels the partitions that are still running.
+     */
+    private <T> List<T> inParallel(List<CatalogScope> partitions, int parallelism,
+                                   Function<CatalogScope, T> reader) {
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+                Thread.ofVirtual().name("catalog-loader-", 0).factory())) {
+            List<Future<T>> futures = new ArrayList<>(partitions.size());
+            for (CatalogScope partition : partitions) {
+                futures.add(executor.submit(() -> reader.apply(partition)));
+            }
+            List<T> results = new ArrayList<>(futures.size());
+            try {
+                for (Future<T> future : futures) {
+                    results.add(join(future));
+                }
+            } catch (RuntimeException e) {
+                executor.shutdownNow();
+                throw e;
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Cheap signature of the DDL state of the catalog: it changes whenever a table is created,
+     * dropped, altered or commented on.
+     */
+    public String ddlFingerprint() {
+        return jdbcTemplate.queryForObject(FINGERPRINT_SQL, (rs, rowNum) ->
+                fingerprint(rs.getLong("TABLE_COUNT"), rs.getString("LAST_DDL")));
+    }
+
+    /**
+     * LAST_DDL_TIME of every catalog table keyed by {@code OWNER.TABLE_NAME}, as
+     * {@code YYYYMMDDHH24MISS} strings.
+     */
+    public Map<String, String> loadDdlTimes() {
+        Map<String, String> ddlTimes = new HashMap<>();
+        stream(DDL_TIMES_SQL, new Object[0], rs ->
+                ddlTimes.put(key(rs.getString("OWNER"), rs.getString("OBJECT_NAME")), rs.getString("LAST_DDL")));
+        return ddlTimes;
+    }
+
+    /**
+     * The {@link #ddlFingerprint()} that a {@link #loadDdlTimes()} result corresponds to.
+     */
+    public static String fingerprint(Map<String, String> ddlTimes) {
+        String lastDdl = ddlTimes.values().stream().max(String::compareTo).orElse(null);
+        return fingerprint(ddlTimes.size(), lastDdl);
+    }
+
+    private static String fingerprint(long tableCount, String lastDdl) {
+        return tableCount + ":" + lastDdl;
+    }
+
+    private List<TableInfo> load(CatalogScope scope, boolean details) {
+        Map<String, TableInfo> tables = readTables(scope, !details);
+        if (tables.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, List<ColumnInfo>> columns = readColumns(scope, tables::containsKey, details);
+        Map<String, List<ConstraintInfo>> constraints = details
+                ? readConstraints(scope, tables::containsKey)
+                : Map.of();
+        Map<String, List<ForeignKeyInfo>> foreignKeys = details
+                ? readForeignKeys(scope, tables::containsKey, false)
+                : Map.of();
+        return assemble(tables, columns, constraints, foreignKeys);
+    }
+
+    private static List<TableInfo> assemble(Map<String, TableInfo> tables, Map<String, List<ColumnInfo>> columns,
+                                            Map<String, List<ConstraintInfo>> constraints,
+                                            Map<String, List<ForeignKeyInfo>> foreignKeys) {
+        List<TableInfo> result = new ArrayList<>(tables.size());
+        for (Map.Entry<String, TableInfo> entry : tables.entrySet()) {
+            String key = entry.getKey();
+            result.add(entry.getValue()
+                    .withColumns(columns.getOrDefault(key, List.of()))
+                    .withConstraints(constraints.getOrDefault(key, List.of()))
+                    .withForeignKeys(foreignKeys.getOrDefault(key, List.of())));
+        }
+        return result;
+    }
+
+    private Map<String, TableInfo> readTables(CatalogScope scope, boolean overviewOnly) {
+        String predicate = scope.predicate("t");
+        if (overviewOnly) {
+            predicate += " AND t.TEMPORARY = 'N' AND t.SECONDARY = 'N'";
+        }
+
+        Map<String, TableInfo> tables = new LinkedHashMap<>();
+        stream(TABLES_SQL.formatted(predicate), scope.parameters(), rs -> {
+            TableInfo table = new TableInfo(
+                    rs.getString("OWNER"),
+                    rs.getString("TABLE_NAME"),
+                    rs.getString("COMMENTS"),
+                    rs.getObject("NUM_ROWS") != null ? rs.getLong("NUM_ROWS") : null
+            );
+            tables.put(key(table.owner(), table.tableName()), table);
+        });
+        return tables;
+    }
+
+    private Map<String, List<ColumnInfo>> readColumns(CatalogScope scope, Predicate<String> tableFilter,
+                                                      boolean withDefaults) {
+        String sql = COLUMNS_SQL.formatted(withDefaults ? "c.DATA_DEFAULT" : "NULL", scope.predicate("c"));
+
+        Map<String, List<ColumnInfo>> columns = new HashMap<>();
+        stream(sql, scope.parameters(), rs -> {
+            String key = key(rs.getString("OWNER"), rs.getString("TABLE_NAME"));
+            // ALL_TAB_COLUMNS also lists view and excluded-table columns
+            if (!tableFilter.test(key)) {
+                return;
+            }
+            columns.computeIfAbsent(key, k -> new ArrayList<>()).add(new ColumnInfo(
+                    rs.getString("COLUMN_NAME"),
+                    rs.getString("DATA_TYPE"),
+                    rs.getObject("DATA_LENGTH") != null ? rs.getInt("DATA_LENGTH") : null,
+                    rs.getObject("DATA_PRECISION") != null ? rs.getInt("DATA_PRECISION") : null,
+                    rs.getObject("DATA_SCALE") != null ? rs.getInt("DATA_SCALE") : null,
+                    "Y".equals(rs.getString("NULLABLE")),
+                    rs.getString("DATA_DEFAULT"),
+                    rs.getString("COMMENTS"),
+                    rs.getInt("COLUMN_ID")
+            ));
+        });
+        return columns;
+    }
+
+    private Map<String, List<ConstraintInfo>> readConstraints(CatalogScope scope, Predicate<String> tableFilter) {
+        Map<String, List<ConstraintInfo>> constraints = new HashMap<>();
+        // Rows arrive ordered by constraint, one per column, so a constraint is complete
+        // as soon as the next one starts.
+        ConstraintGroup group = new ConstraintGroup();
+        stream(CONSTRAINTS_SQL.formatted(scope.predicate("c")), scope.parameters(), rs -> {
+            String key = key(rs.getString("OWNER"), rs.getString("TABLE_NAME"));
+            String constraintName = rs.getString("CONSTRAINT_NAME");
+            if (!key.equals(group.tableKey) || !constraintName.equals(group.name)) {
+                group.flushInto(constraints, tableFilter);
+                group.tableKey = key;
+                group.name = constraintName;
+                group.type = rs.getString("CONSTRAINT_TYPE");
+                group.searchCondition = rs.getString("SEARCH_CONDITION");
+            }
+            String column = rs.getString("COLUMN_NAME");
+            if (column != null) {
+                group.columns.add(column);
+            }
+        });
+        group.flushInto(constraints, tableFilter);
+        return constraints;
+    }
+
+    private Map<String, List<ForeignKeyInfo>> readForeignKeys(CatalogScope scope, Predicate<String> tableFilter,
+                                                              boolean qualified) {
+        Map<String, List<ForeignKeyInfo>> foreignKeys = new LinkedHashMap<>();
+        ForeignKeyGroup group = new ForeignKeyGroup();
+        stream(FOREIGN_KEYS_SQL.formatted(scope.predicate("c")), scope.parameters(), rs -> {
+            String key = key(rs.getString("OWNER"), rs.getString("TABLE_NAME"));
+            String constraintName = rs.getString("CONSTRAINT_NAME");
+            if (!key.equals(group.tableKey) || !constraintName.equals(group.name)) {
+                group.flushInto(foreignKeys, tableFilter);
+                group.tableKey = key;
+                group.name = constraintName;
+                group.sourceTable = qualified ? key : rs.getString("TABLE_NAME");
+                group.targetTable = qualified
+                        ? key(rs.getString("R_OWNER"), rs.getString("R_TABLE_NAME"))
+                        : rs.getString("R_TABLE_NAME");
+                group.deleteRule = rs.getString("DELETE_RULE");
+            }
+            group.sourceColumns.add(rs.getString("COLUMN_NAME"));
+            group.targetColumns.add(rs.getString("R_COLUMN_NAME"));
+        });
+        group.flushInto(foreignKeys, tableFilter);
+        return foreignKeys;
+    }
+
+    private void stream(String sql, Object[] parameters, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(catalogConfig.getFetchSize());
+            for (int i = 0; i < parameters.length; i++) {
+                ps.setObject(i + 1, parameters[i]);
+            }
+            return ps;
+        }, handler);
+    }
+
+    private static Map<String, List<TableInfo>> groupByOwner(List<TableInfo> tables) {
+        Map<String, List<TableInfo>> schemaMap = new LinkedHashMap<>();
+        for (TableInfo table : tables) {
+            schemaMap.computeIfAbsent(table.owner(), k -> new ArrayList<>()).add(table);
+        }
+        return schemaMap;
+    }
+
+    static String key(String owner, String tableName) {
+        return owner + "." + tableName;
+    }
+
+    private static final class ConstraintGroup {
+        String tableKey;
+        String name;
+        String type;
+        String searchCondition;
+        List<String> columns = new ArrayList<>();
+
+        void flushInto(Map<String, List<ConstraintInfo>> target, Predicate<String> tableFilter) {
+            if (name != null && tableFilter.test(tableKey)) {
+                target.computeIfAbsent(tableKey, k -> new ArrayList<>())
+                        .add(new ConstraintInfo(name, type, List.copyOf(columns), searchCondition));
+            }
+            columns = new ArrayList<>();
+            name = null;
+        }
+    }
+
+    private static final class ForeignKeyGroup {
+        String tableKey;
+        String name;
+        String sourceTable;
+        String targetTable;
+        String deleteRule;
+        List<String> sourceColumns = new ArrayList<>();
+        List<String> targetColumns = new ArrayList<>();
+
+        void flushInto(Map<String, List<ForeignKeyInfo>> target, Predicate<String> tableFilter) {
+            if (name != null && tableFilter.test(tableKey)) {
+                target.computeIfAbsent(tableKey, k -> new ArrayList<>()).add(new ForeignKeyInfo(
+                        name, sourceTable, List.copyOf(sourceColumns), targetTable,
+                        List.copyOf(targetColumns), deleteRule));
+            }
+            sourceColumns = new ArrayList<>();
+            targetColumns = new ArrayList<>();
+            name = null;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.model.ColumnInfo;
+import com.pagoda.aiqueryselect.model.ConstraintInfo;
+import com.pagoda.aiqueryselect.model.ForeignKeyInfo;
+import com.pagoda.aiqueryselect.model.TableInfo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Markdown views over the catalog model, shared by the tools and the resources so that both
+ * describe a table the same way.
+ */
+public final class CatalogMarkdown {
+
+    private CatalogMarkdown() {
+    }
+
+    public static String table(TableInfo table) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("# Table: ").append(table.owner()).append(".").append(table.tableName()).append("\n\n");
+
+        if (table.comments() != null && !table.comments().isBlank()) {
+            sb.append("**Description:** ").append(table.comments()).append("\n\n");
+        }
+
+        if (table.numRows() != null) {
+            sb.append("**Approximate Rows:** ").append(formatNumber(table.numRows())).append("\n\n");
+        }
+
+        // Columns
+        sb.append("## Columns\n\n");
+        sb.append("| # | Column | Type | Nullable | Default | Description |\n");
+        sb.append("|---|--------|------|----------|---------|-------------|\n");
+
+        for (ColumnInfo col : table.columns()) {
+            sb.append("| ").append(col.columnPosition()).append(" | ");
+            sb.append(col.columnName()).append(" | ");
+            sb.append(col.getFormattedType()).append(" | ");
+            sb.append(col.nullable() ? "YES" : "NO").append(" | ");
+            sb.append(col.defaultValue() != null ? escapeMarkdown(col.defaultValue().trim()) : "").append(" | ");
+            sb.append(col.comments() != null ? escapeMarkdown(col.comments()) : "").append(" |\n");
+        }
+
+        // Constraints
+        if (!table.constraints().isEmpty()) {
+            sb.append("\n## Constraints\n\n");
+
+            for (ConstraintInfo constraint : table.constraints()) {
+                sb.append("- **").append(constraint.constraintName()).append("** (");
+                sb.append(constraint.getConstraintTypeDescription()).append("): ");
+                sb.append(String.join(", ", constraint.columns()));
+                if (constraint.searchCondition() != null && "C".equals(constraint.constraintType())) {
+                    sb.append(" - ").append(constraint.searchCondition());
+                }
+                sb.append("\n");
+            }
+        }
+
+        // Foreign Keys
+        if (!table.foreignKeys().isEmpty()) {
+            sb.append("\n## Foreign Keys\n\n");
+
+            for (ForeignKeyInfo fk : table.foreignKeys()) {
+                sb.append("- **").append(fk.constraintName()).append("**: ");
+                sb.append(String.join(", ", fk.sourceColumns()));
+                sb.append(" → ").append(fk.targetTable()).append("(");
+                sb.append(String.join(", ", fk.targetColumns())).append(")");
+                if (fk.deleteRule() != null && !"NO ACTION".equals(fk.deleteRule())) {
+                    sb.append(" [ON DELETE ").append(fk.deleteRule()).append("]");
+                }
+                sb.append("\n");
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * A join plan as a ready-to-use {@code FROM} clause with aliases {@code t1..tn}, followed by the
+     * foreign key behind each join.
+     */
+    public static String joinPlan(JoinGraph.JoinPlan plan) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Join Path: ").append(String.join(", ", plan.tables())).append("\n\n");
+
+        if (plan.joins().isEmpty()) {
+            sb.append("No joins needed.\n");
+        } else {
+            Map<String, String> aliases = new HashMap<>();
+            String root = plan.tables().get(0);
+            aliases.put(root, "t1");
+
+            sb.append("```sql\n");
+            sb.append("FROM ").append(root).append(" t1\n");
+            for (JoinGraph.Join join : plan.joins()) {
+                String from = aliases.get(join.fromTable());
+                String to = "t" + (aliases.size() + 1);
+                aliases.put(join.toTable(), to);
+                sb.append("JOIN ").append(join.toTable()).append(" ").append(to).append(" ON ");
+                for (int i = 0; i < join.toColumns().size(); i++) {
+                    if (i > 0) {
+                        sb.append(" AND ");
+                    }
+                    sb.append(to).append(".").append(join.toColumns().get(i)).append(" = ")
+                            .append(from).append(".").append(join.fromColumns().get(i));
+                }
+                sb.append("\n");
+            }
+            sb.append("```\n\n");
+
+            sb.append("## Foreign Keys\n\n");
+            for (JoinGraph.Join join : plan.joins()) {
+                sb.append("- **").append(join.constraintName()).append("**: ");
+                sb.append(join.fromTable()).append(" → ").append(join.toTable()).append("\n");
+            }
+        }
+
+        if (!plan.unreachable().isEmpty()) {
+            sb.append("\n**No foreign key path to:** ").append(String.join(", ", plan.unreachable())).append("\n");
+        }
+        return sb.toString();
+    }
+
+    public static String escapeMarkdown(String text) {
+        if (text == null) return "";
+        return text.replace("|", "\\|").replace("\n", " ").replace("\r", "");
+    }
+
+    public static String formatNumber(long number) {
+        if (number >= 1_000_000) {
+            return String.format("%.1fM", number / 1_000_000.0);
+        } else if (number >= 1_000) {
+            return String.format("%.1fK", number / 1_000.0);
+        }
+        return String.valueOf(number);
+    }
+}
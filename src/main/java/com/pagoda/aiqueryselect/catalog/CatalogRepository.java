@@ -0,0 +1,398 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.config.ConfigValue;
+import com.pagoda.aiqueryselect.model.ForeignKeyInfo;
+import com.pagoda.aiqueryselect.model.TableInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds the catalog that {@code schema://overview}, {@code schema://relationships} and
+ * {@code list-tables} are served from.
+ * <p>
+ * On startup the last on-disk snapshot is published immediately when it was taken from the same
+ * database version, and is then revalidated in the background against the DDL fingerprint. A stale
+ * snapshot keeps serving until its replacement has been loaded, after which the rendered schema
+ * caches are cleared. Afterwards {@link SchemaChangeDetector} keeps it current table by table.
+ */
+@Component
+public class CatalogRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogRepository.class);
+
+    // Derived from the published catalog; plan verdicts go too, since DDL and fresh statistics change plans
+    private static final List<String> RENDERED_CACHES = List.of("overview", "relationships", "plans");
+    private static final String TABLE_CACHE = "table";
+
+    private final CatalogLoader catalogLoader;
+    private final CatalogSnapshotStore snapshotStore;
+    private final CacheManager cacheManager;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicBoolean reindexing = new AtomicBoolean();
+    private final Object searchIndexLock = new Object();
+
+    private volatile CatalogSnapshot current;
+    private volatile OwnerIndex ownerIndex;
+    private volatile SearchIndex searchIndex;
+    private volatile JoinIndex joinIndex;
+
+    public CatalogRepository(CatalogLoader catalogLoader, CatalogSnapshotStore snapshotStore,
+                             CacheManager cacheManager) {
+        this.catalogLoader = catalogLoader;
+        this.snapshotStore = snapshotStore;
+        this.cacheManager = cacheManager;
+    }
+
+    public Map<String, List<TableInfo>> overview() {
+        return snapshot().overview();
+    }
+
+    public List<ForeignKeyInfo> foreignKeys() {
+        return snapshot().foreignKeys();
+    }
+
+    /**
+     * Full detail of one table, with column defaults, constraints and foreign keys, for a bare or
+     * {@code OWNER.TABLE_NAME} name. Details are read from the dictionary once per table and kept in
+     * the {@code table} cache under the canonical name until DDL touches the table, so every tool
+     * and resource describing it reads the same model. Returns {@code null} for unknown tables.
+     */
+    public TableInfo table(String tableName) {
+        String name = canonicalName(tableName);
+        Cache cache = cacheManager.getCache(TABLE_CACHE);
+        return cache != null ? cache.get(name, () -> loadTable(name)) : loadTable(name);
+    }
+
+    private TableInfo loadTable(String name) {
+        int dot = name.indexOf('.');
+        CatalogScope scope;
+        if (dot >= 0) {
+            scope = CatalogScope.table(name.substring(0, dot), name.substring(dot + 1));
+        } else {
+            // Before the catalog is published a bare name is resolved with one ALL_TABLES read, so
+            // details are only read for the table that wins: the first owner in alphabetical order
+            String owner = catalogLoader.loadTables(CatalogScope.tableName(name)).stream()
+                    .map(TableInfo::owner)
+                    .min(Comparator.naturalOrder())
+                    .orElse(null);
+            if (owner == null) {
+                return null;
+            }
+            scope = CatalogScope.table(owner, name);
+        }
+        List<TableInfo> tables = catalogLoader.loadDetails(scope);
+        return tables.isEmpty() ? null : tables.get(0);
+    }
+
+    /**
+     * Canonical {@code OWNER.TABLE_NAME} form of a bare or qualified table name, used as the
+     * {@code table} cache key. A bare name gets the owner that an unqualified lookup resolves to, the
+     * first in alphabetical order. This only uses a catalog that is already published; before that,
+     * or for unknown tables, the upper-cased name is returned unqualified.
+     */
+    public String canonicalName(String tableName) {
+        String name = tableName.trim().toUpperCase();
+        CatalogSnapshot snapshot = current;
+        if (name.indexOf('.') >= 0 || snapshot == null) {
+            return name;
+        }
+        OwnerIndex index = ownerIndex;
+        if (index == null || index.snapshot() != snapshot) {
+            index = OwnerIndex.of(snapshot);
+            ownerIndex = index;
+        }
+        String owner = index.owners().get(name);
+        return owner != null ? owner + "." + name : name;
+    }
+
+    /**
+     * Foreign key graph of the published catalog, built once per snapshot on first use.
+     */
+    public JoinGraph joinGraph() {
+        CatalogSnapshot snapshot = snapshot();
+        JoinIndex index = joinIndex;
+        if (index == null || index.snapshot() != snapshot) {
+            index = new JoinIndex(snapshot, JoinGraph.build(snapshot.foreignKeys()));
+            joinIndex = index;
+        }
+        return index.graph();
+    }
+
+    /**
+     * Search index over the published catalog, built on first use. Once the catalog changes, the
+     * previous index keeps answering while its replacement is built in the background, the same
+     * way a stale snapshot keeps serving until it has been reloaded.
+     */
+    public SchemaSearchIndex searchIndex() {
+        CatalogSnapshot snapshot = snapshot();
+        SearchIndex index = searchIndex;
+        if (index == null) {
+            synchronized (searchIndexLock) {
+                if (searchIndex == null) {
+                    searchIndex = buildSearchIndex(snapshot);
+                }
+                return searchIndex.index();
+            }
+        }
+        if (index.snapshot() != snapshot && reindexing.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("catalog-reindex").start(() -> {
+                try {
+                    searchIndex = buildSearchIndex(current);
+                } catch (RuntimeException e) {
+                    log.warn("Search index rebuild failed: {}", e.getMessage());
+                } finally {
+                    reindexing.set(false);
+                }
+            });
+        }
+        return index.index();
+    }
+
+    private SearchIndex buildSearchIndex(CatalogSnapshot snapshot) {
+        long start = System.nanoTime();
+        SearchIndex index = new SearchIndex(snapshot, SchemaSearchIndex.build(snapshot.overview()));
+        log.info("Indexed {} tables and columns for search in {} ms", index.index().size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    /**
+     * Fingerprint of the published catalog, or {@code null} while nothing has been loaded.
+     */
+    public String fingerprint() {
+        CatalogSnapshot snapshot = current;
+        return snapshot != null ? snapshot.fingerprint() : null;
+    }
+
+    /**
+     * When the published catalog was last read in full, which is how old its table statistics
+     * are, or 0 while nothing has been loaded.
+     */
+    public long loadedAt() {
+        CatalogSnapshot snapshot = current;
+        return snapshot != null ? snapshot.createdAt() : 0;
+    }
+
+    /**
+     * Replaces only the given tables in the published catalog. Changed tables are re-read from the
+     * dictionary, dropped ones are removed, and every other {@link TableInfo} instance is carried
+     * over unchanged so renderers can reuse what they produced for it.
+     *
+     * @param changed     {@code OWNER.TABLE_NAME} keys of created or altered tables
+     * @param dropped     {@code OWNER.TABLE_NAME} keys of tables that no longer exist
+     * @param fingerprint DDL fingerprint the change set was computed against
+     * @return {@code false} if nothing was applied, because no catalog is published yet or a full
+     *         reload is running, so the caller should offer the changes again later
+     */
+    public synchronized boolean applyChanges(Set<String> changed, Set<String> dropped, String fingerprint) {
+        CatalogSnapshot snapshot = current;
+        if (snapshot == null || refreshing.get()) {
+            return false;
+        }
+
+        Set<String> affected = new HashSet<>(changed);
+        affected.addAll(dropped);
+
+        Map<String, TableInfo> tables = new HashMap<>();
+        snapshot.overview().values().forEach(list -> list.forEach(t -> tables.put(CatalogLoader.key(t.owner(), t.tableName()), t)));
+        tables.keySet().removeAll(affected);
+
+        List<ForeignKeyInfo> foreignKeys = new ArrayList<>();
+        for (ForeignKeyInfo fk : snapshot.foreignKeys()) {
+            if (!affected.contains(fk.sourceTable())) {
+                foreignKeys.add(fk);
+            }
+        }
+
+        for (String key : changed) {
+            String[] parts = key.split("\\.", 2);
+            TableInfo table = catalogLoader.loadOverviewTable(parts[0], parts[1]);
+            if (table != null) {
+                tables.put(key, table);
+            }
+            foreignKeys.addAll(catalogLoader.loadForeignKeys(CatalogScope.table(parts[0], parts[1])));
+        }
+        foreignKeys.sort(Comparator.comparing(ForeignKeyInfo::sourceTable).thenComparing(ForeignKeyInfo::constraintName));
+
+        List<TableInfo> ordered = new ArrayList<>(tables.values());
+        ordered.sort(Comparator.comparing(TableInfo::owner).thenComparing(TableInfo::tableName));
+        Map<String, List<TableInfo>> overview = new LinkedHashMap<>();
+        for (TableInfo table : ordered) {
+            overview.computeIfAbsent(table.owner(), k -> new ArrayList<>()).add(table);
+        }
+
+        // Only the changed tables were read, so the catalog keeps the age of its last full load
+        CatalogSnapshot updated = new CatalogSnapshot(
+                snapshot.oracleVersion(), fingerprint, snapshot.createdAt(), overview, foreignKeys);
+        snapshotStore.write(updated);
+        publish(updated);
+        evictTableEntries(affected);
+        return true;
+    }
+
+    /**
+     * Runs before the other ready listeners, so the warm-up reads the restored snapshot instead
+     * of loading the catalog again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void restore() {
+        ConfigValue.awaitVersion();
+        snapshotStore.read()
+                .filter(snapshot -> snapshot.oracleVersion().equals(ConfigValue.oracleVersion))
+                .ifPresent(snapshot -> {
+                    current = snapshot;
+                    log.info("Restored catalog snapshot with {} schema(s), fingerprint {}",
+                            snapshot.overview().size(), snapshot.fingerprint());
+                });
+        if (current != null) {
+            refreshInBackground();
+        }
+    }
+
+    /**
+     * Reloads the catalog on a background thread when the DDL fingerprint no longer matches.
+     * Does nothing if a refresh is already running.
+     *
+     * @return {@code false} if a refresh was already running
+     */
+    public boolean refreshInBackground() {
+        return refreshInBackground(false);
+    }
+
+    /**
+     * Like {@link #refreshInBackground()}, but with {@code force} the catalog is reloaded even if
+     * no DDL happened, to pick up new table statistics.
+     * <p>
+     * The reload runs outside the monitor that {@link #applyChanges} holds. Incremental updates are
+     * refused while it runs; one that was already under way when it started makes the reload run
+     * again, since its result may predate that update. It is written to disk under that monitor too.
+     *
+     * @return {@code false} if a refresh was already running
+     */
+    public boolean refreshInBackground(boolean force) {
+        if (!refreshing.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("catalog-refresh").start(() -> {
+            try {
+                String fingerprint;
+                while (true) {
+                    fingerprint = catalogLoader.ddlFingerprint();
+                    CatalogSnapshot snapshot = current;
+                    if (!force && snapshot != null && fingerprint.equals(snapshot.fingerprint())) {
+                        return;
+                    }
+                    CatalogSnapshot loaded = load(fingerprint);
+                    synchronized (this) {
+                        if (current == snapshot) {
+                            snapshotStore.write(loaded);
+                            publish(loaded);
+                            break;
+                        }
+                    }
+                    log.info("Catalog changed while it was reloaded, reloading again");
+                }
+                // A full reload does not say which tables changed, so every table detail goes
+                Cache tables = cacheManager.getCache(TABLE_CACHE);
+                if (tables != null) {
+                    tables.clear();
+                }
+                log.info("Catalog refreshed, fingerprint {}", fingerprint);
+            } catch (Exception e) {
+                log.warn("Background catalog refresh failed: {}", e.getMessage());
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    private CatalogSnapshot snapshot() {
+        CatalogSnapshot snapshot = current;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (current == null) {
+                CatalogSnapshot loaded = load(catalogLoader.ddlFingerprint());
+                snapshotStore.write(loaded);
+                current = loaded;
+            }
+            return current;
+        }
+    }
+
+    private CatalogSnapshot load(String fingerprint) {
+        // The fingerprint is read before the catalog so a concurrent DDL shows up on the next check
+        return new CatalogSnapshot(
+                ConfigValue.oracleVersion,
+                fingerprint,
+                System.currentTimeMillis(),
+                catalogLoader.loadOverview(),
+                catalogLoader.loadAllForeignKeys()
+        );
+    }
+
+    /**
+     * Entries cached before the catalog was published are keyed by the bare name, so entries are
+     * matched both as bare and as owner-qualified names.
+     */
+    private void evictTableEntries(Set<String> tableKeys) {
+        if (!(cacheManager.getCache(TABLE_CACHE) instanceof CaffeineCache cache)) {
+            return;
+        }
+        Set<String> names = new HashSet<>(tableKeys);
+        tableKeys.forEach(key -> names.add(key.substring(key.indexOf('.') + 1)));
+        cache.getNativeCache().asMap().keySet()
+                .removeIf(key -> names.contains(String.valueOf(key).toUpperCase()));
+    }
+
+    private void publish(CatalogSnapshot snapshot) {
+        current = snapshot;
+        for (String name : RENDERED_CACHES) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private record SearchIndex(CatalogSnapshot snapshot, SchemaSearchIndex index) {
+    }
+
+    private record JoinIndex(CatalogSnapshot snapshot, JoinGraph graph) {
+    }
+
+    /**
+     * Table name to its alphabetically first owner, built once per published snapshot.
+     */
+    private record OwnerIndex(CatalogSnapshot snapshot, Map<String, String> owners) {
+
+        static OwnerIndex of(CatalogSnapshot snapshot) {
+            Map<String, String> owners = new HashMap<>();
+            snapshot.overview().forEach((owner, tables) -> {
+                for (TableInfo table : tables) {
+                    owners.merge(table.tableName(), owner, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+                }
+            });
+            return new OwnerIndex(snapshot, owners);
+        }
+    }
+}
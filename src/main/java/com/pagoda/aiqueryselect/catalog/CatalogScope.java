@@ -0,0 +1,67 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Which part of the data dictionary a {@link CatalogLoader} pass reads.
+ * <p>
+ * Bind parameters are always ordered owner first, then table name. An owners scope binds one
+ * parameter per owner.
+ */
+public record CatalogScope(String owner, String tableName, List<String> owners) {
+
+    private static final CatalogScope ALL = new CatalogScope(null, null, null);
+
+    public static CatalogScope all() {
+        return ALL;
+    }
+
+    public static CatalogScope table(String owner, String tableName) {
+        return new CatalogScope(owner.toUpperCase(), tableName.toUpperCase(), null);
+    }
+
+    public static CatalogScope tableName(String tableName) {
+        return new CatalogScope(null, tableName.toUpperCase(), null);
+    }
+
+    /**
+     * Every catalog table of the given owners, which are used as read from the dictionary.
+     */
+    public static CatalogScope owners(List<String> owners) {
+        if (owners.isEmpty()) {
+            throw new IllegalArgumentException("An owners scope needs at least one owner");
+        }
+        return new CatalogScope(null, null, List.copyOf(owners));
+    }
+
+    public boolean isAll() {
+        return owner == null && tableName == null && owners == null;
+    }
+
+    String predicate(String alias) {
+        if (owner != null) {
+            return alias + ".OWNER = ? AND " + alias + ".TABLE_NAME = ?";
+        }
+        if (tableName != null) {
+            return alias + ".TABLE_NAME = ? AND " + alias + ".OWNER NOT IN (" + ExcludedSchemas.SQL_LIST + ")";
+        }
+        if (owners != null) {
+            return alias + ".OWNER IN (" + String.join(", ", Collections.nCopies(owners.size(), "?")) + ")";
+        }
+        return alias + ".OWNER NOT IN (" + ExcludedSchemas.SQL_LIST + ")";
+    }
+
+    Object[] parameters() {
+        if (owner != null) {
+            return new Object[]{owner, tableName};
+        }
+        if (tableName != null) {
+            return new Object[]{tableName};
+        }
+        if (owners != null) {
+            return owners.toArray();
+        }
+        return new Object[0];
+    }
+}
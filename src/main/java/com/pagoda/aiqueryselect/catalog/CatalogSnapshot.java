@@ -0,0 +1,20 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.model.ForeignKeyInfo;
+import com.pagoda.aiqueryselect.model.TableInfo;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The overview catalog (tables with columns, grouped by owner) and all foreign keys, stamped with
+ * the database version and DDL fingerprint it was read under.
+ */
+public record CatalogSnapshot(
+        String oracleVersion,
+        String fingerprint,
+        long createdAt,
+        Map<String, List<TableInfo>> overview,
+        List<ForeignKeyInfo> foreignKeys
+) {
+}
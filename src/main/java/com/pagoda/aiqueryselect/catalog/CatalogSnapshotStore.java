@@ -0,0 +1,329 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.config.CatalogConfig;
+import com.pagoda.aiqueryselect.model.ColumnInfo;
+import com.pagoda.aiqueryselect.model.ForeignKeyInfo;
+import com.pagoda.aiqueryselect.model.TableInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Persists a {@link CatalogSnapshot} in a compact binary file so a fresh stdio process can serve the
+ * schema without touching the data dictionary.
+ * <p>
+ * Every string is written once to a string table and referenced by index, and integers are varint
+ * encoded, which keeps repeated owners, data types and column names cheap. One file exists per JDBC
+ * URL and user. The header holds a SHA-256 of the URL and user, never the URL itself, and it is
+ * compared on read.
+ */
+@Component
+public class CatalogSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotStore.class);
+
+    private static final int MAGIC = 0x41515343; // "AQSC"
+    private static final int FORMAT_VERSION = 2;
+
+    private final CatalogConfig catalogConfig;
+    private final byte[] sourceDigest;
+
+    public CatalogSnapshotStore(CatalogConfig catalogConfig, Environment environment) {
+        this.catalogConfig = catalogConfig;
+        String source = environment.getProperty("spring.datasource.url", "") + "|"
+                + environment.getProperty("spring.datasource.username", "").toUpperCase();
+        try {
+            this.sourceDigest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Optional<CatalogSnapshot> read() {
+        if (!catalogConfig.getSnapshot().isEnabled()) {
+            return Optional.empty();
+        }
+        Path file = file();
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            // Read into the heap rather than mapping, since a live mapping blocks the next atomic
+            // replace of the file on Windows
+            return Optional.ofNullable(decode(ByteBuffer.wrap(Files.readAllBytes(file))));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable catalog snapshot {}: {}", file, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    public void write(CatalogSnapshot snapshot) {
+        if (!catalogConfig.getSnapshot().isEnabled()) {
+            return;
+        }
+        Path file = file();
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temp, encode(snapshot));
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            log.warn("Could not write catalog snapshot {}: {}", file, e.toString());
+        }
+    }
+
+    Path file() {
+        return Path.of(catalogConfig.getSnapshot().getDirectory())
+                .resolve("catalog-" + HexFormat.of().formatHex(sourceDigest, 0, 8) + ".bin");
+    }
+
+    private String sourceHash() {
+        return HexFormat.of().formatHex(sourceDigest);
+    }
+
+    byte[] encode(CatalogSnapshot snapshot) {
+        Encoder body = new Encoder();
+        body.writeString(sourceHash());
+        body.writeString(snapshot.oracleVersion());
+        body.writeString(snapshot.fingerprint());
+        body.writeLong(snapshot.createdAt());
+
+        body.writeInt(snapshot.overview().size());
+        for (Map.Entry<String, List<TableInfo>> entry : snapshot.overview().entrySet()) {
+            body.writeString(entry.getKey());
+            body.writeInt(entry.getValue().size());
+            for (TableInfo table : entry.getValue()) {
+                body.writeString(table.tableName());
+                body.writeString(table.comments());
+                body.writeNullableLong(table.numRows());
+                body.writeInt(table.columns().size());
+                for (ColumnInfo column : table.columns()) {
+                    body.writeString(column.columnName());
+                    body.writeString(column.dataType());
+                    body.writeNullableInt(column.dataLength());
+                    body.writeNullableInt(column.dataPrecision());
+                    body.writeNullableInt(column.dataScale());
+                    body.writeInt(column.nullable() ? 1 : 0);
+                    body.writeString(column.defaultValue());
+                    body.writeString(column.comments());
+                    body.writeInt(column.columnPosition());
+                }
+            }
+        }
+
+        body.writeInt(snapshot.foreignKeys().size());
+        for (ForeignKeyInfo fk : snapshot.foreignKeys()) {
+            body.writeString(fk.constraintName());
+            body.writeString(fk.sourceTable());
+            body.writeStrings(fk.sourceColumns());
+            body.writeString(fk.targetTable());
+            body.writeStrings(fk.targetColumns());
+            body.writeString(fk.deleteRule());
+        }
+
+        Encoder file = new Encoder();
+        file.writeFixedInt(MAGIC);
+        file.writeInt(FORMAT_VERSION);
+        file.writeInt(body.strings.size());
+        for (String s : body.strings.keySet()) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            file.writeInt(bytes.length);
+            file.out.write(bytes, 0, bytes.length);
+        }
+        byte[] bodyBytes = body.out.toByteArray();
+        file.out.write(bodyBytes, 0, bodyBytes.length);
+        return file.out.toByteArray();
+    }
+
+    CatalogSnapshot decode(ByteBuffer buffer) {
+        Decoder in = new Decoder(buffer);
+        if (buffer.getInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            return null;
+        }
+        String[] strings = new String[in.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[in.readInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        in.strings = strings;
+
+        if (!sourceHash().equals(in.readString())) {
+            return null;
+        }
+        String oracleVersion = in.readString();
+        String fingerprint = in.readString();
+        long createdAt = in.readLong();
+
+        int ownerCount = in.readInt();
+        Map<String, List<TableInfo>> overview = new LinkedHashMap<>();
+        for (int o = 0; o < ownerCount; o++) {
+            String owner = in.readString();
+            int tableCount = in.readInt();
+            List<TableInfo> tables = new ArrayList<>(tableCount);
+            for (int t = 0; t < tableCount; t++) {
+                String tableName = in.readString();
+                String comments = in.readString();
+                Long numRows = in.readNullableLong();
+                int columnCount = in.readInt();
+                List<ColumnInfo> columns = new ArrayList<>(columnCount);
+                for (int c = 0; c < columnCount; c++) {
+                    columns.add(new ColumnInfo(
+                            in.readString(),
+                            in.readString(),
+                            in.readNullableInt(),
+                            in.readNullableInt(),
+                            in.readNullableInt(),
+                            in.readInt() == 1,
+                            in.readString(),
+                            in.readString(),
+                            in.readInt()
+                    ));
+                }
+                tables.add(new TableInfo(owner, tableName, comments, numRows).withColumns(columns));
+            }
+            overview.put(owner, tables);
+        }
+
+        int fkCount = in.readInt();
+        List<ForeignKeyInfo> foreignKeys = new ArrayList<>(fkCount);
+        for (int i = 0; i < fkCount; i++) {
+            foreignKeys.add(new ForeignKeyInfo(
+                    in.readString(),
+                    in.readString(),
+                    in.readStrings(),
+                    in.readString(),
+                    in.readStrings(),
+                    in.readString()
+            ));
+        }
+
+        return new CatalogSnapshot(oracleVersion, fingerprint, createdAt, overview, foreignKeys);
+    }
+
+    /**
+     * Varint writer with a string table; index 0 is reserved for null.
+     */
+    private static final class Encoder {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 16);
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+
+        void writeString(String s) {
+            if (s == null) {
+                writeInt(0);
+                return;
+            }
+            writeInt(strings.computeIfAbsent(s, k -> strings.size() + 1));
+        }
+
+        void writeStrings(List<String> values) {
+            writeInt(values.size());
+            values.forEach(this::writeString);
+        }
+
+        void writeNullableInt(Integer value) {
+            writeLong(value == null ? 0 : zigZag(value) + 1);
+        }
+
+        void writeNullableLong(Long value) {
+            writeLong(value == null ? 0 : zigZag(value) + 1);
+        }
+
+        void writeInt(int value) {
+            writeLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        void writeFixedInt(int value) {
+            out.write(value >>> 24);
+            out.write(value >>> 16);
+            out.write(value >>> 8);
+            out.write(value);
+        }
+
+        private static long zigZag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    private static final class Decoder {
+        final ByteBuffer buffer;
+        String[] strings;
+
+        Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        String readString() {
+            int index = readInt();
+            return index == 0 ? null : strings[index - 1];
+        }
+
+        List<String> readStrings() {
+            int size = readInt();
+            List<String> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(readString());
+            }
+            return List.copyOf(values);
+        }
+
+        Integer readNullableInt() {
+            long raw = readLong();
+            return raw == 0 ? null : (int) unZigZag(raw - 1);
+        }
+
+        Long readNullableLong() {
+            long raw = readLong();
+            return raw == 0 ? null : unZigZag(raw - 1);
+        }
+
+        int readInt() {
+            return (int) readLong();
+        }
+
+        long readLong() {
+            long result = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get();
+                result |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return result;
+        }
+
+        private static long unZigZag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
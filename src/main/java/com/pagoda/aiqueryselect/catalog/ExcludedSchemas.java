@@ -0,0 +1,32 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Oracle-maintained schemas that are never exposed through the catalog.
+ */
+public final class ExcludedSchemas {
+
+    public static final Set<String> NAMES = Set.of(
+            "SYS", "SYSTEM", "OUTLN", "DIP", "ORACLE_OCM", "DBSNMP", "APPQOSSYS",
+            "WMSYS", "EXFSYS", "CTXSYS", "XDB", "ANONYMOUS", "ORDSYS", "ORDDATA",
+            "ORDPLUGINS", "SI_INFORMTN_SCHEMA", "MDSYS", "OLAPSYS", "MDDATA",
+            "SPATIAL_WFS_ADMIN_USR", "SPATIAL_CSW_ADMIN_USR", "LBACSYS", "DVSYS",
+            "DVF", "GSMADMIN_INTERNAL", "GSMCATUSER", "GSMUSER", "AUDSYS",
+            "DBSFWUSER", "REMOTE_SCHEDULER_AGENT", "SYSBACKUP", "SYSDG", "SYSKM",
+            "SYSRAC", "OJVMSYS", "APEX_PUBLIC_USER", "APEX_040000", "APEX_050000",
+            "FLOWS_FILES", "ORDS_PUBLIC_USER", "ORDS_METADATA"
+    );
+
+    /**
+     * Quoted, comma separated list for use inside {@code NOT IN (...)}.
+     */
+    public static final String SQL_LIST = NAMES.stream()
+            .sorted()
+            .map(s -> "'" + s + "'")
+            .collect(Collectors.joining(", "));
+
+    private ExcludedSchemas() {
+    }
+}
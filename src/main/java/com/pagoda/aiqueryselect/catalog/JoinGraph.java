@@ -0,0 +1,202 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.model.ForeignKeyInfo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable adjacency index over the foreign keys of a catalog, for planning joins.
+ * <p>
+ * Tables are nodes keyed by {@code OWNER.TABLE_NAME} and every foreign key is an edge that can be
+ * joined in either direction. Self-references are left out, since they never connect two tables.
+ * Shortest join chains are found with a bidirectional breadth-first search, which expands the
+ * smaller frontier one level at a time and stops where the two searches meet.
+ */
+public final class JoinGraph {
+
+    private static final Edge[] NO_EDGES = new Edge[0];
+
+    private final Map<String, Integer> ids;
+    private final String[] tables;
+    private final Edge[][] adjacency;
+
+    private JoinGraph(Map<String, Integer> ids, String[] tables, Edge[][] adjacency) {
+        this.ids = ids;
+        this.tables = tables;
+        this.adjacency = adjacency;
+    }
+
+    /**
+     * @param foreignKeys foreign keys with owner-qualified source and target table names
+     */
+    public static JoinGraph build(List<ForeignKeyInfo> foreignKeys) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> tables = new ArrayList<>();
+        Map<Integer, List<Edge>> edges = new HashMap<>();
+        for (ForeignKeyInfo fk : foreignKeys) {
+            if (fk.sourceTable().equals(fk.targetTable())) {
+                continue;
+            }
+            int source = ids.computeIfAbsent(fk.sourceTable(), name -> {
+                tables.add(name);
+                return tables.size() - 1;
+            });
+            int target = ids.computeIfAbsent(fk.targetTable(), name -> {
+                tables.add(name);
+                return tables.size() - 1;
+            });
+            edges.computeIfAbsent(source, k -> new ArrayList<>()).add(new Edge(source, target, fk));
+            edges.computeIfAbsent(target, k -> new ArrayList<>()).add(new Edge(target, source, fk));
+        }
+
+        Edge[][] adjacency = new Edge[tables.size()][];
+        for (int node = 0; node < adjacency.length; node++) {
+            adjacency[node] = edges.getOrDefault(node, List.of()).toArray(NO_EDGES);
+        }
+        return new JoinGraph(Map.copyOf(ids), tables.toArray(new String[0]), adjacency);
+    }
+
+    /**
+     * {@code true} if the table takes part in at least one foreign key to another table.
+     */
+    public boolean contains(String table) {
+        return ids.containsKey(table);
+    }
+
+    public int tableCount() {
+        return tables.length;
+    }
+
+    /**
+     * Connects the tables with as few joins as this greedy search finds: each table, in the given
+     * order, is joined to the tables already connected through its shortest chain. Tables that
+     * cannot be reached are reported in {@link JoinPlan#unreachable()} and left out.
+     *
+     * @param tables owner-qualified table names; the first one is the root of the plan
+     */
+    public JoinPlan connect(List<String> tables) {
+        Set<String> requested = new LinkedHashSet<>(tables);
+        List<String> connected = new ArrayList<>();
+        List<Join> joins = new ArrayList<>();
+        List<String> unreachable = new ArrayList<>();
+
+        Set<Integer> tree = new LinkedHashSet<>();
+        for (String table : requested) {
+            Integer node = ids.get(table);
+            if (connected.isEmpty()) {
+                connected.add(table);
+                if (node != null) {
+                    tree.add(node);
+                }
+                continue;
+            }
+            List<Join> path = node != null && !tree.isEmpty() ? shortestPath(tree, node) : null;
+            if (path == null) {
+                unreachable.add(table);
+                continue;
+            }
+            for (Join join : path) {
+                tree.add(ids.get(join.toTable()));
+                joins.add(join);
+            }
+            connected.add(table);
+        }
+        return new JoinPlan(connected, joins, unreachable);
+    }
+
+    /**
+     * Shortest join chain from any of the source nodes to the target, oriented towards the target.
+     * Empty if the target is a source, {@code null} if it cannot be reached.
+     */
+    private List<Join> shortestPath(Set<Integer> sources, int target) {
+        if (sources.contains(target)) {
+            return List.of();
+        }
+        // Edge used to reach a node from the forward (sources) and backward (target) side
+        Edge[] forwardVia = new Edge[tables.length];
+        Edge[] backwardVia = new Edge[tables.length];
+        boolean[] forwardSeen = new boolean[tables.length];
+        boolean[] backwardSeen = new boolean[tables.length];
+
+        List<Integer> forward = new ArrayList<>(sources);
+        sources.forEach(node -> forwardSeen[node] = true);
+        List<Integer> backward = new ArrayList<>(List.of(target));
+        backwardSeen[target] = true;
+
+        while (!forward.isEmpty() && !backward.isEmpty()) {
+            boolean expandForward = forward.size() <= backward.size();
+            List<Integer> frontier = expandForward ? forward : backward;
+            boolean[] seen = expandForward ? forwardSeen : backwardSeen;
+            boolean[] otherSeen = expandForward ? backwardSeen : forwardSeen;
+            Edge[] via = expandForward ? forwardVia : backwardVia;
+
+            List<Integer> next = new ArrayList<>();
+            for (int node : frontier) {
+                for (Edge edge : adjacency[node]) {
+                    if (seen[edge.to()]) {
+                        continue;
+                    }
+                    seen[edge.to()] = true;
+                    via[edge.to()] = edge;
+                    if (otherSeen[edge.to()]) {
+                        return path(edge.to(), forwardVia, backwardVia);
+                    }
+                    next.add(edge.to());
+                }
+            }
+            if (expandForward) {
+                forward = next;
+            } else {
+                backward = next;
+            }
+        }
+        return null;
+    }
+
+    private List<Join> path(int meeting, Edge[] forwardVia, Edge[] backwardVia) {
+        List<Join> joins = new ArrayList<>();
+        // Back from the meeting point to a source, then reversed
+        for (Edge edge = forwardVia[meeting]; edge != null; edge = forwardVia[edge.from()]) {
+            joins.add(join(edge));
+        }
+        joins = new ArrayList<>(joins.reversed());
+        // The backward search walked from the target, so its edges point away from it
+        for (Edge edge = backwardVia[meeting]; edge != null; edge = backwardVia[edge.from()]) {
+            joins.add(join(new Edge(edge.to(), edge.from(), edge.foreignKey())));
+        }
+        return joins;
+    }
+
+    private Join join(Edge edge) {
+        ForeignKeyInfo fk = edge.foreignKey();
+        String from = tables[edge.from()];
+        String to = tables[edge.to()];
+        boolean fromSource = from.equals(fk.sourceTable());
+        return new Join(from, to,
+                fromSource ? fk.sourceColumns() : fk.targetColumns(),
+                fromSource ? fk.targetColumns() : fk.sourceColumns(),
+                fk.constraintName());
+    }
+
+    private record Edge(int from, int to, ForeignKeyInfo foreignKey) {
+    }
+
+    /**
+     * One join step: {@code toTable} is joined to the already connected {@code fromTable} on
+     * {@code fromColumns[i] = toColumns[i]}, following the named foreign key.
+     */
+    public record Join(String fromTable, String toTable, List<String> fromColumns, List<String> toColumns,
+                       String constraintName) {
+    }
+
+    /**
+     * Join steps connecting {@code tables}, in an order where every step joins one new table.
+     */
+    public record JoinPlan(List<String> tables, List<Join> joins, List<String> unreachable) {
+    }
+}
@@ -0,0 +1,130 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.config.CatalogConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Polls the data dictionary for DDL and patches {@link CatalogRepository} with only the tables that
+ * changed.
+ * <p>
+ * Each poll costs one aggregate query over ALL_OBJECTS. Only when that fingerprint moves are the
+ * per-table LAST_DDL_TIME values read and compared with the previous poll, so the reload cost is
+ * proportional to the number of changed tables. Large change sets fall back to a full reload, and
+ * so does a catalog older than {@code app.catalog.change-detection.statistics-max-age}, since row
+ * counts change without DDL.
+ * <p>
+ * The per-table baseline only moves once the catalog with those changes has been published. While
+ * a full reload is pending the baseline is dropped and taken again once the published fingerprint
+ * matches the dictionary, so changes are never lost to a reload that was refused or superseded.
+ */
+@Component
+public class SchemaChangeDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaChangeDetector.class);
+
+    private final CatalogLoader catalogLoader;
+    private final CatalogRepository catalogRepository;
+    private final CatalogConfig catalogConfig;
+
+    private Map<String, String> ddlTimes;
+    private String fingerprint;
+
+    public SchemaChangeDetector(CatalogLoader catalogLoader, CatalogRepository catalogRepository,
+                                CatalogConfig catalogConfig) {
+        this.catalogLoader = catalogLoader;
+        this.catalogRepository = catalogRepository;
+        this.catalogConfig = catalogConfig;
+    }
+
+    @Scheduled(initialDelayString = "${app.catalog.change-detection.interval:60s}",
+            fixedDelayString = "${app.catalog.change-detection.interval:60s}")
+    public synchronized void poll() {
+        String published = catalogRepository.fingerprint();
+        if (published == null) {
+            // Nothing loaded yet, so nothing can be stale
+            return;
+        }
+        Duration maxAge = catalogConfig.getChangeDetection().getStatisticsMaxAge();
+        if (maxAge != null && maxAge.isPositive()
+                && System.currentTimeMillis() - catalogRepository.loadedAt() > maxAge.toMillis()) {
+            catalogRepository.refreshInBackground(true);
+        }
+        try {
+            String latest = catalogLoader.ddlFingerprint();
+            if (latest.equals(fingerprint) && latest.equals(published)) {
+                return;
+            }
+
+            Map<String, String> latestTimes = catalogLoader.loadDdlTimes();
+            String latestFingerprint = CatalogLoader.fingerprint(latestTimes);
+
+            if (ddlTimes == null) {
+                // No baseline: anything that changed since the catalog was loaded is unknown, so the
+                // baseline is only taken once a reload has published the current fingerprint
+                if (!latestFingerprint.equals(published)) {
+                    catalogRepository.refreshInBackground();
+                    return;
+                }
+            } else {
+                DdlChanges changes = diff(ddlTimes, latestTimes);
+                if (changes.size() > catalogConfig.getChangeDetection().getMaxIncrementalTables()) {
+                    log.info("{} tables changed, reloading the whole catalog", changes.size());
+                    catalogRepository.refreshInBackground();
+                    rebaseline();
+                    return;
+                }
+                if (!changes.isEmpty()) {
+                    log.info("Applying DDL changes: {} changed, {} dropped",
+                            changes.changed().size(), changes.dropped().size());
+                    if (!catalogRepository.applyChanges(changes.changed(), changes.dropped(), latestFingerprint)) {
+                        // A full reload is running; the same diff is offered again on the next poll
+                        log.debug("Catalog reload in progress, deferring DDL changes");
+                        return;
+                    }
+                }
+            }
+
+            ddlTimes = latestTimes;
+            fingerprint = latestFingerprint;
+        } catch (Exception e) {
+            log.warn("Schema change detection failed: {}", e.getMessage());
+        }
+    }
+
+    private void rebaseline() {
+        ddlTimes = null;
+        fingerprint = null;
+    }
+
+    static DdlChanges diff(Map<String, String> previous, Map<String, String> latest) {
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, String> entry : latest.entrySet()) {
+            if (!Objects.equals(entry.getValue(), previous.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        Set<String> dropped = new HashSet<>(previous.keySet());
+        dropped.removeAll(latest.keySet());
+        return new DdlChanges(changed, dropped);
+    }
+
+    record DdlChanges(Set<String> changed, Set<String> dropped) {
+
+        int size() {
+            return changed.size() + dropped.size();
+        }
+
+        boolean isEmpty() {
+            return size() == 0;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.model.ColumnInfo;
+import com.pagoda.aiqueryselect.model.TableInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable inverted index over the names and comments of every table and column in a catalog,
+ * ranked with BM25.
+ * <p>
+ * Every table and every column is one document. Text is split into words on anything that is not a
+ * letter or digit, so {@code CUSTOMER_ID} gives {@code customer} and {@code id}. Each word is
+ * indexed whole and as character n-grams: trigrams for alphabetic words, so {@code cust} finds
+ * {@code CUSTOMER}, and bigrams for Hangul and other CJK text, which is written without spaces, so
+ * {@code 주문} finds {@code 고객주문내역}. Names weigh more than comments, and a column document
+ * also carries its table name at a lower weight. Postings are flat arrays, so a query only touches
+ * the postings of its own terms.
+ */
+public final class SchemaSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final float NAME_WEIGHT = 2.0f;
+    private static final float COMMENT_WEIGHT = 1.0f;
+    private static final float CONTEXT_WEIGHT = 0.5f;
+    // An n-gram is weaker evidence than the whole word it came from
+    private static final float GRAM_WEIGHT = 0.4f;
+
+    // Prefix that keeps n-grams apart from whole words of the same spelling
+    private static final char GRAM_PREFIX = '#';
+
+    private final List<TableInfo> tables;
+    private final int[] docTable;
+    // Column index within the table, or -1 for the table document itself
+    private final int[] docColumn;
+    // K1 * (1 - B + B * length / average length), the BM25 length normalization of each document
+    private final float[] docNorm;
+    private final Map<String, Postings> postings;
+
+    private SchemaSearchIndex(List<TableInfo> tables, int[] docTable, int[] docColumn, float[] docLength,
+                              Map<String, Postings> postings) {
+        this.tables = tables;
+        this.docTable = docTable;
+        this.docColumn = docColumn;
+        double total = 0;
+        for (float length : docLength) {
+            total += length;
+        }
+        double avgDocLength = docLength.length > 0 ? Math.max(total / docLength.length, 1) : 1;
+        this.docNorm = new float[docLength.length];
+        for (int doc = 0; doc < docLength.length; doc++) {
+            docNorm[doc] = (float) (K1 * (1 - B + B * docLength[doc] / avgDocLength));
+        }
+        this.postings = postings;
+    }
+
+    public static SchemaSearchIndex build(Map<String, List<TableInfo>> overview) {
+        List<TableInfo> tables = new ArrayList<>();
+        overview.values().forEach(tables::addAll);
+
+        int docCount = tables.size();
+        for (TableInfo table : tables) {
+            docCount += table.columns().size();
+        }
+        int[] docTable = new int[docCount];
+        int[] docColumn = new int[docCount];
+        float[] docLength = new float[docCount];
+        Map<String, PostingsBuilder> builders = new HashMap<>();
+
+        int doc = 0;
+        Map<String, Float> terms = new HashMap<>();
+        for (int t = 0; t < tables.size(); t++) {
+            TableInfo table = tables.get(t);
+
+            terms.clear();
+            addTerms(terms, table.tableName(), NAME_WEIGHT);
+            addTerms(terms, table.comments(), COMMENT_WEIGHT);
+            addTerms(terms, table.owner(), CONTEXT_WEIGHT);
+            docTable[doc] = t;
+            docColumn[doc] = -1;
+            docLength[doc] = post(builders, terms, doc);
+            doc++;
+
+            List<ColumnInfo> columns = table.columns();
+            for (int c = 0; c < columns.size(); c++) {
+                ColumnInfo column = columns.get(c);
+                terms.clear();
+                addTerms(terms, column.columnName(), NAME_WEIGHT);
+                addTerms(terms, column.comments(), COMMENT_WEIGHT);
+                addTerms(terms, table.tableName(), CONTEXT_WEIGHT);
+                docTable[doc] = t;
+                docColumn[doc] = c;
+                docLength[doc] = post(builders, terms, doc);
+                doc++;
+            }
+        }
+
+        Map<String, Postings> postings = new HashMap<>(builders.size() * 2);
+        builders.forEach((term, builder) -> postings.put(term, builder.build()));
+        return new SchemaSearchIndex(List.copyOf(tables), docTable, docColumn, docLength, postings);
+    }
+
+    /**
+     * Number of indexed tables and columns.
+     */
+    public int size() {
+        return docNorm.length;
+    }
+
+    /**
+     * The best {@code limit} tables and columns for the query, highest score first.
+     */
+    public List<Hit> search(String query, int limit) {
+        Map<String, Float> queryTerms = new LinkedHashMap<>();
+        addTerms(queryTerms, query, 1.0f);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int docCount = docNorm.length;
+        float[] scores = new float[docCount];
+        int[] touched = new int[64];
+        int touchedCount = 0;
+        for (Map.Entry<String, Float> term : queryTerms.entrySet()) {
+            Postings list = postings.get(term.getKey());
+            if (list == null) {
+                continue;
+            }
+            int[] docs = list.docs();
+            float[] weights = list.weights();
+            float queryWeight = (float) (term.getValue() * (K1 + 1)
+                    * Math.log(1 + (docCount - docs.length + 0.5) / (docs.length + 0.5)));
+            for (int i = 0; i < docs.length; i++) {
+                int doc = docs[i];
+                if (scores[doc] == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = doc;
+                }
+                float tf = weights[i];
+                scores[doc] += queryWeight * tf / (tf + docNorm[doc]);
+            }
+        }
+
+        // Min-heap of the best documents so far, so a document only enters if it beats the worst
+        int[] heap = new int[Math.min(limit, touchedCount)];
+        int heapSize = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int doc = touched[i];
+            if (heapSize < heap.length) {
+                heap[heapSize++] = doc;
+                siftUp(heap, heapSize - 1, scores);
+            } else if (better(doc, heap[0], scores)) {
+                heap[0] = doc;
+                siftDown(heap, heapSize, scores);
+            }
+        }
+
+        Hit[] hits = new Hit[heapSize];
+        while (heapSize > 0) {
+            int doc = heap[0];
+            hits[--heapSize] = hit(doc, scores[doc]);
+            heap[0] = heap[heapSize];
+            siftDown(heap, heapSize, scores);
+        }
+        return List.of(hits);
+    }
+
+    /**
+     * Higher score first; on a tie the earlier document, so a table comes before its columns.
+     */
+    private static boolean better(int doc, int other, float[] scores) {
+        return scores[doc] > scores[other] || (scores[doc] == scores[other] && doc < other);
+    }
+
+    private static void siftUp(int[] heap, int index, float[] scores) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!better(heap[parent], heap[index], scores)) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, float[] scores) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && better(heap[worst], heap[left], scores)) {
+                worst = left;
+            }
+            if (right < size && better(heap[worst], heap[right], scores)) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(heap, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    private Hit hit(int doc, float score) {
+        TableInfo table = tables.get(docTable[doc]);
+        if (docColumn[doc] < 0) {
+            return new Hit(table.owner(), table.tableName(), null, null, table.comments(), score);
+        }
+        ColumnInfo column = table.columns().get(docColumn[doc]);
+        return new Hit(table.owner(), table.tableName(), column.columnName(), column.getFormattedType(),
+                column.comments(), score);
+    }
+
+    /**
+     * Adds the words of the text and their n-grams, each with the given weight per occurrence.
+     */
+    static void addTerms(Map<String, Float> terms, String text, float weight) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        for (String word : words(text)) {
+            terms.merge(word, weight, Float::sum);
+            int n = isCjk(word) ? 2 : 3;
+            if (word.length() >= n) {
+                for (int i = 0; i + n <= word.length(); i++) {
+                    terms.merge(GRAM_PREFIX + word.substring(i, i + n), weight * GRAM_WEIGHT, Float::sum);
+                }
+            }
+        }
+    }
+
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static boolean isCjk(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            Character.UnicodeScript script = Character.UnicodeScript.of(word.charAt(i));
+            if (script == Character.UnicodeScript.HANGUL || script == Character.UnicodeScript.HAN
+                    || script == Character.UnicodeScript.HIRAGANA || script == Character.UnicodeScript.KATAKANA) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static float post(Map<String, PostingsBuilder> builders, Map<String, Float> terms, int doc) {
+        float length = 0;
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            builders.computeIfAbsent(term.getKey(), k -> new PostingsBuilder()).add(doc, term.getValue());
+            length += term.getValue();
+        }
+        return length;
+    }
+
+    /**
+     * One matching table, or one column of it when {@code columnName} is set.
+     */
+    public record Hit(String owner, String tableName, String columnName, String dataType, String comments,
+                      double score) {
+
+        public boolean isColumn() {
+            return columnName != null;
+        }
+    }
+
+    private record Postings(int[] docs, float[] weights) {
+    }
+
+    private static final class PostingsBuilder {
+
+        private int[] docs = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(int doc, float weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+
+        Postings build() {
+            return new Postings(Arrays.copyOf(docs, size), Arrays.copyOf(weights, size));
+        }
+    }
+}
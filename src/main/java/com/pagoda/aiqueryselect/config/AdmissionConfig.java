@@ -0,0 +1,68 @@
+package com.pagoda.aiqueryselect.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Limits for the admission lanes in front of the connection pool. The {@code max-concurrent} values
+ * of all lanes together, plus {@code app.query.cursor.max-open}, {@code app.catalog.parallel.connections}
+ * and, with {@code app.catalog.concurrent-details}, {@code app.catalog.detail-connections}, should not
+ * exceed {@code spring.datasource.hikari.maximum-pool-size}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissionConfig {
+
+    private final Lane query = new Lane(3, 32, Duration.ofSeconds(5));
+    private final Lane schema = new Lane(2, 64, Duration.ofSeconds(10));
+
+    public Lane getQuery() {
+        return query;
+    }
+
+    public Lane getSchema() {
+        return schema;
+    }
+
+    public static class Lane {
+
+        private int maxConcurrent;
+        private int maxQueue;
+        private Duration maxWait;
+
+        public Lane() {
+        }
+
+        public Lane(int maxConcurrent, int maxQueue, Duration maxWait) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueue = maxQueue;
+            this.maxWait = maxWait;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getMaxQueue() {
+            return maxQueue;
+        }
+
+        public void setMaxQueue(int maxQueue) {
+            this.maxQueue = maxQueue;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+}
@@ -1,13 +1,15 @@
 package com.pagoda.aiqueryselect.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pagoda.aiqueryselect.model.ColumnInfo;
+import com.pagoda.aiqueryselect.model.ConstraintInfo;
+import com.pagoda.aiqueryselect.model.TableInfo;
+import com.pagoda.aiqueryselect.query.PlanGuard;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.TimeUnit;
-
 
 /**
  * date           : 2026-02-05
@@ -19,13 +21,75 @@ import java.util.concurrent.TimeUnit;
  */
 @Configuration
 public class CacheConfig {
+
+    // Rough per-entry overhead of the cache node, key and value headers, in bytes
+    private static final int ENTRY_OVERHEAD = 64;
+
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(CachePolicyConfig cachePolicyConfig) {
         CaffeineCacheManager manager = new CaffeineCacheManager();
-        manager.
-            setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(12, TimeUnit.HOURS).maximumSize(50));
+        // SchemaChangeDetector evicts schema entries when DDL happens; the rendered documents also
+        // expire so they pick up the statistics of the periodic full reload
+        manager.setCaffeine(builder(cachePolicyConfig.getDefaults()));
+        manager.registerCustomCache("overview", builder(cachePolicyConfig.getOverview()).build());
+        // Keyed by TableInfo instance: weak keys compare by identity and drop a fragment once the
+        // catalog no longer holds its table
+        manager.registerCustomCache("overview-fragments",
+                builder(cachePolicyConfig.getOverviewFragments()).weakKeys().build());
+        manager.registerCustomCache("relationships", builder(cachePolicyConfig.getRelationships()).build());
+        manager.registerCustomCache("table", builder(cachePolicyConfig.getTable()).build());
+        manager.registerCustomCache("plans", builder(cachePolicyConfig.getPlans()).build());
         return manager;
     }
 
+    static Caffeine<Object, Object> builder(CachePolicyConfig.Policy policy) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (policy.getMaxWeight() != null) {
+            builder.maximumWeight(policy.getMaxWeight().toBytes())
+                    .weigher((key, value) -> weigh(value));
+        } else if (policy.getMaxSize() > 0) {
+            builder.maximumSize(policy.getMaxSize());
+        }
+        if (policy.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(policy.getExpireAfterWrite());
+        }
+        return builder;
+    }
+
+    /**
+     * Approximate retained size of a cached value in bytes. Text is almost entirely Latin-1, so one
+     * byte per character.
+     */
+    static int weigh(Object value) {
+        long bytes = ENTRY_OVERHEAD;
+        if (value instanceof CharSequence text) {
+            bytes += text.length();
+        } else if (value instanceof TableInfo table) {
+            bytes += weigh(table);
+        } else if (value instanceof PlanGuard.Verdict verdict) {
+            bytes += verdict.plan() != null ? verdict.plan().length() : 0;
+            for (String violation : verdict.violations()) {
+                bytes += violation.length();
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private static long weigh(TableInfo table) {
+        long bytes = length(table.tableName()) + length(table.comments());
+        for (ColumnInfo column : table.columns()) {
+            bytes += ENTRY_OVERHEAD + length(column.columnName()) + length(column.dataType())
+                    + length(column.defaultValue()) + length(column.comments());
+        }
+        for (ConstraintInfo constraint : table.constraints()) {
+            bytes += ENTRY_OVERHEAD + length(constraint.constraintName()) + length(constraint.searchCondition())
+                    + 16L * constraint.columns().size();
+        }
+        bytes += (long) ENTRY_OVERHEAD * 2 * table.foreignKeys().size();
+        return bytes;
+    }
+
+    private static int length(String text) {
+        return text != null ? text.length() : 0;
+    }
 }
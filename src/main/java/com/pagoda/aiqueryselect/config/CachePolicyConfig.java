@@ -0,0 +1,88 @@
+package com.pagoda.aiqueryselect.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Per-cache eviction policies. A cache with {@code max-weight} is bounded by the approximate size
+ * of its rendered values; otherwise {@code max-size} bounds its entry count. Caches without their
+ * own section use {@code defaults}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.cache")
+public class CachePolicyConfig {
+
+    private final Policy defaults = new Policy(null, 50, null);
+    private final Policy overview = new Policy(DataSize.ofMegabytes(64), 0, Duration.ofHours(12));
+    private final Policy overviewFragments = new Policy(DataSize.ofMegabytes(64), 0, null);
+    private final Policy relationships = new Policy(DataSize.ofMegabytes(16), 0, Duration.ofHours(12));
+    private final Policy table = new Policy(DataSize.ofMegabytes(64), 0, null);
+    private final Policy plans = new Policy(null, 1000, Duration.ofMinutes(10));
+
+    public Policy getDefaults() {
+        return defaults;
+    }
+
+    public Policy getOverview() {
+        return overview;
+    }
+
+    public Policy getOverviewFragments() {
+        return overviewFragments;
+    }
+
+    public Policy getRelationships() {
+        return relationships;
+    }
+
+    public Policy getTable() {
+        return table;
+    }
+
+    public Policy getPlans() {
+        return plans;
+    }
+
+    public static class Policy {
+
+        private DataSize maxWeight;
+        private long maxSize;
+        private Duration expireAfterWrite;
+
+        public Policy() {
+        }
+
+        public Policy(DataSize maxWeight, long maxSize, Duration expireAfterWrite) {
+            this.maxWeight = maxWeight;
+            this.maxSize = maxSize;
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+        public DataSize getMaxWeight() {
+            return maxWeight;
+        }
+
+        public void setMaxWeight(DataSize maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+    }
+}
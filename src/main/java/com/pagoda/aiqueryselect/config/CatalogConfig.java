@@ -0,0 +1,148 @@
+package com.pagoda.aiqueryselect.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.catalog")
+public class CatalogConfig {
+
+    private int fetchSize = 1000;
+    /**
+     * Run the four table detail reads concurrently, each on its own pooled connection.
+     */
+    private boolean concurrentDetails = false;
+    /**
+     * Pool connections set aside for the three extra reads of concurrent detail loads. A load that
+     * cannot take three of them reads sequentially on its lane's connection instead.
+     */
+    private int detailConnections = 3;
+    private final Parallel parallel = new Parallel();
+    private final Snapshot snapshot = new Snapshot();
+    private final ChangeDetection changeDetection = new ChangeDetection();
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public boolean isConcurrentDetails() {
+        return concurrentDetails;
+    }
+
+    public void setConcurrentDetails(boolean concurrentDetails) {
+        this.concurrentDetails = concurrentDetails;
+    }
+
+    public int getDetailConnections() {
+        return detailConnections;
+    }
+
+    public void setDetailConnections(int detailConnections) {
+        this.detailConnections = detailConnections;
+    }
+
+    public Parallel getParallel() {
+        return parallel;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public ChangeDetection getChangeDetection() {
+        return changeDetection;
+    }
+
+    /**
+     * Full catalog loads split by owner. The effective parallelism is {@code threads}, capped at
+     * {@code max-pool-fraction} of the connection pool so tool calls keep connections to run on.
+     */
+    public static class Parallel {
+
+        private int threads = 4;
+        private double maxPoolFraction = 0.5;
+        /**
+         * Pool connections set aside for the partition reads of full loads, shared by every load
+         * running at once. A load that cannot take two of them reads sequentially instead.
+         */
+        private int connections = 2;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public double getMaxPoolFraction() {
+            return maxPoolFraction;
+        }
+
+        public void setMaxPoolFraction(double maxPoolFraction) {
+            this.maxPoolFraction = maxPoolFraction;
+        }
+
+        public int getConnections() {
+            return connections;
+        }
+
+        public void setConnections(int connections) {
+            this.connections = connections;
+        }
+    }
+
+    public static class Snapshot {
+
+        private boolean enabled = true;
+        private String directory = System.getProperty("user.home") + "/.aiqueryselect";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+    }
+
+    public static class ChangeDetection {
+
+        private int maxIncrementalTables = 200;
+        /**
+         * Table statistics such as NUM_ROWS change without DDL, so the catalog is also reloaded once
+         * it is this old. Zero disables it.
+         */
+        private Duration statisticsMaxAge = Duration.ofHours(12);
+
+        public int getMaxIncrementalTables() {
+            return maxIncrementalTables;
+        }
+
+        public void setMaxIncrementalTables(int maxIncrementalTables) {
+            this.maxIncrementalTables = maxIncrementalTables;
+        }
+
+        public Duration getStatisticsMaxAge() {
+            return statisticsMaxAge;
+        }
+
+        public void setStatisticsMaxAge(Duration statisticsMaxAge) {
+            this.statisticsMaxAge = statisticsMaxAge;
+        }
+    }
+}
@@ -1,6 +1,41 @@
 package com.pagoda.aiqueryselect.config;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 public class ConfigValue {
-    public static boolean isOver12 = true;
-    public static String oracleVersion = "unknown";
+    public static volatile boolean isOver12 = true;
+    public static volatile String oracleVersion = "unknown";
+
+    // Upper bound on waiting for a deferred version check, so a dead database cannot hang callers
+    private static final long VERSION_WAIT_SECONDS = 30;
+
+    private static volatile CountDownLatch versionCheck;
+
+    static void versionCheckStarted() {
+        versionCheck = new CountDownLatch(1);
+    }
+
+    static void versionCheckFinished() {
+        CountDownLatch latch = versionCheck;
+        if (latch != null) {
+            latch.countDown();
+        }
+    }
+
+    /**
+     * Waits until {@link StartSetting} has read the database version when it runs in the background.
+     * Returns at once if the check ran synchronously or has not been started.
+     */
+    public static void awaitVersion() {
+        CountDownLatch latch = versionCheck;
+        if (latch == null) {
+            return;
+        }
+        try {
+            latch.await(VERSION_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
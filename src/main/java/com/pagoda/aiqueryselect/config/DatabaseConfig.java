@@ -2,6 +2,9 @@ package com.pagoda.aiqueryselect.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
 
 @Configuration
 @ConfigurationProperties(prefix = "app.query")
@@ -9,6 +12,12 @@ public class DatabaseConfig {
 
     private int maxRows = 1000;
     private int timeoutSeconds = 30;
+    // Rows stop being fetched once the rendered output reaches this size; 0 means no limit
+    private DataSize maxOutputSize = DataSize.ofKilobytes(256);
+    private final PlanGuard planGuard = new PlanGuard();
+    private final Cursor cursor = new Cursor();
+    private final Spill spill = new Spill();
+    private final Export export = new Export();
 
     public int getMaxRows() {
         return maxRows;
@@ -25,4 +34,261 @@ public class DatabaseConfig {
     public void setTimeoutSeconds(int timeoutSeconds) {
         this.timeoutSeconds = timeoutSeconds;
     }
+
+    public DataSize getMaxOutputSize() {
+        return maxOutputSize;
+    }
+
+    public void setMaxOutputSize(DataSize maxOutputSize) {
+        this.maxOutputSize = maxOutputSize;
+    }
+
+    public PlanGuard getPlanGuard() {
+        return planGuard;
+    }
+
+    public Cursor getCursor() {
+        return cursor;
+    }
+
+    public Spill getSpill() {
+        return spill;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    /**
+     * Pre-flight EXPLAIN PLAN check. A threshold of 0 disables that check.
+     */
+    public static class PlanGuard {
+
+        public enum Action { WARN, REJECT }
+
+        private boolean enabled = false;
+        private Action action = Action.REJECT;
+        private long maxCost = 100_000;
+        private long maxCardinality = 10_000_000;
+        private DataSize maxFullScanBytes = DataSize.ofGigabytes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Action getAction() {
+            return action;
+        }
+
+        public void setAction(Action action) {
+            this.action = action;
+        }
+
+        public long getMaxCost() {
+            return maxCost;
+        }
+
+        public void setMaxCost(long maxCost) {
+            this.maxCost = maxCost;
+        }
+
+        public long getMaxCardinality() {
+            return maxCardinality;
+        }
+
+        public void setMaxCardinality(long maxCardinality) {
+            this.maxCardinality = maxCardinality;
+        }
+
+        public DataSize getMaxFullScanBytes() {
+            return maxFullScanBytes;
+        }
+
+        public void setMaxFullScanBytes(DataSize maxFullScanBytes) {
+            this.maxFullScanBytes = maxFullScanBytes;
+        }
+    }
+
+    /**
+     * Server-side cursors that {@code fetch-more} pages through. Every open cursor holds a pool
+     * connection, so the pool should have {@code max-open} connections beyond the admission lanes.
+     */
+    public static class Cursor {
+
+        private boolean enabled = true;
+        private int maxOpen = 2;
+        private Duration idleTimeout = Duration.ofMinutes(2);
+        private int maxRows = 100_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxOpen() {
+            return maxOpen;
+        }
+
+        public void setMaxOpen(int maxOpen) {
+            this.maxOpen = maxOpen;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        public int getMaxRows() {
+            return maxRows;
+        }
+
+        public void setMaxRows(int maxRows) {
+            this.maxRows = maxRows;
+        }
+    }
+
+    /**
+     * Results kept for {@code page-result}. A result stays on the heap up to
+     * {@code memory-threshold} and is written to a memory-mapped file under {@code directory}
+     * beyond that. {@code quota} bounds all kept results together, on disk and in memory.
+     */
+    public static class Spill {
+
+        private boolean enabled = true;
+        private String directory = System.getProperty("java.io.tmpdir") + "/aiqueryselect-spill";
+        private DataSize memoryThreshold = DataSize.ofMegabytes(4);
+        private int maxRows = 1_000_000;
+        private DataSize maxFileSize = DataSize.ofMegabytes(512);
+        private DataSize quota = DataSize.ofGigabytes(2);
+        private Duration ttl = Duration.ofMinutes(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public DataSize getMemoryThreshold() {
+            return memoryThreshold;
+        }
+
+        public void setMemoryThreshold(DataSize memoryThreshold) {
+            this.memoryThreshold = memoryThreshold;
+        }
+
+        public int getMaxRows() {
+            return maxRows;
+        }
+
+        public void setMaxRows(int maxRows) {
+            this.maxRows = maxRows;
+        }
+
+        public DataSize getMaxFileSize() {
+            return maxFileSize;
+        }
+
+        public void setMaxFileSize(DataSize maxFileSize) {
+            this.maxFileSize = maxFileSize;
+        }
+
+        public DataSize getQuota() {
+            return quota;
+        }
+
+        public void setQuota(DataSize quota) {
+            this.quota = quota;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Files written by {@code export-query}. Exports run with their own, longer timeout and a large
+     * fetch size, and at most {@code max-concurrent} at a time, since each holds a connection for
+     * as long as it runs.
+     */
+    public static class Export {
+
+        private boolean enabled = true;
+        private String directory = System.getProperty("java.io.tmpdir") + "/aiqueryselect-export";
+        private int maxRows = 10_000_000;
+        private int fetchSize = 1000;
+        private Duration timeout = Duration.ofMinutes(10);
+        private int maxConcurrent = 1;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getMaxRows() {
+            return maxRows;
+        }
+
+        public void setMaxRows(int maxRows) {
+            this.maxRows = maxRows;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
 }
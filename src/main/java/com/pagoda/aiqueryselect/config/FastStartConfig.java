@@ -0,0 +1,31 @@
+package com.pagoda.aiqueryselect.config;
+
+import com.pagoda.aiqueryselect.AiQuerySelectApplication;
+import io.modelcontextprotocol.server.McpAsyncServer;
+import io.modelcontextprotocol.server.McpSyncServer;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Keeps {@code spring.main.lazy-initialization}, as used by the {@code faststart} profile, from
+ * disabling the server.
+ * <p>
+ * Nothing depends on the MCP server bean, so it would never be created lazily and the stdio
+ * transport would never start. The application's own beans stay eager as well: the MCP annotation
+ * scanner only registers tools and resources from beans created before the server. Lazy
+ * initialization therefore only defers the auto-configured infrastructure the tools do not use.
+ */
+@Configuration
+public class FastStartConfig {
+
+    private static final String APPLICATION_PACKAGE = AiQuerySelectApplication.class.getPackageName() + ".";
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerMcpServer() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && (beanType.getName().startsWith(APPLICATION_PACKAGE)
+                || McpSyncServer.class.isAssignableFrom(beanType)
+                || McpAsyncServer.class.isAssignableFrom(beanType));
+    }
+}
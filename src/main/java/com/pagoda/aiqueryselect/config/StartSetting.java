@@ -1,18 +1,42 @@
 package com.pagoda.aiqueryselect.config;
 
 import com.pagoda.aiqueryselect.utils.VersionComparator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 @Component
 public class StartSetting implements CommandLineRunner {
-    public StartSetting(JdbcTemplate jdbcTemplate){
+    private static final Logger log = LoggerFactory.getLogger(StartSetting.class);
+
+    public StartSetting(JdbcTemplate jdbcTemplate, StartupConfig startupConfig){
         this.jdbcTemplate=jdbcTemplate;
+        this.startupConfig=startupConfig;
     }
     private final JdbcTemplate jdbcTemplate;
+    private final StartupConfig startupConfig;
     @Override
     public void run(String... args) throws Exception {
+        if (!startupConfig.isDeferVersionCheck()) {
+            readVersion();
+            return;
+        }
+        // Off the startup path; version-dependent code waits through ConfigValue.awaitVersion()
+        ConfigValue.versionCheckStarted();
+        Thread.ofVirtual().name("version-check").start(() -> {
+            try {
+                readVersion();
+            } catch (Exception e) {
+                log.warn("Could not read the Oracle version, assuming 12c or later: {}", e.getMessage());
+            } finally {
+                ConfigValue.versionCheckFinished();
+            }
+        });
+    }
+
+    private void readVersion() {
         String sql = """
             SELECT
                 VERSION
@@ -0,0 +1,22 @@
+package com.pagoda.aiqueryselect.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.startup")
+public class StartupConfig {
+
+    /**
+     * Read the database version on a background thread instead of before the application is ready.
+     */
+    private boolean deferVersionCheck = false;
+
+    public boolean isDeferVersionCheck() {
+        return deferVersionCheck;
+    }
+
+    public void setDeferVersionCheck(boolean deferVersionCheck) {
+        this.deferVersionCheck = deferVersionCheck;
+    }
+}
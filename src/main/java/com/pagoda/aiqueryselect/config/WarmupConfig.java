@@ -0,0 +1,37 @@
+package com.pagoda.aiqueryselect.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.warmup")
+public class WarmupConfig {
+
+    private boolean enabled = true;
+    private int connections = 5;
+    private boolean renderSchema = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    public void setConnections(int connections) {
+        this.connections = connections;
+    }
+
+    public boolean isRenderSchema() {
+        return renderSchema;
+    }
+
+    public void setRenderSchema(boolean renderSchema) {
+        this.renderSchema = renderSchema;
+    }
+}
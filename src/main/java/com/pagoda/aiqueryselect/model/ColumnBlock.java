@@ -0,0 +1,160 @@
+package com.pagoda.aiqueryselect.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Compact, immutable storage for the columns of one table, exposed as a {@code List<ColumnInfo>}.
+ * <p>
+ * Column names and data types repeat across a catalog ({@code ID}, {@code CREATED_AT},
+ * {@code VARCHAR2}), so they are interned and every table shares one instance of each. Length,
+ * precision, scale, position and nullability are packed into one {@code long} per column. Comments
+ * are kept as UTF-8 bytes and only decoded when a column is read. {@link ColumnInfo} instances are
+ * created on access and not retained.
+ */
+final class ColumnBlock extends AbstractList<ColumnInfo> implements RandomAccess {
+
+    // Packed layout, low to high: length 24 bits, precision 8, scale 8 (offset by 128), position 16, flags 8
+    private static final int LENGTH_BITS = 24;
+    private static final int PRECISION_SHIFT = 24;
+    private static final int SCALE_SHIFT = 32;
+    private static final int POSITION_SHIFT = 40;
+    private static final int FLAGS_SHIFT = 56;
+
+    private static final int MAX_LENGTH = (1 << LENGTH_BITS) - 1;
+    private static final int MAX_PRECISION = 0xFF;
+    private static final int SCALE_OFFSET = 128;
+    private static final int MAX_POSITION = 0xFFFF;
+
+    private static final long NULLABLE = 1;
+    private static final long HAS_LENGTH = 1 << 1;
+    private static final long HAS_PRECISION = 1 << 2;
+    private static final long HAS_SCALE = 1 << 3;
+
+    private final String[] names;
+    private final String[] types;
+    private final long[] packed;
+    // Null when no column of the table has one, which is the common case for defaults
+    private final String[] defaults;
+    private final Object[] comments;
+
+    private ColumnBlock(String[] names, String[] types, long[] packed, String[] defaults, Object[] comments) {
+        this.names = names;
+        this.types = types;
+        this.packed = packed;
+        this.defaults = defaults;
+        this.comments = comments;
+    }
+
+    /**
+     * Packs the columns, or returns an immutable copy as-is if any value does not fit the layout.
+     */
+    static List<ColumnInfo> of(List<ColumnInfo> columns) {
+        if (columns instanceof ColumnBlock || columns.isEmpty()) {
+            return columns.isEmpty() ? List.of() : columns;
+        }
+        int size = columns.size();
+        String[] names = new String[size];
+        String[] types = new String[size];
+        long[] packed = new long[size];
+        String[] defaults = null;
+        Object[] comments = null;
+        for (int i = 0; i < size; i++) {
+            ColumnInfo column = columns.get(i);
+            if (!fits(column)) {
+                return List.copyOf(columns);
+            }
+            names[i] = intern(column.columnName());
+            types[i] = intern(column.dataType());
+            packed[i] = pack(column);
+            if (column.defaultValue() != null) {
+                if (defaults == null) {
+                    defaults = new String[size];
+                }
+                defaults[i] = column.defaultValue();
+            }
+            if (column.comments() != null) {
+                if (comments == null) {
+                    comments = new Object[size];
+                }
+                comments[i] = encode(column.comments());
+            }
+        }
+        return new ColumnBlock(names, types, packed, defaults, comments);
+    }
+
+    @Override
+    public ColumnInfo get(int index) {
+        long bits = packed[index];
+        long flags = bits >>> FLAGS_SHIFT;
+        return new ColumnInfo(
+                names[index],
+                types[index],
+                (flags & HAS_LENGTH) != 0 ? (int) (bits & MAX_LENGTH) : null,
+                (flags & HAS_PRECISION) != 0 ? (int) ((bits >>> PRECISION_SHIFT) & MAX_PRECISION) : null,
+                (flags & HAS_SCALE) != 0 ? (int) ((bits >>> SCALE_SHIFT) & 0xFF) - SCALE_OFFSET : null,
+                (flags & NULLABLE) != 0,
+                defaults != null ? defaults[index] : null,
+                comments != null ? decode(comments[index]) : null,
+                (int) ((bits >>> POSITION_SHIFT) & MAX_POSITION)
+        );
+    }
+
+    @Override
+    public int size() {
+        return packed.length;
+    }
+
+    private static boolean fits(ColumnInfo column) {
+        return (column.dataLength() == null || (column.dataLength() >= 0 && column.dataLength() <= MAX_LENGTH))
+                && (column.dataPrecision() == null
+                || (column.dataPrecision() >= 0 && column.dataPrecision() <= MAX_PRECISION))
+                && (column.dataScale() == null
+                || (column.dataScale() >= -SCALE_OFFSET && column.dataScale() < SCALE_OFFSET))
+                && column.columnPosition() >= 0 && column.columnPosition() <= MAX_POSITION;
+    }
+
+    private static long pack(ColumnInfo column) {
+        long flags = column.nullable() ? NULLABLE : 0;
+        long bits = 0;
+        if (column.dataLength() != null) {
+            flags |= HAS_LENGTH;
+            bits |= column.dataLength();
+        }
+        if (column.dataPrecision() != null) {
+            flags |= HAS_PRECISION;
+            bits |= (long) column.dataPrecision() << PRECISION_SHIFT;
+        }
+        if (column.dataScale() != null) {
+            flags |= HAS_SCALE;
+            bits |= (long) (column.dataScale() + SCALE_OFFSET) << SCALE_SHIFT;
+        }
+        bits |= (long) column.columnPosition() << POSITION_SHIFT;
+        return bits | flags << FLAGS_SHIFT;
+    }
+
+    /**
+     * Interned through the JVM string table, so shared names are stored once and names that no
+     * catalog references any more are still garbage collected.
+     */
+    static String intern(String value) {
+        return value != null ? value.intern() : null;
+    }
+
+    /**
+     * UTF-8 bytes, unless the text is mostly non-Latin and the bytes would be larger than the string.
+     */
+    private static Object encode(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return bytes.length <= text.length() * 2 ? bytes : text;
+    }
+
+    private static String decode(Object comment) {
+        if (comment instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return (String) comment;
+    }
+}
@@ -11,6 +11,17 @@ public record TableInfo(
         List<ConstraintInfo> constraints,
         List<ForeignKeyInfo> foreignKeys
 ) {
+    /**
+     * Owners are interned and columns are packed into a {@link ColumnBlock}; {@link #columns()}
+     * returns a view that decodes each column when it is read.
+     */
+    public TableInfo {
+        owner = ColumnBlock.intern(owner);
+        columns = ColumnBlock.of(columns);
+        constraints = List.copyOf(constraints);
+        foreignKeys = List.copyOf(foreignKeys);
+    }
+
     public TableInfo(String owner, String tableName, String comments, Long numRows) {
         this(owner, tableName, comments, numRows, List.of(), List.of(), List.of());
     }
@@ -0,0 +1,346 @@
+package com.pagoda.aiqueryselect.query;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented query result.
+ * <p>
+ * Each column is stored in a container chosen from its {@link ResultSetMetaData} type: integral
+ * NUMBERs in a {@code long[]}, binary floating point in a {@code double[]}, character columns as
+ * dictionary codes while they stay low-cardinality, and everything else as plain objects. Nulls are
+ * tracked in a bitmap per column, and column names are held once instead of per row.
+ */
+public final class ColumnarResult {
+
+    /**
+     * Character columns with more distinct values than this are stored as plain strings.
+     */
+    static final int MAX_DICTIONARY_SIZE = 1024;
+
+    private static final int MAX_INITIAL_CAPACITY = 4096;
+
+    // Oracle BINARY_FLOAT / BINARY_DOUBLE
+    private static final int ORACLE_BINARY_FLOAT = 100;
+    private static final int ORACLE_BINARY_DOUBLE = 101;
+
+    private final List<String> columnNames;
+    private final Column[] columns;
+    private final int rowCount;
+
+    private ColumnarResult(List<String> columnNames, Column[] columns, int rowCount) {
+        this.columnNames = columnNames;
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    public static ColumnarResult empty() {
+        return new ColumnarResult(List.of(), new Column[0], 0);
+    }
+
+    public List<String> columnNames() {
+        return columnNames;
+    }
+
+    public int columnCount() {
+        return columns.length;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public boolean isNull(int row, int column) {
+        return columns[column].isNull(row);
+    }
+
+    /**
+     * Value at the given position, boxed only on access. Integral NUMBER columns come back as
+     * {@link Long} and binary floating point columns as {@link Double}.
+     */
+    public Object value(int row, int column) {
+        Column c = columns[column];
+        return c.isNull(row) ? null : c.get(row);
+    }
+
+    /**
+     * Row-map view over the columns. Each map is built when it is requested and not retained.
+     */
+    public List<Map<String, Object>> asMaps() {
+        return new AbstractList<>() {
+            @Override
+            public Map<String, Object> get(int index) {
+                if (index < 0 || index >= rowCount) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (int c = 0; c < columns.length; c++) {
+                    row.put(columnNames.get(c), value(index, c));
+                }
+                return row;
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+
+    /**
+     * Appends rows from a result set positioned by the caller.
+     */
+    public static final class Builder {
+
+        private final List<String> columnNames;
+        private final Column[] columns;
+        private int rowCount;
+
+        public Builder(ResultSetMetaData metaData, int expectedRows) throws SQLException {
+            int count = metaData.getColumnCount();
+            int capacity = Math.clamp(expectedRows, 16, MAX_INITIAL_CAPACITY);
+            List<String> names = new ArrayList<>(count);
+            columns = new Column[count];
+            for (int i = 1; i <= count; i++) {
+                names.add(metaData.getColumnLabel(i));
+                columns[i - 1] = columnFor(metaData, i, capacity);
+            }
+            columnNames = List.copyOf(names);
+        }
+
+        public void add(ResultSet rs) throws SQLException {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = columns[i].read(rs, i + 1, rowCount);
+            }
+            rowCount++;
+        }
+
+        public int rowCount() {
+            return rowCount;
+        }
+
+        public ColumnarResult build() {
+            return new ColumnarResult(columnNames, columns, rowCount);
+        }
+
+        private static Column columnFor(ResultSetMetaData metaData, int column, int capacity) throws SQLException {
+            return switch (metaData.getColumnType(column)) {
+                case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT -> new LongColumn(capacity);
+                case Types.NUMERIC, Types.DECIMAL -> {
+                    // NUMBER(p) with p <= 18 always fits a long; unconstrained NUMBER reports precision 0
+                    int precision = metaData.getPrecision(column);
+                    yield metaData.getScale(column) == 0 && precision > 0 && precision <= 18
+                            ? new LongColumn(capacity)
+                            : new ObjectColumn(capacity);
+                }
+                // Oracle's FLOAT, REAL and DOUBLE PRECISION are decimal NUMBERs of up to 126 bits, more
+                // than a double holds; only BINARY_FLOAT and BINARY_DOUBLE are IEEE floating point
+                case ORACLE_BINARY_FLOAT, ORACLE_BINARY_DOUBLE -> new DoubleColumn(capacity);
+                case Types.CHAR, Types.VARCHAR, Types.NCHAR, Types.NVARCHAR -> new DictionaryColumn(capacity);
+                default -> new ObjectColumn(capacity);
+            };
+        }
+    }
+
+    private abstract static class Column {
+
+        private long[] nulls;
+
+        Column(int capacity) {
+            nulls = new long[(capacity + 63) >>> 6];
+        }
+
+        /**
+         * Reads one value into {@code row} and returns the column that now holds it, which differs
+         * from {@code this} only when the storage had to change.
+         */
+        abstract Column read(ResultSet rs, int index, int row) throws SQLException;
+
+        abstract Object get(int row);
+
+        boolean isNull(int row) {
+            int word = row >>> 6;
+            return word < nulls.length && (nulls[word] & (1L << row)) != 0;
+        }
+
+        void setNull(int row) {
+            int word = row >>> 6;
+            if (word >= nulls.length) {
+                nulls = Arrays.copyOf(nulls, Math.max(word + 1, nulls.length * 2));
+            }
+            nulls[word] |= 1L << row;
+        }
+
+        void copyNulls(Column from) {
+            nulls = from.nulls;
+        }
+
+        static int grow(int length, int row) {
+            return Math.max(row + 1, length + (length >> 1));
+        }
+    }
+
+    private static final class LongColumn extends Column {
+
+        private long[] values;
+
+        LongColumn(int capacity) {
+            super(capacity);
+            values = new long[capacity];
+        }
+
+        @Override
+        Column read(ResultSet rs, int index, int row) throws SQLException {
+            long value = rs.getLong(index);
+            if (rs.wasNull()) {
+                setNull(row);
+                return this;
+            }
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+            values[row] = value;
+            return this;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+
+        private double[] values;
+
+        DoubleColumn(int capacity) {
+            super(capacity);
+            values = new double[capacity];
+        }
+
+        @Override
+        Column read(ResultSet rs, int index, int row) throws SQLException {
+            double value = rs.getDouble(index);
+            if (rs.wasNull()) {
+                setNull(row);
+                return this;
+            }
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+            values[row] = value;
+            return this;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+    }
+
+    private static final class DictionaryColumn extends Column {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private int[] values;
+
+        DictionaryColumn(int capacity) {
+            super(capacity);
+            values = new int[capacity];
+        }
+
+        @Override
+        Column read(ResultSet rs, int index, int row) throws SQLException {
+            String value = rs.getString(index);
+            if (value == null) {
+                setNull(row);
+                return this;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                if (dictionary.size() == MAX_DICTIONARY_SIZE) {
+                    ObjectColumn plain = toObjectColumn(row);
+                    plain.set(row, value);
+                    return plain;
+                }
+                code = dictionary.size();
+                dictionary.add(value);
+                codes.put(value, code);
+            }
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+            values[row] = code;
+            return this;
+        }
+
+        @Override
+        Object get(int row) {
+            return dictionary.get(values[row]);
+        }
+
+        private ObjectColumn toObjectColumn(int rows) {
+            ObjectColumn plain = new ObjectColumn(Math.max(values.length, rows + 1));
+            plain.copyNulls(this);
+            for (int r = 0; r < rows; r++) {
+                if (!isNull(r)) {
+                    plain.set(r, dictionary.get(values[r]));
+                }
+            }
+            return plain;
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+
+        private Object[] values;
+
+        ObjectColumn(int capacity) {
+            super(capacity);
+            values = new Object[capacity];
+        }
+
+        @Override
+        Column read(ResultSet rs, int index, int row) throws SQLException {
+            Object value = rs.getObject(index);
+            if (value == null) {
+                setNull(row);
+                return this;
+            }
+            set(row, value instanceof BigDecimal decimal ? compact(decimal) : value);
+            return this;
+        }
+
+        void set(int row, Object value) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+            values[row] = value;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        /**
+         * Unconstrained NUMBER columns usually hold integers; those are kept as {@link Long}.
+         */
+        private static Object compact(BigDecimal decimal) {
+            if (decimal.scale() <= 0 && decimal.precision() - decimal.scale() <= 18) {
+                return decimal.longValue();
+            }
+            return decimal;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.pagoda.aiqueryselect.query;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HexFormat;
+
+/**
+ * Writes rows from an open {@link ResultSet} as RFC 4180 CSV, one row at a time, so the memory
+ * used does not depend on the number of rows.
+ * <p>
+ * Values are written in full, never truncated. They are read with {@link ResultSet#getString}, which
+ * gives Oracle's own text form for numbers and dates; binary columns are written as hex. Nulls
+ * are empty fields, and a field is quoted only if it contains the delimiter, a quote or a line
+ * break.
+ */
+public final class CsvResultWriter {
+
+    private static final HexFormat HEX = HexFormat.of().withUpperCase();
+
+    private final Writer out;
+    private final char delimiter;
+    private boolean[] binary;
+
+    public CsvResultWriter(Writer out, char delimiter) {
+        this.out = out;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Writes the header row of column labels.
+     */
+    public void start(ResultSetMetaData metaData) throws SQLException, IOException {
+        int count = metaData.getColumnCount();
+        binary = new boolean[count];
+        for (int i = 1; i <= count; i++) {
+            binary[i - 1] = switch (metaData.getColumnType(i)) {
+                case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> true;
+                default -> false;
+            };
+            if (i > 1) {
+                out.write(delimiter);
+            }
+            writeField(out, metaData.getColumnLabel(i), delimiter);
+        }
+        out.write("\r\n");
+    }
+
+    public void row(ResultSet rs) throws SQLException, IOException {
+        for (int i = 1; i <= binary.length; i++) {
+            if (i > 1) {
+                out.write(delimiter);
+            }
+            if (binary[i - 1]) {
+                byte[] bytes = rs.getBytes(i);
+                if (bytes != null) {
+                    out.write(HEX.formatHex(bytes));
+                }
+            } else {
+                String value = rs.getString(i);
+                if (value != null) {
+                    writeField(out, value, delimiter);
+                }
+            }
+        }
+        out.write("\r\n");
+    }
+
+    /**
+     * Appends one field, quoted and with quotes doubled if it contains the delimiter, a quote or a
+     * line break.
+     */
+    public static void writeField(Appendable out, String value, char delimiter) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == delimiter || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+}
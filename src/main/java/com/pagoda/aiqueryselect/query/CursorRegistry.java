@@ -0,0 +1,122 @@
+package com.pagoda.aiqueryselect.query;
+
+import com.pagoda.aiqueryselect.config.DatabaseConfig;
+import com.pagoda.aiqueryselect.query.QueryExecutor.OpenCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Open {@link CursorSession}s by continuation token.
+ * <p>
+ * Every open cursor holds a pool connection, so at most {@code app.query.cursor.max-open} exist at
+ * a time: a slot is reserved with {@link #tryReserve()} before the query runs and released when the
+ * session closes. Sessions idle for longer than {@code app.query.cursor.idle-timeout} are closed in
+ * the background. Tokens are random and only resolve for the client that opened the cursor.
+ */
+@Component
+public class CursorRegistry implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CursorRegistry.class);
+
+    private static final int TOKEN_BYTES = 16;
+
+    private final DatabaseConfig.Cursor config;
+    private final Semaphore slots;
+    private final Map<String, CursorSession> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+
+    public CursorRegistry(DatabaseConfig databaseConfig) {
+        this.config = databaseConfig.getCursor();
+        this.slots = new Semaphore(Math.max(config.getMaxOpen(), 0));
+    }
+
+    /**
+     * Reserves a slot for a new cursor, or returns {@code false} if cursors are disabled or all
+     * slots are taken. A reserved slot must be given back with {@link #release()} if no session
+     * is registered for it.
+     */
+    public boolean tryReserve() {
+        return config.isEnabled() && slots.tryAcquire();
+    }
+
+    public void release() {
+        slots.release();
+    }
+
+    /**
+     * Registers an open cursor on a slot reserved with {@link #tryReserve()}.
+     */
+    public CursorSession register(String clientId, OpenCursor cursor, int maxRows, String warning) {
+        CursorSession session;
+        do {
+            session = new CursorSession(newToken(), clientId, cursor, maxRows, warning);
+        } while (sessions.putIfAbsent(session.token(), session) != null);
+        return session;
+    }
+
+    /**
+     * The open session for the token, or {@code null} if it is unknown, closed or was opened by
+     * another client.
+     */
+    public CursorSession get(String token, String clientId) {
+        CursorSession session = token != null ? sessions.get(token) : null;
+        if (session == null || session.isClosed() || !Objects.equals(session.clientId(), clientId)) {
+            return null;
+        }
+        session.touch();
+        return session;
+    }
+
+    /**
+     * Closes the cursor, returns its connection to the pool and frees its slot. Safe to call more
+     * than once.
+     */
+    public void close(CursorSession session) {
+        if (sessions.remove(session.token(), session) && session.markClosed()) {
+            slots.release();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.query.cursor.eviction-interval:30s}",
+            fixedDelayString = "${app.query.cursor.eviction-interval:30s}")
+    public void evictIdle() {
+        long idleTimeout = config.getIdleTimeout().toNanos();
+        for (CursorSession session : sessions.values()) {
+            // A session that is being read from is not idle
+            if (session.idleNanos() < idleTimeout || !session.lock().tryLock()) {
+                continue;
+            }
+            try {
+                log.debug("Closing cursor idle for {}s after {} rows",
+                        session.idleNanos() / 1_000_000_000L, session.rowsFetched());
+                close(session);
+            } finally {
+                session.lock().unlock();
+            }
+        }
+    }
+
+    public int openCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public void close() {
+        sessions.values().forEach(this::close);
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,109 @@
+package com.pagoda.aiqueryselect.query;
+
+import com.pagoda.aiqueryselect.query.QueryExecutor.OpenCursor;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A query left open for {@code fetch-more}, owned by the client that ran it.
+ * <p>
+ * Pages are read under {@link #lock()}, so one session never has two fetches in flight and the
+ * registry never evicts it halfway through a page. After a full page the cursor is moved one row
+ * further to find out whether more rows exist; that row is {@link #pending()} and the next page
+ * starts with it.
+ */
+public final class CursorSession {
+
+    private final String token;
+    private final String clientId;
+    private final OpenCursor cursor;
+    private final int maxRows;
+    private final String warning;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile long lastAccess = System.nanoTime();
+    private volatile boolean closed;
+    private int rowsFetched;
+    private boolean pending;
+
+    CursorSession(String token, String clientId, OpenCursor cursor, int maxRows, String warning) {
+        this.token = token;
+        this.clientId = clientId;
+        this.cursor = cursor;
+        this.maxRows = maxRows;
+        this.warning = warning;
+    }
+
+    public String token() {
+        return token;
+    }
+
+    String clientId() {
+        return clientId;
+    }
+
+    public OpenCursor cursor() {
+        return cursor;
+    }
+
+    /**
+     * Row cap of the cursor query itself, across all pages.
+     */
+    public int maxRows() {
+        return maxRows;
+    }
+
+    /**
+     * Plan guard warning from the original query, repeated on every page.
+     */
+    public String warning() {
+        return warning;
+    }
+
+    public ReentrantLock lock() {
+        return lock;
+    }
+
+    public int rowsFetched() {
+        return rowsFetched;
+    }
+
+    public boolean pending() {
+        return pending;
+    }
+
+    /**
+     * Records a page of {@code rows} rows; {@code more} if the cursor is positioned on an unread row.
+     */
+    public void advance(int rows, boolean more) {
+        rowsFetched += rows;
+        pending = more;
+        touch();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    void touch() {
+        lastAccess = System.nanoTime();
+    }
+
+    long idleNanos() {
+        return System.nanoTime() - lastAccess;
+    }
+
+    /**
+     * {@code true} only for the call that actually closed the cursor.
+     */
+    boolean markClosed() {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+        }
+        cursor.close();
+        return true;
+    }
+}
@@ -0,0 +1,110 @@
+package com.pagoda.aiqueryselect.query;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders query results as CSV or TSV: a header line of column labels, then one line per row.
+ * <p>
+ * Nulls are empty fields. Cells are cut at {@value MarkdownResultRenderer#MAX_CELL_LENGTH}
+ * characters like the markdown table. CSV fields are quoted only when needed; TSV has no quoting,
+ * so tabs and line breaks inside a value become spaces.
+ */
+public class DelimitedResultRenderer implements ResultRenderer {
+
+    private final char delimiter;
+    private final StringBuilder sb = new StringBuilder(8192);
+    private int columnCount;
+    private long size;
+    private int counted;
+
+    public DelimitedResultRenderer(char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    @Override
+    public void start(ResultSetMetaData metaData) throws SQLException {
+        List<String> labels = new ArrayList<>(metaData.getColumnCount());
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            labels.add(metaData.getColumnLabel(i));
+        }
+        start(labels);
+    }
+
+    @Override
+    public void start(List<String> columnLabels) {
+        columnCount = columnLabels.size();
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) sb.append(delimiter);
+            appendField(columnLabels.get(i));
+        }
+        sb.append('\n');
+    }
+
+    @Override
+    public void row(ResultSet rs) throws SQLException {
+        for (int i = 1; i <= columnCount; i++) {
+            if (i > 1) sb.append(delimiter);
+            Object value = rs.getObject(i);
+            if (value != null) {
+                appendField(cell(value));
+            }
+        }
+        sb.append('\n');
+    }
+
+    @Override
+    public void row(Object[] values) {
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) sb.append(delimiter);
+            if (values[i] != null) {
+                appendField(cell(values[i]));
+            }
+        }
+        sb.append('\n');
+    }
+
+    @Override
+    public long size() {
+        size += ResultRenderer.utf8Length(sb, counted, sb.length());
+        counted = sb.length();
+        return size;
+    }
+
+    @Override
+    public String finish(int rowCount, boolean truncated, int maxRows) {
+        return sb.toString();
+    }
+
+    private void appendField(String value) {
+        if (delimiter != '\t') {
+            try {
+                CsvResultWriter.writeField(sb, value, delimiter);
+            } catch (IOException e) {
+                // A StringBuilder never throws
+                throw new UncheckedIOException(e);
+            }
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            sb.append(c == '\t' || c == '\n' || c == '\r' ? ' ' : c);
+        }
+    }
+
+    /**
+     * The value as text, cut at {@value MarkdownResultRenderer#MAX_CELL_LENGTH} characters.
+     */
+    static String cell(Object value) {
+        String str = value.toString();
+        if (str.length() <= MarkdownResultRenderer.MAX_CELL_LENGTH) {
+            return str;
+        }
+        return str.substring(0, MarkdownResultRenderer.MAX_CELL_LENGTH - 3) + "...";
+    }
+}
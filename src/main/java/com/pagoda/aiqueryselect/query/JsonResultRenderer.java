@@ -0,0 +1,181 @@
+package com.pagoda.aiqueryselect.query;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders query results as columnar JSON:
+ * {@code {"columns":[...],"rowCount":n,"truncated":false,"data":[[column 1 values],[column 2 values]]}}.
+ * <p>
+ * Each column has its own buffer and values are written into it as JSON while the rows are
+ * fetched, so no row objects are built. Numbers and booleans stay JSON numbers and booleans; other
+ * values become strings cut at {@value MarkdownResultRenderer#MAX_CELL_LENGTH} characters. With
+ * {@code structured} set, the values are also kept for {@link #structuredContent()}.
+ */
+public class JsonResultRenderer implements ResultRenderer {
+
+    private final boolean structured;
+    private List<String> labels;
+    private StringBuilder[] columns;
+    private int[] counted;
+    private long size;
+    private List<List<Object>> values;
+    private int rows;
+    private boolean truncated;
+
+    public JsonResultRenderer(boolean structured) {
+        this.structured = structured;
+    }
+
+    @Override
+    public void start(ResultSetMetaData metaData) throws SQLException {
+        List<String> labels = new ArrayList<>(metaData.getColumnCount());
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            labels.add(metaData.getColumnLabel(i));
+        }
+        start(labels);
+    }
+
+    @Override
+    public void start(List<String> columnLabels) {
+        labels = List.copyOf(columnLabels);
+        columns = new StringBuilder[labels.size()];
+        counted = new int[labels.size()];
+        size = 0;
+        values = structured ? new ArrayList<>(labels.size()) : null;
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new StringBuilder(256).append('[');
+            if (structured) {
+                values.add(new ArrayList<>());
+            }
+        }
+    }
+
+    @Override
+    public void row(ResultSet rs) throws SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            append(i, rs.getObject(i + 1));
+        }
+        rows++;
+    }
+
+    @Override
+    public void row(Object[] values) {
+        for (int i = 0; i < columns.length; i++) {
+            append(i, values[i]);
+        }
+        rows++;
+    }
+
+    @Override
+    public long size() {
+        for (int i = 0; i < columns.length; i++) {
+            size += ResultRenderer.utf8Length(columns[i], counted[i], columns[i].length());
+            counted[i] = columns[i].length();
+        }
+        return size;
+    }
+
+    @Override
+    public String finish(int rowCount, boolean truncated, int maxRows) {
+        this.truncated = truncated;
+        int capacity = 64;
+        for (StringBuilder column : columns) {
+            capacity += column.length() + 2;
+        }
+        StringBuilder sb = new StringBuilder(capacity);
+        sb.append("{\"columns\":[");
+        for (int i = 0; i < labels.size(); i++) {
+            if (i > 0) sb.append(',');
+            appendString(sb, labels.get(i));
+        }
+        sb.append("],\"rowCount\":").append(rowCount)
+                .append(",\"truncated\":").append(truncated)
+                .append(",\"data\":[");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(columns[i]).append(']');
+        }
+        return sb.append("]}").toString();
+    }
+
+    /**
+     * The same result as a map for MCP structured content, or {@code null} unless the renderer was
+     * created with {@code structured} set. Valid after {@link #finish}.
+     */
+    public Map<String, Object> structuredContent() {
+        if (!structured) {
+            return null;
+        }
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("columns", labels);
+        content.put("rowCount", rows);
+        content.put("truncated", truncated);
+        content.put("data", values);
+        return content;
+    }
+
+    private void append(int column, Object value) {
+        StringBuilder sb = columns[column];
+        if (rows > 0) {
+            sb.append(',');
+        }
+        Object json = jsonValue(value);
+        switch (json) {
+            case null -> sb.append("null");
+            case String text -> appendString(sb, text);
+            default -> sb.append(json);
+        }
+        if (structured) {
+            values.get(column).add(json);
+        }
+    }
+
+    /**
+     * The value as it appears in JSON: a number, a boolean, a string or {@code null}.
+     */
+    static Object jsonValue(Object value) {
+        return switch (value) {
+            case null -> null;
+            case Long l -> l;
+            case Integer i -> i;
+            case Short s -> s;
+            case Byte b -> b;
+            case BigDecimal decimal -> decimal;
+            case BigInteger integer -> integer;
+            case Double d when !d.isNaN() && !d.isInfinite() -> d;
+            case Float f when !f.isNaN() && !f.isInfinite() -> f;
+            case Boolean b -> b;
+            default -> DelimitedResultRenderer.cell(value);
+        };
+    }
+
+    static void appendString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
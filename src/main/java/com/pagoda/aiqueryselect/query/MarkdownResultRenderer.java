@@ -0,0 +1,168 @@
+package com.pagoda.aiqueryselect.query;
+
+import com.pagoda.aiqueryselect.service.QueryService.QueryResult;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Renders query results as the markdown table returned by {@code execute-select}.
+ * <p>
+ * Cells are escaped and truncated straight into a buffer pre-sized from the column count and row
+ * limit, so a streamed result allocates little more than the final string.
+ */
+public class MarkdownResultRenderer implements ResultRenderer {
+
+    static final int MAX_CELL_LENGTH = 100;
+
+    private static final int ESTIMATED_CELL_SIZE = 16;
+    // The default output budget; a larger result grows the buffer as it goes
+    private static final int MAX_INITIAL_CAPACITY = 256 * 1024;
+
+    private final int maxRows;
+    private StringBuilder rows;
+    private int columnCount;
+    private long size;
+    private int counted;
+
+    public MarkdownResultRenderer(int maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public void start(ResultSetMetaData metaData) throws SQLException {
+        List<String> labels = new ArrayList<>(metaData.getColumnCount());
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            labels.add(metaData.getColumnLabel(i));
+        }
+        start(labels);
+    }
+
+    @Override
+    public void start(List<String> columnLabels) {
+        columnCount = columnLabels.size();
+        size = 0;
+        counted = 0;
+        rows = new StringBuilder((int) Math.min(MAX_INITIAL_CAPACITY,
+                Math.max(8192L, (long) columnCount * maxRows * ESTIMATED_CELL_SIZE)));
+
+        rows.append("| ");
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) rows.append(" | ");
+            rows.append(columnLabels.get(i));
+        }
+        rows.append(" |\n|");
+        for (int i = 1; i <= columnCount; i++) {
+            if (i > 1) rows.append('|');
+            rows.append("---");
+        }
+        rows.append("|\n");
+    }
+
+    @Override
+    public void row(ResultSet rs) throws SQLException {
+        rows.append("| ");
+        for (int i = 1; i <= columnCount; i++) {
+            if (i > 1) rows.append(" | ");
+            appendValue(rows, rs.getObject(i));
+        }
+        rows.append(" |\n");
+    }
+
+    @Override
+    public void row(Object[] values) {
+        rows.append("| ");
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) rows.append(" | ");
+            appendValue(rows, values[i]);
+        }
+        rows.append(" |\n");
+    }
+
+    @Override
+    public long size() {
+        size += ResultRenderer.utf8Length(rows, counted, rows.length());
+        counted = rows.length();
+        return size;
+    }
+
+    @Override
+    public String finish(int rowCount, boolean truncated, int maxRows) {
+        if (rowCount == 0) {
+            return "Query executed successfully. No rows returned.";
+        }
+        StringBuilder sb = new StringBuilder(rows.length() + 64);
+        appendSummary(sb, rowCount, truncated, maxRows);
+        sb.append(rows);
+        return sb.toString();
+    }
+
+    /**
+     * Renders an already materialized result in the same format.
+     */
+    public static String render(QueryResult result) {
+        ColumnarResult data = result.data();
+        if (data.rowCount() == 0) {
+            return "Query executed successfully. No rows returned.";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        appendSummary(sb, result.rowCount(), result.truncated(), result.maxRows());
+
+        List<String> columns = result.columns();
+        sb.append("| ").append(String.join(" | ", columns)).append(" |\n");
+        sb.append("|").append(String.join("|", Collections.nCopies(columns.size(), "---"))).append("|\n");
+
+        for (int r = 0; r < data.rowCount(); r++) {
+            sb.append("| ");
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) sb.append(" | ");
+                appendValue(sb, data.value(r, i));
+            }
+            sb.append(" |\n");
+        }
+        return sb.toString();
+    }
+
+    private static void appendSummary(StringBuilder sb, int rowCount, boolean truncated, int maxRows) {
+        sb.append("Query returned ").append(rowCount).append(" row(s)");
+        if (truncated && rowCount < maxRows) {
+            // Stopped short of the row limit, by the output budget or the cursor's row cap
+            sb.append(" (more rows not shown)");
+        } else if (truncated) {
+            sb.append(" (limited to ").append(maxRows).append(")");
+        }
+        sb.append(".\n\n");
+    }
+
+    /**
+     * Appends a cell value: {@code NULL} for null, otherwise at most {@value #MAX_CELL_LENGTH}
+     * characters with pipes escaped and line breaks flattened.
+     */
+    static void appendValue(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append("NULL");
+            return;
+        }
+        String str = value.toString();
+        boolean cut = str.length() > MAX_CELL_LENGTH;
+        int end = cut ? MAX_CELL_LENGTH - 3 : str.length();
+        for (int i = 0; i < end; i++) {
+            char c = str.charAt(i);
+            switch (c) {
+                case '|' -> sb.append("\\|");
+                case '\n' -> sb.append(' ');
+                case '\r' -> {
+                }
+                default -> sb.append(c);
+            }
+        }
+        if (cut) {
+            sb.append("...");
+        }
+    }
+}
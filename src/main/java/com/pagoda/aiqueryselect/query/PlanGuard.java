@@ -0,0 +1,268 @@
+package com.pagoda.aiqueryselect.query;
+
+import com.pagoda.aiqueryselect.config.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Pre-flight check that runs EXPLAIN PLAN for a query before it is executed.
+ * <p>
+ * Queries whose estimated cost, row count at any step, or full-scan bytes exceed the
+ * {@code app.query.plan-guard.*} thresholds are rejected or executed with a warning, and the plan is
+ * returned so the caller can rewrite the query. Steps below the row limit only count towards the
+ * cost. Verdicts are cached in the {@code plans} cache by normalized SQL. If the plan cannot be
+ * obtained, for example because PLAN_TABLE is not writable, the query is let through.
+ * <p>
+ * This is the one place the server writes to the database: EXPLAIN PLAN inserts the plan into
+ * PLAN_TABLE and the rows are deleted again afterwards, both committed by auto-commit on a pooled
+ * connection. The statements run through {@link QueryExecutor}, so they share its deadline and
+ * cancellation.
+ */
+@Component
+public class PlanGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(PlanGuard.class);
+
+    private static final String PLAN_SQL = """
+            SELECT ID, DEPTH, OPERATION, OPTIONS, OBJECT_OWNER, OBJECT_NAME, COST, CARDINALITY, BYTES
+            FROM PLAN_TABLE
+            WHERE STATEMENT_ID = ?
+            ORDER BY ID
+            """;
+
+    private static final String DELETE_PLAN_SQL = "DELETE FROM PLAN_TABLE WHERE STATEMENT_ID = ?";
+
+    private static final AtomicLong STATEMENT_IDS = new AtomicLong();
+
+    private final QueryExecutor queryExecutor;
+    private final DatabaseConfig databaseConfig;
+    private final CacheManager cacheManager;
+
+    public PlanGuard(QueryExecutor queryExecutor, DatabaseConfig databaseConfig, CacheManager cacheManager) {
+        this.queryExecutor = queryExecutor;
+        this.databaseConfig = databaseConfig;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Checks the query as it will be executed, including the row limit.
+     */
+    public Verdict check(String sql) {
+        DatabaseConfig.PlanGuard config = databaseConfig.getPlanGuard();
+        if (!config.isEnabled()) {
+            return Verdict.PASS;
+        }
+
+        Cache cache = cacheManager.getCache("plans");
+        String key = normalize(sql);
+        try {
+            Verdict verdict = cache != null ? cache.get(key, () -> inspect(sql, config)) : inspect(sql, config);
+            return verdict != null ? verdict : Verdict.PASS;
+        } catch (RuntimeException e) {
+            log.warn("Plan guard could not explain query, letting it through: {}", e.getMessage());
+            return Verdict.PASS;
+        }
+    }
+
+    private Verdict inspect(String sql, DatabaseConfig.PlanGuard config) {
+        int timeoutSeconds = databaseConfig.getTimeoutSeconds();
+        List<PlanLine> plan = queryExecutor.execute(timeoutSeconds,
+                (con, running) -> explain(con, running, sql, timeoutSeconds));
+        return evaluate(plan, config);
+    }
+
+    private static List<PlanLine> explain(Connection con, Consumer<Statement> running, String sql,
+                                          int timeoutSeconds) throws SQLException {
+        // Generated here, never from user input, so it is safe to inline
+        String statementId = "AQS-" + STATEMENT_IDS.incrementAndGet();
+        try {
+            try (Statement st = con.createStatement()) {
+                running.accept(st);
+                st.setQueryTimeout(timeoutSeconds);
+                st.execute("EXPLAIN PLAN SET STATEMENT_ID = '" + statementId + "' FOR " + sql);
+            }
+            List<PlanLine> lines = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(PLAN_SQL)) {
+                running.accept(ps);
+                ps.setQueryTimeout(timeoutSeconds);
+                ps.setString(1, statementId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        lines.add(new PlanLine(
+                                rs.getInt("ID"),
+                                rs.getInt("DEPTH"),
+                                rs.getString("OPERATION"),
+                                rs.getString("OPTIONS"),
+                                rs.getString("OBJECT_OWNER"),
+                                rs.getString("OBJECT_NAME"),
+                                rs.getLong("COST"),
+                                rs.getLong("CARDINALITY"),
+                                rs.getLong("BYTES")
+                        ));
+                    }
+                }
+            }
+            return lines;
+        } finally {
+            try (PreparedStatement ps = con.prepareStatement(DELETE_PLAN_SQL)) {
+                running.accept(ps);
+                ps.setQueryTimeout(timeoutSeconds);
+                ps.setString(1, statementId);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Steps below a STOPKEY step, such as the COUNT STOPKEY of the row limit, report the rows and
+     * bytes of their whole input although execution stops once the limit is reached, so only the
+     * cost is checked for them.
+     */
+    static Verdict evaluate(List<PlanLine> plan, DatabaseConfig.PlanGuard config) {
+        List<String> violations = new ArrayList<>();
+        List<Integer> offending = new ArrayList<>();
+        long maxFullScanBytes = config.getMaxFullScanBytes().toBytes();
+        // Depth of the STOPKEY step whose subtree the current line is in, or -1 outside of one
+        int stopKeyDepth = -1;
+
+        for (PlanLine line : plan) {
+            if (stopKeyDepth >= 0 && line.depth() <= stopKeyDepth) {
+                stopKeyDepth = -1;
+            }
+            boolean limited = stopKeyDepth >= 0;
+            if (!limited && line.isStopKey()) {
+                stopKeyDepth = line.depth();
+            }
+
+            boolean offends = false;
+            if (line.id() == 0 && config.getMaxCost() > 0 && line.cost() > config.getMaxCost()) {
+                violations.add("Estimated cost " + line.cost() + " exceeds the limit of " + config.getMaxCost());
+                offends = true;
+            }
+            if (!limited && config.getMaxCardinality() > 0 && line.cardinality() > config.getMaxCardinality()) {
+                violations.add("Step " + line.id() + " (" + line.operationText() + ") estimates "
+                        + line.cardinality() + " rows, over the limit of " + config.getMaxCardinality());
+                offends = true;
+            }
+            if (!limited && maxFullScanBytes > 0 && line.isFullScan() && line.bytes() > maxFullScanBytes) {
+                violations.add("Step " + line.id() + " scans all of " + line.objectText() + " (~"
+                        + line.bytes() + " bytes), over the limit of " + maxFullScanBytes);
+                offends = true;
+            }
+            if (offends) {
+                offending.add(line.id());
+            }
+        }
+
+        if (violations.isEmpty()) {
+            return Verdict.PASS;
+        }
+        return new Verdict(config.getAction() == DatabaseConfig.PlanGuard.Action.REJECT,
+                List.copyOf(violations), formatPlan(plan, offending));
+    }
+
+    private static String formatPlan(List<PlanLine> plan, List<Integer> offending) {
+        StringBuilder sb = new StringBuilder();
+        for (PlanLine line : plan) {
+            sb.append(offending.contains(line.id()) ? "* " : "  ");
+            sb.append(String.format("%3d ", line.id()));
+            sb.append("  ".repeat(Math.max(0, line.depth())));
+            sb.append(line.operationText());
+            if (line.objectName() != null) {
+                sb.append(' ').append(line.objectText());
+            }
+            sb.append("  (rows=").append(line.cardinality())
+                    .append(", bytes=").append(line.bytes())
+                    .append(", cost=").append(line.cost()).append(")\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Cache key for a query: whitespace collapsed and keywords upper-cased outside of quoted text.
+     */
+    static String normalize(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                sb.append(c);
+                if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '\'' || c == '"') {
+                quote = c;
+            }
+            sb.append(Character.toUpperCase(c));
+        }
+        return sb.toString();
+    }
+
+    record PlanLine(int id, int depth, String operation, String options, String objectOwner, String objectName,
+                    long cost, long cardinality, long bytes) {
+
+        String operationText() {
+            return options != null ? operation + " " + options : operation;
+        }
+
+        String objectText() {
+            return objectOwner != null ? objectOwner + "." + objectName : String.valueOf(objectName);
+        }
+
+        boolean isFullScan() {
+            return options != null && (options.startsWith("FULL") || options.equals("FAST FULL SCAN"));
+        }
+
+        boolean isStopKey() {
+            return options != null && options.endsWith("STOPKEY");
+        }
+    }
+
+    /**
+     * Outcome of the plan check. {@code plan} lists every step, with offending ones marked by {@code *}.
+     */
+    public record Verdict(boolean rejected, List<String> violations, String plan) {
+
+        public static final Verdict PASS = new Verdict(false, List.of(), null);
+
+        public boolean passed() {
+            return violations.isEmpty();
+        }
+
+        public String describe() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(rejected ? "Query rejected by the plan guard:\n" : "Plan guard warning:\n");
+            violations.forEach(v -> sb.append("- ").append(v).append('\n'));
+            sb.append("\nExecution plan (offending steps marked with *):\n```\n").append(plan).append("```\n");
+            if (rejected) {
+                sb.append("Add selective predicates or join conditions between all tables and try again.");
+            }
+            return sb.toString();
+        }
+    }
+}
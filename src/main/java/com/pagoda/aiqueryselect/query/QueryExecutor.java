@@ -0,0 +1,279 @@
+package com.pagoda.aiqueryselect.query;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.StatementCallback;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Runs user queries on virtual threads, each with its own statement timeout.
+ * <p>
+ * The calling thread waits for the result up to the deadline. If the deadline passes or the calling
+ * thread is interrupted, for example on shutdown, the running statement is cancelled on the database
+ * with {@link Statement#cancel()}, and the caller waits briefly for the worker to stop before it
+ * returns, so the connection or cursor is no longer in use when it is released. An MCP
+ * {@code notifications/cancelled} does not interrupt tool calls, so a query whose request was
+ * cancelled by the client runs until it finishes or reaches its deadline. Timeouts are set per
+ * statement, never on the shared {@link JdbcTemplate}. A query can also be left open as an
+ * {@link OpenCursor} and read a page at a time.
+ */
+@Component
+public class QueryExecutor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryExecutor.class);
+
+    /**
+     * Extra time the caller waits past the statement timeout for the driver to raise its own error.
+     */
+    private static final long DEADLINE_GRACE_MILLIS = 500;
+
+    /**
+     * How long an abandoned call waits for its worker to stop after the statement was cancelled.
+     */
+    private static final long CANCEL_WAIT_MILLIS = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("query-", 0).factory());
+
+    public QueryExecutor(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public <T> T query(String sql, int timeoutSeconds, ResultSetExtractor<T> extractor) {
+        return query(sql, timeoutSeconds, 0, extractor);
+    }
+
+    /**
+     * @param fetchSize rows per round trip, or 0 for the driver default
+     */
+    public <T> T query(String sql, int timeoutSeconds, int fetchSize, ResultSetExtractor<T> extractor) {
+        AtomicReference<Statement> running = new AtomicReference<>();
+        Task<T> task = submit(() -> jdbcTemplate.execute((StatementCallback<T>) stmt -> {
+            running.set(stmt);
+            try {
+                stmt.setQueryTimeout(timeoutSeconds);
+                if (fetchSize > 0) {
+                    stmt.setFetchSize(fetchSize);
+                }
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    return extractor.extractData(rs);
+                }
+            } finally {
+                running.set(null);
+            }
+        }));
+
+        return await(task, running, timeoutSeconds, () -> {
+        });
+    }
+
+    /**
+     * Runs several statements on one pooled connection with the same deadline and cancellation as
+     * {@link #query}. The work reports each statement before running it, so the statement running
+     * when the deadline passes is the one cancelled.
+     */
+    public <T> T execute(int timeoutSeconds, ConnectionWork<T> work) {
+        AtomicReference<Statement> running = new AtomicReference<>();
+        Task<T> task = submit(() -> jdbcTemplate.execute((ConnectionCallback<T>) con -> {
+            try {
+                return work.run(con, running::set);
+            } finally {
+                running.set(null);
+            }
+        }));
+
+        return await(task, running, timeoutSeconds, () -> {
+        });
+    }
+
+    /**
+     * Executes the query on a connection of its own and leaves the result set open, so later pages
+     * can be read with {@link #fetch}. The connection stays out of the pool until the returned
+     * cursor is closed.
+     */
+    public OpenCursor open(String sql, int timeoutSeconds, int fetchSize) {
+        AtomicReference<Statement> running = new AtomicReference<>();
+        // Whoever claims first owns the cursor: the task hands it over, or the timed-out caller
+        // makes the task close it
+        AtomicBoolean claimed = new AtomicBoolean();
+        Task<OpenCursor> task = submit(() -> {
+            Connection con = dataSource().getConnection();
+            try {
+                Statement stmt = con.createStatement();
+                running.set(stmt);
+                stmt.setQueryTimeout(timeoutSeconds);
+                stmt.setFetchSize(fetchSize);
+                OpenCursor cursor = new OpenCursor(con, stmt, stmt.executeQuery(sql));
+                running.set(null);
+                if (!claimed.compareAndSet(false, true)) {
+                    cursor.close();
+                    throw new CancellationException("Query was cancelled");
+                }
+                return cursor;
+            } catch (SQLException | RuntimeException e) {
+                closeQuietly(con);
+                throw e;
+            }
+        });
+
+        return await(task, running, timeoutSeconds, () -> {
+            if (!claimed.compareAndSet(false, true)) {
+                // The cursor was handed over just as the caller gave up
+                try {
+                    task.future().get().close();
+                } catch (Exception e) {
+                    log.debug("Closing abandoned cursor failed: {}", e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads from an open cursor with the same deadline and cancellation as {@link #query}. A
+     * cursor whose fetch timed out or failed should be closed; by the time this throws, the
+     * extractor has stopped reading it, unless it ignored the cancel for {@value #CANCEL_WAIT_MILLIS} ms.
+     */
+    public <T> T fetch(OpenCursor cursor, int timeoutSeconds, ResultSetExtractor<T> extractor) {
+        AtomicReference<Statement> running = new AtomicReference<>(cursor.statement());
+        Task<T> task = submit(() -> extractor.extractData(cursor.resultSet()));
+        return await(task, running, timeoutSeconds, () -> {
+        });
+    }
+
+    private <T> Task<T> submit(Callable<T> work) {
+        CountDownLatch finished = new CountDownLatch(1);
+        Future<T> future = executor.submit(() -> {
+            try {
+                return work.call();
+            } finally {
+                finished.countDown();
+            }
+        });
+        return new Task<>(future, finished);
+    }
+
+    private <T> T await(Task<T> task, AtomicReference<Statement> running, int timeoutSeconds,
+                        Runnable onAbandon) {
+        try {
+            return task.future().get(TimeUnit.SECONDS.toMillis(timeoutSeconds) + DEADLINE_GRACE_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            onAbandon.run();
+            cancel(task, running);
+            throw new QueryTimeoutException("Query exceeded the " + timeoutSeconds + " second timeout and was cancelled");
+        } catch (InterruptedException e) {
+            onAbandon.run();
+            cancel(task, running);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Query was cancelled");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private DataSource dataSource() {
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        if (dataSource == null) {
+            throw new IllegalStateException("No DataSource configured");
+        }
+        return dataSource;
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            log.debug("Close failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Cancels the statement and interrupts the worker, then waits for the worker to stop, so the
+     * caller does not close a connection or cursor that is still being read.
+     */
+    private static void cancel(Task<?> task, AtomicReference<Statement> running) {
+        Statement stmt = running.get();
+        if (stmt != null) {
+            try {
+                stmt.cancel();
+            } catch (SQLException e) {
+                log.debug("Statement cancel failed: {}", e.getMessage());
+            }
+        }
+        task.future().cancel(true);
+
+        boolean interrupted = Thread.interrupted();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CANCEL_WAIT_MILLIS);
+        try {
+            while (true) {
+                try {
+                    if (!task.finished().await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                        log.warn("Cancelled query still running after {} ms", CANCEL_WAIT_MILLIS);
+                    }
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private record Task<T>(Future<T> future, CountDownLatch finished) {
+    }
+
+    /**
+     * Work for {@link #execute}, given the connection and a consumer to report each statement to.
+     */
+    @FunctionalInterface
+    public interface ConnectionWork<T> {
+        T run(Connection con, Consumer<Statement> running) throws SQLException;
+    }
+
+    /**
+     * A result set left open on its own connection. Closing it returns the connection to the pool.
+     */
+    public record OpenCursor(Connection connection, Statement statement, ResultSet resultSet) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            closeQuietly(resultSet);
+            closeQuietly(statement);
+            closeQuietly(connection);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.pagoda.aiqueryselect.query;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Output formats of {@code execute-select}. Markdown is the most readable; CSV and TSV drop the
+ * table decoration and {@code NULL} literals, and JSON groups values by column so each column name
+ * is written once.
+ */
+public enum ResultFormat {
+    MARKDOWN,
+    CSV,
+    TSV,
+    JSON,
+    /**
+     * Columnar JSON, also returned as MCP structured content.
+     */
+    STRUCTURED;
+
+    /**
+     * The format with the given name, ignoring case; markdown if the name is blank.
+     */
+    public static ResultFormat parse(String name) {
+        if (name == null || name.isBlank()) {
+            return MARKDOWN;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format '" + name + "'. Use one of: " + Arrays.stream(values())
+                    .map(format -> format.name().toLowerCase(Locale.ROOT))
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+
+    public ResultRenderer renderer(int maxRows) {
+        return switch (this) {
+            case MARKDOWN -> new MarkdownResultRenderer(maxRows);
+            case CSV -> new DelimitedResultRenderer(',');
+            case TSV -> new DelimitedResultRenderer('\t');
+            case JSON -> new JsonResultRenderer(false);
+            case STRUCTURED -> new JsonResultRenderer(true);
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package com.pagoda.aiqueryselect.query;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Turns an open {@link ResultSet} into tool output while the rows are being fetched.
+ * <p>
+ * {@link #row(ResultSet)} is called once per row with the cursor positioned on it and must read
+ * columns by index; nothing is materialized in between. Rows that were already read, such as a
+ * page of a kept result, are rendered through {@link #start(List)} and {@link #row(Object[])}
+ * instead.
+ * <p>
+ * {@link #size()} lets the caller stop fetching once the output reaches a byte budget.
+ */
+public interface ResultRenderer {
+
+    void start(ResultSetMetaData metaData) throws SQLException;
+
+    void row(ResultSet rs) throws SQLException;
+
+    void start(List<String> columnLabels);
+
+    void row(Object[] values);
+
+    /**
+     * UTF-8 size in bytes of what has been rendered so far, without the summary {@link #finish}
+     * may add. Counting is incremental, so calling this after every row is cheap.
+     */
+    long size();
+
+    String finish(int rowCount, boolean truncated, int maxRows);
+
+    /**
+     * UTF-8 length of {@code text} from {@code from} up to {@code to}.
+     */
+    static long utf8Length(CharSequence text, int from, int to) {
+        long bytes = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < to) {
+                // The pair is one code point of four bytes
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
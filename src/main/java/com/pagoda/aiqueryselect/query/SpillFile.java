@@ -0,0 +1,203 @@
+package com.pagoda.aiqueryselect.query;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * A result kept by {@link SpillStore}, read straight from the buffer {@link SpillWriter} produced:
+ * a heap array for small results, a read-only memory mapping for the rest.
+ * <p>
+ * Rows are located through the offset footer, so a page costs only the rows on it. Sorting reads
+ * the sort column once into memory and keeps the resulting row order, since a client usually pages
+ * through the same ordering more than once. Reads are safe from any number of threads.
+ */
+public final class SpillFile {
+
+    private final String id;
+    private final String clientId;
+    private final List<String> columnNames;
+    private final ByteBuffer data;
+    private final Path path;
+    private final boolean truncated;
+    private final int rowCount;
+    private final int footerStart;
+
+    private volatile long lastAccess = System.nanoTime();
+    private Ordering ordering;
+
+    SpillFile(String id, String clientId, List<String> columnNames, ByteBuffer data, Path path, boolean truncated) {
+        this.id = id;
+        this.clientId = clientId;
+        this.columnNames = columnNames;
+        this.data = data;
+        this.path = path;
+        this.truncated = truncated;
+        int limit = data.limit();
+        if (limit < 3 * Integer.BYTES || data.getInt(limit - Integer.BYTES) != SpillWriter.MAGIC) {
+            throw new IllegalStateException("Not a complete spill file: " + (path != null ? path : id));
+        }
+        this.rowCount = data.getInt(limit - 3 * Integer.BYTES);
+        this.footerStart = data.getInt(limit - 2 * Integer.BYTES);
+    }
+
+    public String id() {
+        return id;
+    }
+
+    String clientId() {
+        return clientId;
+    }
+
+    public List<String> columnNames() {
+        return columnNames;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * {@code true} if rows were left out because the result reached the size limit.
+     */
+    public boolean truncated() {
+        return truncated;
+    }
+
+    /**
+     * Bytes held, on disk or on the heap.
+     */
+    public long size() {
+        return data.limit();
+    }
+
+    /**
+     * The backing file, or {@code null} if the result is kept on the heap.
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Index of the column with the given label, ignoring case, or -1.
+     */
+    public int columnIndex(String name) {
+        for (int i = 0; i < columnNames.size(); i++) {
+            if (columnNames.get(i).equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads every value of the row into {@code values}, which must have one slot per column.
+     * Numbers come back as {@link Long}, {@link Double} or {@link BigDecimal}, everything else
+     * as the {@link String} it was rendered to.
+     */
+    public void read(int row, Object[] values) {
+        int position = data.getInt(footerStart + row * Integer.BYTES);
+        for (int c = 0; c < values.length; c++) {
+            position = readValue(position, values, c);
+        }
+    }
+
+    /**
+     * Row numbers sorted by the column, nulls last. Rows with equal values keep their original
+     * order.
+     */
+    public int[] order(int column) {
+        synchronized (this) {
+            if (ordering != null && ordering.column() == column) {
+                return ordering.rows();
+            }
+        }
+        Object[] keys = new Object[rowCount];
+        Object[] values = new Object[columnNames.size()];
+        for (int row = 0; row < rowCount; row++) {
+            read(row, values);
+            keys[row] = values[column];
+        }
+        Comparator<Integer> byKey = (a, b) -> compareValues(keys[a], keys[b]);
+        int[] rows = IntStream.range(0, rowCount).boxed().sorted(byKey).mapToInt(Integer::intValue).toArray();
+        synchronized (this) {
+            ordering = new Ordering(column, rows);
+        }
+        return rows;
+    }
+
+    void touch() {
+        lastAccess = System.nanoTime();
+    }
+
+    long lastAccess() {
+        return lastAccess;
+    }
+
+    private int readValue(int position, Object[] values, int column) {
+        byte tag = data.get(position++);
+        switch (tag) {
+            case SpillWriter.NULL -> values[column] = null;
+            case SpillWriter.LONG -> {
+                values[column] = data.getLong(position);
+                position += Long.BYTES;
+            }
+            case SpillWriter.DOUBLE -> {
+                values[column] = data.getDouble(position);
+                position += Double.BYTES;
+            }
+            case SpillWriter.DECIMAL, SpillWriter.STRING -> {
+                int length = data.getInt(position);
+                position += Integer.BYTES;
+                byte[] bytes = new byte[length];
+                data.get(position, bytes);
+                position += length;
+                String text = new String(bytes, StandardCharsets.UTF_8);
+                values[column] = tag == SpillWriter.DECIMAL ? new BigDecimal(text) : text;
+            }
+            default -> throw new IllegalStateException("Corrupt spill data at " + (position - 1) + " in " + id);
+        }
+        return position;
+    }
+
+    /**
+     * Numbers before text, numbers by value and text by its characters; nulls last.
+     */
+    static int compareValues(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : 1) : -1;
+        }
+        if (a instanceof Long x && b instanceof Long y) {
+            return Long.compare(x, y);
+        }
+        if (a instanceof Double x && b instanceof Double y) {
+            return Double.compare(x, y);
+        }
+        if (a instanceof Number x && b instanceof Number y) {
+            return decimal(x).compareTo(decimal(y));
+        }
+        if (a instanceof Number || b instanceof Number) {
+            return a instanceof Number ? -1 : 1;
+        }
+        return a.toString().compareTo(b.toString());
+    }
+
+    private static BigDecimal decimal(Number number) {
+        return switch (number) {
+            case BigDecimal decimal -> decimal;
+            case Long l -> BigDecimal.valueOf(l);
+            // NaN and infinities have no decimal form; they sort beyond every finite number
+            case Double d when d.isNaN() || d.isInfinite() ->
+                    d == Double.NEGATIVE_INFINITY ? BigDecimal.valueOf(-Double.MAX_VALUE).scaleByPowerOfTen(1)
+                            : BigDecimal.valueOf(Double.MAX_VALUE).scaleByPowerOfTen(1);
+            default -> BigDecimal.valueOf(number.doubleValue());
+        };
+    }
+
+    private record Ordering(int column, int[] rows) {
+    }
+}
@@ -0,0 +1,232 @@
+package com.pagoda.aiqueryselect.query;
+
+import com.pagoda.aiqueryselect.config.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Results kept for {@code page-result}, by result id.
+ * <p>
+ * Results are dropped once they have not been read for {@code app.query.spill.ttl}, and the least
+ * recently read ones make room when a new result would push the total past
+ * {@code app.query.spill.quota}; a result larger than the whole quota is refused. Each process
+ * writes to a subdirectory of the spill directory named after its pid, so servers sharing the
+ * directory never delete each other's files. At startup the subdirectories of processes that are no
+ * longer running are deleted. Ids are random and only resolve for the client that ran the query.
+ */
+@Component
+public class SpillStore implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SpillStore.class);
+
+    private static final int ID_BYTES = 16;
+    private static final String FILE_GLOB = "result-*.spill";
+    private static final String PROCESS_PREFIX = "pid-";
+
+    private final DatabaseConfig.Spill config;
+    private final Path directory;
+    private final Map<String, SpillFile> results = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    // Only changed by update()
+    private long totalSize;
+
+    public SpillStore(DatabaseConfig databaseConfig) {
+        this.config = databaseConfig.getSpill();
+        Path root = Path.of(config.getDirectory());
+        this.directory = root.resolve(PROCESS_PREFIX + ProcessHandle.current().pid());
+        deleteLeftovers(root);
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * A writer for a new result. Close it if the result is not {@linkplain #register registered}.
+     */
+    public SpillWriter writer(List<String> columnNames) {
+        long maxSize = Math.min(config.getMaxFileSize().toBytes(), config.getQuota().toBytes());
+        int memoryThreshold = (int) Math.min(config.getMemoryThreshold().toBytes(), Integer.MAX_VALUE);
+        return new SpillWriter(columnNames, directory, memoryThreshold, maxSize);
+    }
+
+    /**
+     * Finishes the writer and keeps its result, evicting older results if the quota requires it.
+     *
+     * @param limited {@code true} if the query itself was cut off at the row limit
+     * @throws IOException if the result is larger than the whole quota, in which case it is not kept
+     */
+    public SpillFile register(SpillWriter writer, String clientId, boolean limited) throws IOException {
+        String id;
+        do {
+            id = newId();
+        } while (results.containsKey(id));
+        SpillFile result = writer.finish(id, clientId, limited);
+        long quota = config.getQuota().toBytes();
+        if (result.size() > quota) {
+            delete(result);
+            throw new IOException("The result takes " + result.size() + " bytes, more than the spill quota of "
+                    + quota + "; select fewer columns or rows");
+        }
+        update(result, List.of());
+        return result;
+    }
+
+    /**
+     * The result for the id, or {@code null} if it is unknown, expired or belongs to another client.
+     */
+    public SpillFile get(String id, String clientId) {
+        SpillFile result = id != null ? results.get(id) : null;
+        if (result == null || !Objects.equals(result.clientId(), clientId)) {
+            return null;
+        }
+        result.touch();
+        return result;
+    }
+
+    @Scheduled(initialDelayString = "${app.query.spill.eviction-interval:60s}",
+            fixedDelayString = "${app.query.spill.eviction-interval:60s}")
+    public void evictExpired() {
+        long ttl = config.getTtl().toNanos();
+        long now = System.nanoTime();
+        List<SpillFile> expired = new ArrayList<>();
+        for (SpillFile result : results.values()) {
+            if (now - result.lastAccess() >= ttl) {
+                log.debug("Dropping result {} after {}s unread", result.id(), (now - result.lastAccess()) / 1_000_000_000L);
+                expired.add(result);
+            }
+        }
+        if (!expired.isEmpty()) {
+            update(null, expired);
+        }
+    }
+
+    public int resultCount() {
+        return results.size();
+    }
+
+    public synchronized long totalSize() {
+        return totalSize;
+    }
+
+    @Override
+    public void close() {
+        update(null, List.copyOf(results.values()));
+        try {
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            log.debug("Could not delete {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * The one place the kept results and their total size change. Forgets the dropped results, then
+     * adds the new one, if any, after dropping the least recently read results it needs room for.
+     */
+    private synchronized void update(SpillFile added, List<SpillFile> dropped) {
+        dropped.forEach(this::remove);
+        if (added == null) {
+            return;
+        }
+        long quota = config.getQuota().toBytes();
+        while (totalSize + added.size() > quota && !results.isEmpty()) {
+            SpillFile oldest = results.values().stream()
+                    .min(Comparator.comparingLong(SpillFile::lastAccess))
+                    .orElseThrow();
+            log.debug("Dropping result {} ({} bytes) to stay within the spill quota", oldest.id(), oldest.size());
+            remove(oldest);
+        }
+        results.put(added.id(), added);
+        totalSize += added.size();
+    }
+
+    /**
+     * Forgets the result and deletes its file. Pages being read from it keep working, since the
+     * mapping stays valid until it is garbage collected. Only called by {@link #update}.
+     */
+    private void remove(SpillFile result) {
+        if (!results.remove(result.id(), result)) {
+            return;
+        }
+        totalSize -= result.size();
+        delete(result);
+    }
+
+    private static void delete(SpillFile result) {
+        if (result.path() != null) {
+            try {
+                Files.deleteIfExists(result.path());
+            } catch (IOException e) {
+                // Some platforms refuse to delete a mapped file; the next startup removes it
+                log.debug("Could not delete {}: {}", result.path(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Deletes the subdirectories of processes that are no longer running, and this process's own if
+     * an earlier process with the same pid left one behind.
+     */
+    private void deleteLeftovers(Path root) {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (DirectoryStream<Path> subdirectories = Files.newDirectoryStream(root, PROCESS_PREFIX + "*")) {
+            for (Path subdirectory : subdirectories) {
+                if (subdirectory.equals(directory) || !isRunning(subdirectory)) {
+                    deleteDirectory(subdirectory);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean spill directory {}: {}", root, e.getMessage());
+        }
+    }
+
+    private static boolean isRunning(Path subdirectory) {
+        try {
+            long pid = Long.parseLong(subdirectory.getFileName().toString().substring(PROCESS_PREFIX.length()));
+            return ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+        } catch (NumberFormatException e) {
+            // Not one of ours
+            return true;
+        }
+    }
+
+    private static void deleteDirectory(Path subdirectory) throws IOException {
+        if (!Files.isDirectory(subdirectory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(subdirectory, FILE_GLOB)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        try {
+            Files.deleteIfExists(subdirectory);
+        } catch (DirectoryNotEmptyException e) {
+            log.debug("Leaving {}, it holds files other than spilled results", subdirectory);
+        }
+    }
+
+    private String newId() {
+        byte[] bytes = new byte[ID_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
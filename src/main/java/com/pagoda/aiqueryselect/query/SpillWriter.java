@@ -0,0 +1,263 @@
+package com.pagoda.aiqueryselect.query;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes a result row by row into the compact binary layout read by {@link SpillFile}.
+ * <p>
+ * Rows are buffered on the heap until they pass the memory threshold, then the buffer is moved to
+ * a file in the spill directory and later rows are appended to it. Each value is a one-byte tag
+ * followed by a {@code long}, a {@code double} or a length-prefixed UTF-8 string. The start of
+ * every row is recorded in a footer, so any row can be found without reading the ones before it.
+ * <pre>
+ * MAGIC columnCount (length name)*  row*  rowOffset*  rowCount footerStart MAGIC
+ * </pre>
+ */
+public final class SpillWriter implements AutoCloseable {
+
+    static final int MAGIC = 0x51535031;
+
+    static final byte NULL = 0;
+    static final byte LONG = 1;
+    static final byte DOUBLE = 2;
+    static final byte DECIMAL = 3;
+    static final byte STRING = 4;
+
+    private static final int FOOTER_FIXED_BYTES = 3 * Integer.BYTES;
+
+    private final List<String> columnNames;
+    private final Path directory;
+    private final long maxSize;
+    private final SpillOutput sink;
+    private final DataOutputStream out;
+    // Each row is encoded here first and only copied to the sink if it fits
+    private final ByteArrayOutputStream rowBuffer = new ByteArrayOutputStream(256);
+    private final DataOutputStream row = new DataOutputStream(rowBuffer);
+
+    private int[] offsets = new int[1024];
+    private int rowCount;
+    private boolean full;
+    private boolean finished;
+
+    /**
+     * @param memoryThreshold bytes kept on the heap before the result moves to a file
+     * @param maxSize         bytes after which further rows are dropped, at most 2 GB so the file
+     *                        can be mapped as one buffer
+     */
+    public SpillWriter(List<String> columnNames, Path directory, int memoryThreshold, long maxSize) {
+        this.columnNames = List.copyOf(columnNames);
+        this.directory = directory;
+        this.maxSize = Math.min(maxSize, Integer.MAX_VALUE - 1024);
+        this.sink = new SpillOutput(memoryThreshold);
+        this.out = new DataOutputStream(sink);
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(columnNames.size());
+            for (String name : columnNames) {
+                writeString(out, name);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends a row, or returns {@code false} without writing it once the size limit is reached.
+     */
+    public boolean write(Object[] values) throws IOException {
+        if (full) {
+            return false;
+        }
+        rowBuffer.reset();
+        for (Object value : values) {
+            writeValue(value);
+        }
+        long start = sink.size;
+        if (start + rowBuffer.size() + (long) (rowCount + 1) * Integer.BYTES + FOOTER_FIXED_BYTES > maxSize) {
+            full = true;
+            return false;
+        }
+        rowBuffer.writeTo(out);
+        if (rowCount == offsets.length) {
+            offsets = Arrays.copyOf(offsets, rowCount * 2);
+        }
+        offsets[rowCount++] = (int) start;
+        return true;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * {@code true} once a row was dropped because of the size limit.
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Writes the footer and maps the result for reading.
+     *
+     * @param limited {@code true} if rows were left out before they reached the writer
+     */
+    public SpillFile finish(String id, String clientId, boolean limited) throws IOException {
+        int footerStart = (int) sink.size;
+        for (int i = 0; i < rowCount; i++) {
+            out.writeInt(offsets[i]);
+        }
+        out.writeInt(rowCount);
+        out.writeInt(footerStart);
+        out.writeInt(MAGIC);
+        out.flush();
+
+        Path file = sink.file;
+        ByteBuffer data;
+        if (file == null) {
+            data = ByteBuffer.wrap(Arrays.copyOf(sink.memory, (int) sink.size));
+        } else {
+            sink.close();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        finished = true;
+        offsets = null;
+        return new SpillFile(id, clientId, columnNames, data, file, full || limited);
+    }
+
+    /**
+     * Closes the writer and deletes its file, if one was created. Does nothing after
+     * {@link #finish}, since the file then belongs to the {@link SpillFile}.
+     */
+    @Override
+    public void close() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        offsets = null;
+        try {
+            sink.close();
+            if (sink.file != null) {
+                Files.deleteIfExists(sink.file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeValue(Object value) throws IOException {
+        switch (value) {
+            case null -> row.writeByte(NULL);
+            case Long l -> writeLong(l);
+            case Integer i -> writeLong(i);
+            case Short s -> writeLong(s);
+            case Byte b -> writeLong(b);
+            case Double d -> {
+                row.writeByte(DOUBLE);
+                row.writeDouble(d);
+            }
+            // Through its decimal form, so 1.1f reads back as 1.1 rather than 1.100000023841858
+            case Float f -> {
+                row.writeByte(DOUBLE);
+                row.writeDouble(Double.parseDouble(f.toString()));
+            }
+            case BigDecimal decimal when decimal.scale() <= 0 && decimal.precision() - decimal.scale() <= 18 ->
+                    writeLong(decimal.longValue());
+            case BigDecimal decimal -> {
+                row.writeByte(DECIMAL);
+                writeString(row, decimal.toString());
+            }
+            case BigInteger integer -> {
+                row.writeByte(DECIMAL);
+                writeString(row, integer.toString());
+            }
+            default -> {
+                row.writeByte(STRING);
+                writeString(row, value.toString());
+            }
+        }
+    }
+
+    private void writeLong(long value) throws IOException {
+        row.writeByte(LONG);
+        row.writeLong(value);
+    }
+
+    private static void writeString(DataOutputStream target, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        target.writeInt(bytes.length);
+        target.write(bytes);
+    }
+
+    /**
+     * Heap buffer that moves to a file once it grows past the threshold.
+     */
+    private final class SpillOutput extends OutputStream {
+
+        private final int threshold;
+        private byte[] memory = new byte[8192];
+        private long size;
+        private Path file;
+        private OutputStream fileOut;
+
+        SpillOutput(int threshold) {
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (fileOut == null && size + len > threshold) {
+                Files.createDirectories(directory);
+                file = Files.createTempFile(directory, "result-", ".spill");
+                fileOut = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+                fileOut.write(memory, 0, (int) size);
+                memory = null;
+            }
+            if (fileOut != null) {
+                fileOut.write(b, off, len);
+            } else {
+                if (size + len > memory.length) {
+                    memory = Arrays.copyOf(memory, (int) Math.min(threshold, Math.max(size + len, memory.length * 2L)));
+                }
+                System.arraycopy(b, off, memory, (int) size, len);
+            }
+            size += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (fileOut != null) {
+                fileOut.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fileOut != null) {
+                fileOut.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.pagoda.aiqueryselect.resources;
+
+import com.pagoda.aiqueryselect.admission.AdmissionController;
+import com.pagoda.aiqueryselect.admission.ToolClass;
+import com.pagoda.aiqueryselect.config.ConfigValue;
+import com.pagoda.aiqueryselect.model.ColumnInfo;
+import com.pagoda.aiqueryselect.model.ForeignKeyInfo;
+import com.pagoda.aiqueryselect.model.TableInfo;
+import com.pagoda.aiqueryselect.service.SchemaService;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The cached markdown behind the {@code schema://overview} and {@code schema://relationships}
+ * resources.
+ * <p>
+ * Failures, including a {@link com.pagoda.aiqueryselect.admission.BusyException} from a full
+ * schema lane, are thrown rather than rendered, so only complete documents are cached. The resource
+ * methods turn them into error text for the client.
+ */
+@Component
+public class SchemaDocuments {
+
+    private static final String RESOURCE_CLIENT = DatabaseMcpResources.RESOURCE_CLIENT;
+    private static final String FRAGMENT_CACHE = "overview-fragments";
+
+    private final SchemaService schemaService;
+    private final AdmissionController admissionController;
+    private final CacheManager cacheManager;
+
+    public SchemaDocuments(SchemaService schemaService, AdmissionController admissionController,
+                           CacheManager cacheManager) {
+        this.schemaService = schemaService;
+        this.admissionController = admissionController;
+        this.cacheManager = cacheManager;
+    }
+
+    @Cacheable(value = "overview", sync = true)
+    public String overview() {
+        Map<String, List<TableInfo>> schemas = admissionController.call(ToolClass.SCHEMA, RESOURCE_CLIENT,
+                schemaService::getSchemaOverview);
+
+        if (schemas.isEmpty()) {
+            return "# Database Schema Overview\n\nNo accessible schemas or tables found.";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Database Schema Overview\n\n");
+
+        sb.append("## Database Info\n\n");
+        ConfigValue.awaitVersion();
+        sb.append("**Oracle Version:** ").append(ConfigValue.oracleVersion).append("\n");
+        if (ConfigValue.isOver12) {
+            sb.append("**Pagination Syntax:** Use `FETCH FIRST N ROWS ONLY` (Oracle 12c+)\n\n");
+        } else {
+            sb.append("**Pagination Syntax:** Use `SELECT * FROM (query) WHERE ROWNUM <= N` (Oracle 11g and below)\n\n");
+        }
+
+        int totalTables = schemas.values().stream().mapToInt(List::size).sum();
+        sb.append("**Total Schemas:** ").append(schemas.size()).append("\n");
+        sb.append("**Total Tables:** ").append(totalTables).append("\n\n");
+
+        Cache fragments = cacheManager.getCache(FRAGMENT_CACHE);
+        for (Map.Entry<String, List<TableInfo>> entry : schemas.entrySet()) {
+            String schemaName = entry.getKey();
+            List<TableInfo> tables = entry.getValue();
+
+            sb.append("## Schema: ").append(schemaName).append("\n\n");
+            sb.append("*").append(tables.size()).append(" table(s)*\n\n");
+
+            for (TableInfo table : tables) {
+                sb.append(fragments != null
+                        ? fragments.get(table, () -> overviewFragment(table))
+                        : overviewFragment(table));
+            }
+        }
+
+        return sb.toString();
+    }
+
+    @Cacheable(value = "relationships", sync = true)
+    public String relationships() {
+        List<ForeignKeyInfo> foreignKeys = admissionController.call(ToolClass.SCHEMA, RESOURCE_CLIENT,
+                schemaService::getAllForeignKeys);
+
+        if (foreignKeys.isEmpty()) {
+            return "# Table Relationships\n\nNo foreign key relationships found.";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Table Relationships\n\n");
+        sb.append("**Total Foreign Keys:** ").append(foreignKeys.size()).append("\n\n");
+
+        sb.append("## Foreign Key Relationships\n\n");
+        sb.append("| Source Table | Source Column(s) | Target Table | Target Column(s) | Delete Rule |\n");
+        sb.append("|--------------|------------------|--------------|------------------|-------------|\n");
+
+        for (ForeignKeyInfo fk : foreignKeys) {
+            sb.append("| ").append(fk.sourceTable()).append(" | ");
+            sb.append(String.join(", ", fk.sourceColumns())).append(" | ");
+            sb.append(fk.targetTable()).append(" | ");
+            sb.append(String.join(", ", fk.targetColumns())).append(" | ");
+            sb.append(fk.deleteRule() != null ? fk.deleteRule() : "NO ACTION").append(" |\n");
+        }
+
+        sb.append("\n## Relationship Diagram (Text)\n\n");
+        sb.append("```\n");
+        for (ForeignKeyInfo fk : foreignKeys) {
+            sb.append(fk.sourceTable()).append(" --[").append(fk.constraintName()).append("]--> ");
+            sb.append(fk.targetTable()).append("\n");
+        }
+        sb.append("```\n");
+
+        return sb.toString();
+    }
+
+    /**
+     * Markdown for one table of the overview. Fragments are cached per {@link TableInfo} instance in
+     * the {@code overview-fragments} cache, so after a DDL change only the affected tables are
+     * rendered again.
+     */
+    private static String overviewFragment(TableInfo table) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("### ").append(table.tableName()).append("\n\n");
+
+        if (table.comments() != null && !table.comments().isBlank()) {
+            sb.append("*").append(table.comments()).append("*\n\n");
+        }
+
+        if (!table.columns().isEmpty()) {
+            sb.append("| Column | Type | Nullable |\n");
+            sb.append("|--------|------|----------|\n");
+
+            for (ColumnInfo col : table.columns()) {
+                sb.append("| ").append(col.columnName()).append(" | ");
+                sb.append(col.getFormattedType()).append(" | ");
+                sb.append(col.nullable() ? "YES" : "NO").append(" |\n");
+            }
+            sb.append("\n");
+        }
+
+        return sb.toString();
+    }
+}
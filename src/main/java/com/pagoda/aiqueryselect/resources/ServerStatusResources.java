@@ -0,0 +1,123 @@
+package com.pagoda.aiqueryselect.resources;
+
+import com.pagoda.aiqueryselect.admission.AdmissionController;
+import com.pagoda.aiqueryselect.admission.AdmissionController.LaneStats;
+import com.pagoda.aiqueryselect.config.DatabaseConfig;
+import com.pagoda.aiqueryselect.query.CursorRegistry;
+import com.pagoda.aiqueryselect.query.SpillStore;
+import com.pagoda.aiqueryselect.warmup.WarmupService;
+import com.pagoda.aiqueryselect.warmup.WarmupService.StepStatus;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springaicommunity.mcp.annotation.McpResource;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ServerStatusResources {
+
+    private final AdmissionController admissionController;
+    private final WarmupService warmupService;
+    private final CacheManager cacheManager;
+    private final CursorRegistry cursorRegistry;
+    private final SpillStore spillStore;
+    private final DatabaseConfig databaseConfig;
+
+    public ServerStatusResources(AdmissionController admissionController, WarmupService warmupService,
+                                 CacheManager cacheManager, CursorRegistry cursorRegistry, SpillStore spillStore,
+                                 DatabaseConfig databaseConfig) {
+        this.admissionController = admissionController;
+        this.warmupService = warmupService;
+        this.cacheManager = cacheManager;
+        this.cursorRegistry = cursorRegistry;
+        this.spillStore = spillStore;
+        this.databaseConfig = databaseConfig;
+    }
+
+    @McpResource(
+            uri = "server://status",
+            name = "Server Status",
+            description = "Whether the startup warm-up has finished, with the progress of each step",
+            mimeType = "text/markdown"
+    )
+    public String getStatus() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Server Status\n\n");
+        sb.append("**Ready:** ").append(warmupService.isReady() ? "yes" : "no, warming up").append("\n\n");
+        sb.append("## Warm-up\n\n");
+        sb.append("| Step | State | Detail | Elapsed (ms) |\n");
+        sb.append("|------|-------|--------|--------------|\n");
+        for (StepStatus step : warmupService.progress()) {
+            sb.append("| ").append(step.name())
+                    .append(" | ").append(step.state().name().toLowerCase())
+                    .append(" | ").append(step.detail())
+                    .append(" | ").append(step.elapsedMillis())
+                    .append(" |\n");
+        }
+        return sb.toString();
+    }
+
+    @McpResource(
+            uri = "server://metrics",
+            name = "Server Metrics",
+            description = "Admission queue depth, in-flight calls and wait times per tool class, open cursors, kept results, and cache statistics",
+            mimeType = "text/markdown"
+    )
+    public String getMetrics() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Server Metrics\n\n");
+        sb.append("## Admission\n\n");
+        sb.append("| Lane | In Flight | Max Concurrent | Queued | Waiting Clients | Admitted | Rejected | Timed Out | Avg Wait (ms) | Max Wait (ms) | Avg Hold (ms) |\n");
+        sb.append("|------|-----------|----------------|--------|-----------------|----------|----------|-----------|---------------|---------------|---------------|\n");
+        for (LaneStats lane : admissionController.stats()) {
+            sb.append("| ").append(lane.toolClass().name().toLowerCase())
+                    .append(" | ").append(lane.inFlight())
+                    .append(" | ").append(lane.maxConcurrent())
+                    .append(" | ").append(lane.queued())
+                    .append(" | ").append(lane.clients())
+                    .append(" | ").append(lane.admitted())
+                    .append(" | ").append(lane.rejected())
+                    .append(" | ").append(lane.timedOut())
+                    .append(" | ").append(String.format("%.1f", lane.avgWaitMillis()))
+                    .append(" | ").append(String.format("%.1f", lane.maxWaitMillis()))
+                    .append(" | ").append(String.format("%.1f", lane.avgHoldMillis()))
+                    .append(" |\n");
+        }
+
+        sb.append("\n## Cursors\n\n");
+        sb.append("**Open:** ").append(cursorRegistry.openCount())
+                .append(" of ").append(databaseConfig.getCursor().getMaxOpen()).append("\n");
+
+        sb.append("\n## Kept Results\n\n");
+        sb.append("**Results:** ").append(spillStore.resultCount())
+                .append(", **Size (KB):** ").append(spillStore.totalSize() / 1024)
+                .append(" of ").append(databaseConfig.getSpill().getQuota().toKilobytes()).append("\n");
+
+        sb.append("\n## Caches\n\n");
+        sb.append("| Cache | Entries | Size (KB) | Limit | Hit Rate | Hits | Misses | Evictions | Evicted (KB) | Avg Load (ms) |\n");
+        sb.append("|-------|---------|-----------|-------|----------|------|--------|-----------|--------------|---------------|\n");
+        for (String name : cacheManager.getCacheNames()) {
+            if (!(cacheManager.getCache(name) instanceof CaffeineCache cache)) {
+                continue;
+            }
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = cache.getNativeCache();
+            CacheStats stats = nativeCache.stats();
+            Policy.Eviction<Object, Object> eviction = nativeCache.policy().eviction().orElse(null);
+            boolean weighted = eviction != null && eviction.isWeighted();
+            sb.append("| ").append(name)
+                    .append(" | ").append(nativeCache.estimatedSize())
+                    .append(" | ").append(weighted ? String.valueOf(eviction.weightedSize().orElse(0) / 1024) : "-")
+                    .append(" | ").append(eviction == null ? "none"
+                            : weighted ? eviction.getMaximum() / 1024 + " KB" : eviction.getMaximum() + " entries")
+                    .append(" | ").append(String.format("%.1f%%", stats.hitRate() * 100))
+                    .append(" | ").append(stats.hitCount())
+                    .append(" | ").append(stats.missCount())
+                    .append(" | ").append(stats.evictionCount())
+                    .append(" | ").append(weighted ? String.valueOf(stats.evictionWeight() / 1024) : "-")
+                    .append(" | ").append(String.format("%.1f", stats.averageLoadPenalty() / 1_000_000))
+                    .append(" |\n");
+        }
+        return sb.toString();
+    }
+}
@@ -2,78 +2,236 @@ package com.pagoda.aiqueryselect.security;
 
 import org.springframework.stereotype.Component;
 
-import java.util.Set;
-import java.util.regex.Pattern;
-
+/**
+ * Accepts a single SELECT or WITH statement and rejects anything containing a data-modifying keyword.
+ * <p>
+ * The query is checked in one left-to-right scan. Comments are blanked out, and string literals,
+ * Oracle q-quoted literals and quoted identifiers are skipped, so keywords and semicolons inside
+ * them are not mistaken for SQL.
+ */
 @Component
 public class QueryValidator {
 
-    private static final Set<String> FORBIDDEN_KEYWORDS = Set.of(
+    private static final String[] FORBIDDEN_KEYWORDS = {
             "INSERT", "UPDATE", "DELETE", "DROP", "CREATE", "ALTER", "TRUNCATE",
             "MERGE", "GRANT", "REVOKE", "EXECUTE", "EXEC", "CALL",
             "COMMIT", "ROLLBACK", "SAVEPOINT", "LOCK", "UNLOCK"
-    );
-
-    private static final Set<String> ALLOWED_STARTS = Set.of("SELECT", "WITH");
-
-    private static final Pattern COMMENT_PATTERN = Pattern.compile(
-            "/\\*.*?\\*/|--[^\\r\\n]*", Pattern.DOTALL
-    );
+    };
 
-    private static final Pattern SEMICOLON_PATTERN = Pattern.compile(";");
+    private static final String[] ALLOWED_STARTS = {"SELECT", "WITH"};
 
     public ValidationResult validate(String query) {
         if (query == null || query.isBlank()) {
             return ValidationResult.invalid("Query cannot be empty");
         }
 
-        String cleanedQuery = removeComments(query).trim();
+        Scan scan = scan(query);
 
-        if (cleanedQuery.isEmpty()) {
+        if (scan.error() != null) {
+            return ValidationResult.invalid(scan.error());
+        }
+
+        if (scan.statements() == 0) {
             return ValidationResult.invalid("Query cannot be empty after removing comments");
         }
 
-        // Check for multiple statements
-        String[] statements = SEMICOLON_PATTERN.split(cleanedQuery);
-        int nonEmptyStatements = 0;
-        for (String stmt : statements) {
-            if (!stmt.trim().isEmpty()) {
-                nonEmptyStatements++;
+        if (scan.statements() > 1) {
+            return ValidationResult.invalid("Multiple statements are not allowed");
+        }
+
+        if (!scan.startsWithAllowed()) {
+            return ValidationResult.invalid("Query must start with SELECT or WITH");
+        }
+
+        if (scan.forbiddenKeyword() != null) {
+            return ValidationResult.invalid("Forbidden keyword detected: " + scan.forbiddenKeyword());
+        }
+
+        return ValidationResult.valid(scan.cleanedQuery());
+    }
+
+    /**
+     * Single pass over the query. Only a query that contains comments gets a copy made of it.
+     */
+    private static Scan scan(String sql) {
+        int length = sql.length();
+        StringBuilder cleaned = null;
+        int copiedUpTo = 0;
+
+        int statements = 0;
+        boolean inStatement = false;
+        boolean leadingChecked = false;
+        boolean startsWithAllowed = false;
+        String forbidden = null;
+
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            char next = i + 1 < length ? sql.charAt(i + 1) : '\0';
+
+            if (c == '-' && next == '-' || c == '/' && next == '*') {
+                int end;
+                if (c == '-') {
+                    end = i + 2;
+                    while (end < length && sql.charAt(end) != '\n' && sql.charAt(end) != '\r') {
+                        end++;
+                    }
+                } else {
+                    int close = sql.indexOf("*/", i + 2);
+                    if (close < 0) {
+                        return Scan.error("Unterminated comment");
+                    }
+                    end = close + 2;
+                }
+                if (cleaned == null) {
+                    cleaned = new StringBuilder(length);
+                }
+                cleaned.append(sql, copiedUpTo, i).append(' ');
+                copiedUpTo = end;
+                i = end;
+                continue;
+            }
+
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            if (!leadingChecked) {
+                leadingChecked = true;
+                startsWithAllowed = startsWithWord(sql, i, ALLOWED_STARTS) != null;
+            }
+
+            if (c == ';') {
+                if (inStatement) {
+                    statements++;
+                    inStatement = false;
+                }
+                i++;
+                continue;
+            }
+            inStatement = true;
+
+            int end;
+            if (c == '\'') {
+                end = skipLiteral(sql, i + 1);
+            } else if (c == '"') {
+                int close = sql.indexOf('"', i + 1);
+                end = close < 0 ? -1 : close + 1;
+            } else if ((c == 'q' || c == 'Q') && next == '\'') {
+                end = skipQuoted(sql, i + 2);
+            } else if ((c == 'n' || c == 'N') && (next == 'q' || next == 'Q')
+                    && i + 2 < length && sql.charAt(i + 2) == '\'') {
+                end = skipQuoted(sql, i + 3);
+            } else if (isIdentifierStart(c)) {
+                end = i + 1;
+                while (end < length && isIdentifierPart(sql.charAt(end))) {
+                    end++;
+                }
+                if (forbidden == null) {
+                    forbidden = keywordAt(sql, i, end - i, FORBIDDEN_KEYWORDS);
+                }
+            } else {
+                end = i + 1;
+            }
+
+            if (end < 0) {
+                return Scan.error("Unterminated quoted string or identifier");
             }
+            i = end;
         }
-        if (nonEmptyStatements > 1) {
-            return ValidationResult.invalid("Multiple statements are not allowed");
+        if (inStatement) {
+            statements++;
         }
 
-        // Remove trailing semicolon for further validation
-        cleanedQuery = cleanedQuery.replaceAll(";\\s*$", "").trim();
+        String text = cleaned == null ? sql : cleaned.append(sql, copiedUpTo, length).toString();
+        return new Scan(stripTrailing(text), statements, startsWithAllowed, forbidden, null);
+    }
 
-        String upperQuery = cleanedQuery.toUpperCase();
+    /**
+     * Returns the index just past the closing quote of a {@code '...'} literal, honoring {@code ''}.
+     */
+    private static int skipLiteral(String sql, int from) {
+        int i = from;
+        while (true) {
+            int close = sql.indexOf('\'', i);
+            if (close < 0) {
+                return -1;
+            }
+            if (close + 1 < sql.length() && sql.charAt(close + 1) == '\'') {
+                i = close + 2;
+                continue;
+            }
+            return close + 1;
+        }
+    }
 
-        // Check if query starts with allowed keywords
-        boolean startsWithAllowed = ALLOWED_STARTS.stream()
-                .anyMatch(keyword -> upperQuery.startsWith(keyword + " ") || upperQuery.startsWith(keyword + "("));
+    /**
+     * Returns the index just past a {@code q'<delim>...<delim>'} literal, where {@code from} points
+     * at the opening delimiter.
+     */
+    private static int skipQuoted(String sql, int from) {
+        if (from >= sql.length()) {
+            return -1;
+        }
+        char open = sql.charAt(from);
+        char close = switch (open) {
+            case '[' -> ']';
+            case '{' -> '}';
+            case '<' -> '>';
+            case '(' -> ')';
+            default -> open;
+        };
+        for (int i = from + 1; i + 1 < sql.length(); i++) {
+            if (sql.charAt(i) == close && sql.charAt(i + 1) == '\'') {
+                return i + 2;
+            }
+        }
+        return -1;
+    }
 
-        if (!startsWithAllowed) {
-            return ValidationResult.invalid("Query must start with SELECT or WITH");
+    private static String startsWithWord(String sql, int start, String[] words) {
+        int end = start;
+        while (end < sql.length() && isIdentifierPart(sql.charAt(end))) {
+            end++;
         }
+        return keywordAt(sql, start, end - start, words);
+    }
 
-        // Check for forbidden keywords
-        for (String forbidden : FORBIDDEN_KEYWORDS) {
-            Pattern pattern = Pattern.compile(
-                    "\\b" + forbidden + "\\b",
-                    Pattern.CASE_INSENSITIVE
-            );
-            if (pattern.matcher(upperQuery).find()) {
-                return ValidationResult.invalid("Forbidden keyword detected: " + forbidden);
+    private static String keywordAt(String sql, int start, int length, String[] keywords) {
+        for (String keyword : keywords) {
+            if (keyword.length() == length && sql.regionMatches(true, start, keyword, 0, length)) {
+                return keyword;
             }
         }
+        return null;
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return Character.isLetter(c);
+    }
 
-        return ValidationResult.valid(cleanedQuery);
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#';
     }
 
-    private String removeComments(String query) {
-        return COMMENT_PATTERN.matcher(query).replaceAll(" ");
+    private static String stripTrailing(String text) {
+        int end = text.length();
+        while (end > 0 && (text.charAt(end - 1) == ';' || Character.isWhitespace(text.charAt(end - 1)))) {
+            end--;
+        }
+        int start = 0;
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        return text.substring(start, end);
+    }
+
+    private record Scan(String cleanedQuery, int statements, boolean startsWithAllowed,
+                        String forbiddenKeyword, String error) {
+        static Scan error(String error) {
+            return new Scan(null, 0, false, null, error);
+        }
     }
 
     public record ValidationResult(boolean valid, String cleanedQuery, String errorMessage) {
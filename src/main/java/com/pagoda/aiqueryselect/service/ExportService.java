@@ -0,0 +1,179 @@
+package com.pagoda.aiqueryselect.service;
+
+import com.pagoda.aiqueryselect.config.ConfigValue;
+import com.pagoda.aiqueryselect.config.DatabaseConfig;
+import com.pagoda.aiqueryselect.query.CsvResultWriter;
+import com.pagoda.aiqueryselect.query.PlanGuard;
+import com.pagoda.aiqueryselect.query.PlanGuard.Verdict;
+import com.pagoda.aiqueryselect.query.QueryExecutor;
+import com.pagoda.aiqueryselect.security.QueryValidator;
+import com.pagoda.aiqueryselect.security.QueryValidator.ValidationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the full result of a validated SELECT into a local file for {@code export-query}.
+ * <p>
+ * Rows go from the cursor, fetched {@code app.query.export.fetch-size} at a time, through a
+ * buffered writer to disk, so memory use stays flat however many rows the query returns. The file
+ * is written under a temporary name and renamed when complete, so a failed or cancelled export
+ * never leaves a partial file behind under the requested name.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,127}");
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final QueryExecutor queryExecutor;
+    private final QueryValidator queryValidator;
+    private final QueryService queryService;
+    private final PlanGuard planGuard;
+    private final DatabaseConfig.Export config;
+    private final Semaphore running;
+
+    public ExportService(QueryExecutor queryExecutor, QueryValidator queryValidator, QueryService queryService,
+                         PlanGuard planGuard, DatabaseConfig databaseConfig) {
+        this.queryExecutor = queryExecutor;
+        this.queryValidator = queryValidator;
+        this.queryService = queryService;
+        this.planGuard = planGuard;
+        this.config = databaseConfig.getExport();
+        this.running = new Semaphore(Math.max(config.getMaxConcurrent(), 0));
+    }
+
+    /**
+     * @param fileName name of the file in the export directory, or {@code null} for a generated one
+     * @param compress gzip the file
+     */
+    public ExportResult export(String query, String fileName, boolean compress) {
+        if (!config.isEnabled()) {
+            return ExportResult.error("Exports are disabled on this server.");
+        }
+        ValidationResult validation = queryValidator.validate(query);
+        if (!validation.valid()) {
+            return ExportResult.error(validation.errorMessage());
+        }
+
+        String extension = compress ? ".csv.gz" : ".csv";
+        String name = fileName == null || fileName.isBlank() ? generatedName() : fileName.trim();
+        if (!FILE_NAME.matcher(name).matches()) {
+            return ExportResult.error("Invalid file name '" + fileName + "'. Use letters, digits, '.', '_' and '-' only.");
+        }
+        if (!name.endsWith(extension)) {
+            name += extension;
+        }
+        Path directory = Path.of(config.getDirectory()).toAbsolutePath().normalize();
+        Path target = directory.resolve(name);
+        if (Files.exists(target)) {
+            return ExportResult.error("File " + target + " already exists.");
+        }
+
+        ConfigValue.awaitVersion();
+        int maxRows = config.getMaxRows();
+        String limitedQuery = maxRows > 0 ? queryService.applyRowLimit(validation.cleanedQuery(), maxRows)
+                : validation.cleanedQuery();
+        Verdict verdict = planGuard.check(limitedQuery);
+        if (verdict.rejected()) {
+            return ExportResult.error(verdict.describe());
+        }
+
+        if (!running.tryAcquire()) {
+            return ExportResult.error("Another export is running. Try again when it has finished.");
+        }
+        Path partial = null;
+        try {
+            Files.createDirectories(directory);
+            partial = Files.createTempFile(directory, name + ".", ".part");
+            long start = System.nanoTime();
+            Path file = partial;
+            int rowCount = queryExecutor.query(limitedQuery, (int) config.getTimeout().toSeconds(),
+                    config.getFetchSize(), rs -> {
+                        try (Writer out = writer(file, compress)) {
+                            CsvResultWriter csv = new CsvResultWriter(out, ',');
+                            csv.start(rs.getMetaData());
+                            int rows = 0;
+                            while (rs.next()) {
+                                csv.row(rs);
+                                rows++;
+                            }
+                            return rows;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+            Files.move(partial, target);
+            partial = null;
+            long bytes = Files.size(target);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            log.info("Exported {} rows to {} ({} bytes) in {} ms", rowCount, target, bytes, elapsedMillis);
+            return ExportResult.success(target, rowCount, bytes, maxRows > 0 && rowCount >= maxRows, maxRows,
+                    elapsedMillis, verdict.passed() ? null : verdict.describe());
+        } catch (Exception e) {
+            return ExportResult.error("Export failed: " + e.getMessage());
+        } finally {
+            running.release();
+            if (partial != null) {
+                try {
+                    Files.deleteIfExists(partial);
+                } catch (IOException e) {
+                    log.debug("Could not delete {}: {}", partial, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static Writer writer(Path file, boolean compress) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        if (compress) {
+            out = new GZIPOutputStream(out, WRITE_BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    }
+
+    private static String generatedName() {
+        return "export-" + LocalDateTime.now().format(TIMESTAMP) + "-"
+                + Integer.toHexString(ThreadLocalRandom.current().nextInt(0x1000, 0x10000));
+    }
+
+    public record ExportResult(
+            boolean success,
+            Path path,
+            int rowCount,
+            long bytes,
+            boolean truncated,
+            int maxRows,
+            long elapsedMillis,
+            String warning,
+            String errorMessage
+    ) {
+        public static ExportResult success(Path path, int rowCount, long bytes, boolean truncated, int maxRows,
+                                           long elapsedMillis, String warning) {
+            return new ExportResult(true, path, rowCount, bytes, truncated, maxRows, elapsedMillis, warning, null);
+        }
+
+        public static ExportResult error(String errorMessage) {
+            return new ExportResult(false, null, 0, 0, false, 0, 0, null, errorMessage);
+        }
+    }
+}
@@ -2,73 +2,404 @@ package com.pagoda.aiqueryselect.service;
 
 import com.pagoda.aiqueryselect.config.ConfigValue;
 import com.pagoda.aiqueryselect.config.DatabaseConfig;
+import com.pagoda.aiqueryselect.query.ColumnarResult;
+import com.pagoda.aiqueryselect.query.CursorRegistry;
+import com.pagoda.aiqueryselect.query.CursorSession;
+import com.pagoda.aiqueryselect.query.PlanGuard;
+import com.pagoda.aiqueryselect.query.PlanGuard.Verdict;
+import com.pagoda.aiqueryselect.query.QueryExecutor;
+import com.pagoda.aiqueryselect.query.QueryExecutor.OpenCursor;
+import com.pagoda.aiqueryselect.query.ResultRenderer;
+import com.pagoda.aiqueryselect.query.SpillFile;
+import com.pagoda.aiqueryselect.query.SpillStore;
+import com.pagoda.aiqueryselect.query.SpillWriter;
 import com.pagoda.aiqueryselect.security.QueryValidator;
 import com.pagoda.aiqueryselect.security.QueryValidator.ValidationResult;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSetMetaData;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 @Service
 public class QueryService {
 
-    private final JdbcTemplate jdbcTemplate;
+    // Rows per round trip while a kept result streams to the spill store
+    private static final int SPILL_FETCH_SIZE = 500;
+
+    private final QueryExecutor queryExecutor;
     private final QueryValidator queryValidator;
     private final DatabaseConfig databaseConfig;
+    private final PlanGuard planGuard;
+    private final CursorRegistry cursorRegistry;
+    private final SpillStore spillStore;
 
-    public QueryService(JdbcTemplate jdbcTemplate, QueryValidator queryValidator, DatabaseConfig databaseConfig) {
-        this.jdbcTemplate = jdbcTemplate;
+    public QueryService(QueryExecutor queryExecutor, QueryValidator queryValidator, DatabaseConfig databaseConfig,
+                        PlanGuard planGuard, CursorRegistry cursorRegistry, SpillStore spillStore) {
+        this.queryExecutor = queryExecutor;
         this.queryValidator = queryValidator;
         this.databaseConfig = databaseConfig;
+        this.planGuard = planGuard;
+        this.cursorRegistry = cursorRegistry;
+        this.spillStore = spillStore;
     }
 
     public QueryResult executeQuery(String query) {
         return executeQuery(query, databaseConfig.getMaxRows());
     }
 
-    public QueryResult executeQuery(String query, int maxRows) {
+    /**
+     * Runs a validated SELECT and streams its rows straight into the renderer, without building
+     * row maps.
+     */
+    public QueryOutput renderQuery(String query, int maxRows, ResultRenderer renderer) {
+        return renderQuery(query, maxRows, renderer, null, false, 0);
+    }
+
+    /**
+     * Like {@link #renderQuery(String, int, ResultRenderer)}, but if a cursor slot is free the
+     * query is left open and, when rows remain after the first page, the output carries a
+     * {@link QueryOutput#cursor()} token for {@link #fetchMore}. Without a free slot the query runs
+     * as usual.
+     * <p>
+     * Rows stop being fetched once the output reaches {@code maxBytes}, or
+     * {@code app.query.max-output-size} if that is lower; without a cursor the statement is closed
+     * there. A row is never split, so the output can pass the budget by the row that reached it.
+     *
+     * @param maxBytes output budget for this call, or 0 for the server's
+     */
+    public QueryOutput renderQuery(String query, int maxRows, ResultRenderer renderer, String clientId,
+                                   long maxBytes) {
+        return renderQuery(query, maxRows, renderer, clientId, true, maxBytes);
+    }
+
+    /**
+     * Renders the next page of an open cursor, within the same output budget as
+     * {@link #renderQuery(String, int, ResultRenderer, String, long)}. The cursor is closed once its
+     * last row is read.
+     */
+    public QueryOutput fetchMore(String token, int pageSize, ResultRenderer renderer, String clientId,
+                                 long maxBytes) {
+        CursorSession session = cursorRegistry.get(token, clientId);
+        if (session == null) {
+            return QueryOutput.error("Cursor not found. It may have been read to the end or closed after "
+                    + databaseConfig.getCursor().getIdleTimeout().toSeconds()
+                    + " seconds idle; run the query again with execute-select.");
+        }
+        if (!session.lock().tryLock()) {
+            return QueryOutput.error("Cursor is busy with another fetch-more call.");
+        }
+        try {
+            if (session.isClosed()) {
+                return QueryOutput.error("Cursor was closed; run the query again with execute-select.");
+            }
+            return renderPage(session, pageSize, renderer, outputBudget(maxBytes));
+        } catch (Exception e) {
+            cursorRegistry.close(session);
+            return QueryOutput.error("Fetch failed: " + e.getMessage());
+        } finally {
+            session.lock().unlock();
+        }
+    }
+
+    /**
+     * Runs the query and keeps the whole result, up to {@code app.query.spill.max-rows} rows, in the
+     * {@link SpillStore}, so {@link #pageResult} can page, sort and slice it without the database.
+     * The first page is rendered while the rows stream past, up to the output budget; rows past it
+     * are still kept. A result that fits in one page is not kept.
+     */
+    public QueryOutput renderKept(String query, int maxRows, ResultRenderer renderer, String clientId,
+                                  long maxBytes) {
+        if (!spillStore.isEnabled()) {
+            return renderQuery(query, maxRows, renderer, clientId, maxBytes);
+        }
         ValidationResult validation = queryValidator.validate(query);
 
         if (!validation.valid()) {
-            return QueryResult.error(validation.errorMessage());
+            return QueryOutput.error(validation.errorMessage());
+        }
+
+        ConfigValue.awaitVersion();
+        int pageSize = Math.min(maxRows, databaseConfig.getMaxRows());
+        int keptMaxRows = Math.max(databaseConfig.getSpill().getMaxRows(), pageSize);
+        long budget = outputBudget(maxBytes);
+        String limitedQuery = applyRowLimit(validation.cleanedQuery(), keptMaxRows);
+
+        Verdict verdict = planGuard.check(limitedQuery);
+        if (verdict.rejected()) {
+            return QueryOutput.error(verdict.describe());
         }
+        String warning = verdict.passed() ? null : verdict.describe();
 
+        try {
+            return queryExecutor.query(limitedQuery, databaseConfig.getTimeoutSeconds(), SPILL_FETCH_SIZE, rs -> {
+                ResultSetMetaData metaData = rs.getMetaData();
+                List<String> labels = new ArrayList<>(metaData.getColumnCount());
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    labels.add(metaData.getColumnLabel(i));
+                }
+                renderer.start(labels);
+                Object[] values = new Object[labels.size()];
+                try (SpillWriter writer = spillStore.writer(labels)) {
+                    int rowCount = 0;
+                    int shown = 0;
+                    boolean cut = false;
+                    while (rs.next()) {
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = rs.getObject(i + 1);
+                        }
+                        if (shown < pageSize && !cut) {
+                            cut = shown > 0 && renderer.size() >= budget;
+                            if (!cut) {
+                                renderer.row(values);
+                                shown++;
+                            }
+                        }
+                        rowCount++;
+                        if (!writer.write(values)) {
+                            break;
+                        }
+                    }
+                    if (rowCount <= pageSize && !cut && !writer.isFull()) {
+                        return QueryOutput.success(renderer.finish(rowCount, false, pageSize), rowCount, false, warning);
+                    }
+                    SpillFile result = spillStore.register(writer, clientId, writer.rowCount() >= keptMaxRows);
+                    QueryOutput output = QueryOutput.kept(renderer.finish(shown, true, pageSize), shown, true, warning,
+                            result.id(), result.rowCount());
+                    return cut ? output.cutAt(budget) : output;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (Exception e) {
+            return QueryOutput.error("Query execution failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Renders a slice of a kept result, optionally sorted by one column and restricted to some
+     * columns. Sorting follows Oracle: nulls last ascending, first descending. The page ends early if
+     * it reaches {@code app.query.max-output-size}.
+     *
+     * @param columns column labels to include, or empty for all of them
+     */
+    public QueryOutput pageResult(String resultId, int offset, int pageSize, String orderBy, boolean descending,
+                                  List<String> columns, ResultRenderer renderer, String clientId) {
+        SpillFile result = spillStore.get(resultId, clientId);
+        if (result == null) {
+            return QueryOutput.error("Result not found. It may have expired after "
+                    + databaseConfig.getSpill().getTtl().toMinutes()
+                    + " minutes unread or been dropped to free space; run the query again with execute-select.");
+        }
+
+        int[] selected = new int[columns.isEmpty() ? result.columnNames().size() : columns.size()];
+        List<String> labels = new ArrayList<>(selected.length);
+        for (int i = 0; i < selected.length; i++) {
+            selected[i] = columns.isEmpty() ? i : result.columnIndex(columns.get(i));
+            if (selected[i] < 0) {
+                return QueryOutput.error("Unknown column " + columns.get(i) + ". Columns: "
+                        + String.join(", ", result.columnNames()));
+            }
+            labels.add(result.columnNames().get(selected[i]));
+        }
+        int sortColumn = -1;
+        if (orderBy != null && !orderBy.isBlank()) {
+            sortColumn = result.columnIndex(orderBy.trim());
+            if (sortColumn < 0) {
+                return QueryOutput.error("Unknown column " + orderBy + ". Columns: "
+                        + String.join(", ", result.columnNames()));
+            }
+        }
+
+        int total = result.rowCount();
+        int[] order = sortColumn >= 0 ? result.order(sortColumn) : null;
+        int from = Math.clamp(offset, 0, total);
+        int to = (int) Math.min(total, (long) from + pageSize);
+
+        long budget = outputBudget(0);
+        boolean cut = false;
+        renderer.start(labels);
+        Object[] values = new Object[result.columnNames().size()];
+        Object[] row = new Object[selected.length];
+        for (int i = from; i < to; i++) {
+            if (i > from && renderer.size() >= budget) {
+                cut = true;
+                to = i;
+                break;
+            }
+            int r = order == null ? i : order[descending ? total - 1 - i : i];
+            result.read(r, values);
+            for (int c = 0; c < selected.length; c++) {
+                row[c] = values[selected[c]];
+            }
+            renderer.row(row);
+        }
+        boolean more = to < total;
+        QueryOutput output = QueryOutput.kept(renderer.finish(to - from, more, pageSize), to - from, more, null,
+                result.id(), total);
+        return cut ? output.cutAt(budget) : output;
+    }
+
+    private QueryOutput renderQuery(String query, int maxRows, ResultRenderer renderer, String clientId,
+                                    boolean useCursor, long maxBytes) {
+        ValidationResult validation = queryValidator.validate(query);
+
+        if (!validation.valid()) {
+            return QueryOutput.error(validation.errorMessage());
+        }
+
+        ConfigValue.awaitVersion();
         int effectiveMaxRows = Math.min(maxRows, databaseConfig.getMaxRows());
+        long budget = outputBudget(maxBytes);
         String limitedQuery = applyRowLimit(validation.cleanedQuery(), effectiveMaxRows);
 
-        try {
-            jdbcTemplate.setQueryTimeout(databaseConfig.getTimeoutSeconds());
+        // A query that may be opened as a cursor is always checked in its cursor form, which reads at
+        // least as many rows as one page, so the verdict and its cache entry do not depend on whether a
+        // cursor slot happens to be free
+        int cursorMaxRows = Math.max(databaseConfig.getCursor().getMaxRows(), effectiveMaxRows);
+        String cursorQuery = useCursor ? applyRowLimit(validation.cleanedQuery(), cursorMaxRows) : null;
+        Verdict verdict = planGuard.check(useCursor ? cursorQuery : limitedQuery);
+        if (verdict.rejected()) {
+            return QueryOutput.error(verdict.describe());
+        }
+        String warning = verdict.passed() ? null : verdict.describe();
 
-            List<Map<String, Object>> results = new ArrayList<>();
-            List<String> columns = new ArrayList<>();
+        if (useCursor && cursorRegistry.tryReserve()) {
+            return renderCursor(cursorQuery, cursorMaxRows, effectiveMaxRows, renderer, clientId, budget, warning);
+        }
 
-            jdbcTemplate.query(limitedQuery, rs -> {
-                if (columns.isEmpty()) {
-                    var metaData = rs.getMetaData();
-                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
-                        columns.add(metaData.getColumnLabel(i));
+        try {
+            return queryExecutor.query(limitedQuery, databaseConfig.getTimeoutSeconds(), rs -> {
+                renderer.start(rs.getMetaData());
+                int rowCount = 0;
+                boolean cut = false;
+                while (rs.next()) {
+                    // Checked only once another row exists, so a result that just fits is not reported as cut
+                    if (rowCount > 0 && renderer.size() >= budget) {
+                        cut = true;
+                        break;
                     }
+                    renderer.row(rs);
+                    rowCount++;
                 }
+                boolean truncated = cut || rowCount >= effectiveMaxRows;
+                QueryOutput output = QueryOutput.success(renderer.finish(rowCount, truncated, effectiveMaxRows),
+                        rowCount, truncated, warning);
+                return cut ? output.cutAt(budget) : output;
+            });
+        } catch (Exception e) {
+            return QueryOutput.error("Query execution failed: " + e.getMessage());
+        }
+    }
 
-                Map<String, Object> row = new LinkedHashMap<>();
-                for (int i = 0; i < columns.size(); i++) {
-                    row.put(columns.get(i), rs.getObject(i + 1));
+    /**
+     * Opens the already checked query as a cursor on the slot already reserved and renders its first
+     * page. The cursor query is capped at {@code app.query.cursor.max-rows} rather than the page size.
+     */
+    private QueryOutput renderCursor(String limitedQuery, int cursorMaxRows, int pageSize, ResultRenderer renderer,
+                                     String clientId, long budget, String warning) {
+        OpenCursor cursor;
+        try {
+            cursor = queryExecutor.open(limitedQuery, databaseConfig.getTimeoutSeconds(), pageSize + 1);
+        } catch (Exception e) {
+            cursorRegistry.release();
+            return QueryOutput.error("Query execution failed: " + e.getMessage());
+        }
+
+        CursorSession session = cursorRegistry.register(clientId, cursor, cursorMaxRows, warning);
+        session.lock().lock();
+        try {
+            return renderPage(session, pageSize, renderer, budget);
+        } catch (Exception e) {
+            cursorRegistry.close(session);
+            return QueryOutput.error("Query execution failed: " + e.getMessage());
+        } finally {
+            session.lock().unlock();
+        }
+    }
+
+    /**
+     * Renders up to {@code pageSize} rows from the session's cursor, starting with the pending row
+     * if there is one, and reads one row ahead to learn whether another page exists. A page that
+     * reaches the output budget ends early and the next one starts at the row after it. Must be
+     * called with the session lock held.
+     */
+    private QueryOutput renderPage(CursorSession session, int pageSize, ResultRenderer renderer, long budget) {
+        int rowCount = queryExecutor.fetch(session.cursor(), databaseConfig.getTimeoutSeconds(), rs -> {
+            renderer.start(rs.getMetaData());
+            int rows = 0;
+            boolean more = session.pending() || rs.next();
+            while (more && rows < pageSize && (rows == 0 || renderer.size() < budget)) {
+                renderer.row(rs);
+                rows++;
+                more = rs.next();
+            }
+            session.advance(rows, more);
+            return rows;
+        });
+
+        boolean more = session.pending();
+        boolean cut = more && rowCount < pageSize;
+        // Only the cursor cap truncates; a page boundary does not
+        boolean truncated = !more && session.rowsFetched() >= session.maxRows();
+        String output = renderer.finish(rowCount, more || truncated, more ? pageSize : session.maxRows());
+        if (!more) {
+            cursorRegistry.close(session);
+        }
+        QueryOutput page = QueryOutput.success(output, rowCount, more || truncated, session.warning(),
+                more ? session.token() : null, session.rowsFetched());
+        return cut ? page.cutAt(budget) : page;
+    }
+
+    /**
+     * The output budget in bytes: {@code maxBytes} if given, but never above
+     * {@code app.query.max-output-size}.
+     */
+    private long outputBudget(long maxBytes) {
+        long limit = databaseConfig.getMaxOutputSize().toBytes();
+        if (limit <= 0) {
+            limit = Long.MAX_VALUE;
+        }
+        return maxBytes > 0 ? Math.min(maxBytes, limit) : limit;
+    }
+
+    public QueryResult executeQuery(String query, int maxRows) {
+        ValidationResult validation = queryValidator.validate(query);
+
+        if (!validation.valid()) {
+            return QueryResult.error(validation.errorMessage());
+        }
+
+        ConfigValue.awaitVersion();
+        int effectiveMaxRows = Math.min(maxRows, databaseConfig.getMaxRows());
+        String limitedQuery = applyRowLimit(validation.cleanedQuery(), effectiveMaxRows);
+
+        Verdict verdict = planGuard.check(limitedQuery);
+        if (verdict.rejected()) {
+            return QueryResult.error(verdict.describe());
+        }
+
+        try {
+            ColumnarResult data = queryExecutor.query(limitedQuery, databaseConfig.getTimeoutSeconds(), rs -> {
+                ColumnarResult.Builder builder = new ColumnarResult.Builder(rs.getMetaData(), effectiveMaxRows);
+                while (rs.next()) {
+                    builder.add(rs);
                 }
-                results.add(row);
+                return builder.build();
             });
 
-            boolean truncated = results.size() >= effectiveMaxRows;
+            boolean truncated = data.rowCount() >= effectiveMaxRows;
 
-            return QueryResult.success(columns, results, truncated, effectiveMaxRows);
+            return QueryResult.success(data, truncated, effectiveMaxRows);
         } catch (Exception e) {
             return QueryResult.error("Query execution failed: " + e.getMessage());
         }
     }
 
-    private String applyRowLimit(String query, int maxRows) {
+    String applyRowLimit(String query, int maxRows) {
         String upperQuery = query.toUpperCase().trim();
 
         // Check if query already has FETCH or ROWNUM limit
@@ -86,25 +417,82 @@ public class QueryService {
         }
     }
 
+    public record QueryOutput(
+            boolean success,
+            String output,
+            String errorMessage,
+            int rowCount,
+            boolean truncated,
+            String warning,
+            String cursor,
+            int rowsFetched,
+            String resultId,
+            long budgetBytes
+    ) {
+        public static QueryOutput success(String output, int rowCount, boolean truncated, String warning) {
+            return new QueryOutput(true, output, null, rowCount, truncated, warning, null, rowCount, null, 0);
+        }
+
+        /**
+         * A page read from a cursor; {@code cursor} is the token for the next page, or {@code null}
+         * if this was the last one, and {@code rowsFetched} counts rows across all pages so far.
+         */
+        public static QueryOutput success(String output, int rowCount, boolean truncated, String warning,
+                                          String cursor, int rowsFetched) {
+            return new QueryOutput(true, output, null, rowCount, truncated, warning, cursor, rowsFetched, null, 0);
+        }
+
+        /**
+         * A page of a kept result; {@code rowsFetched} is the number of rows kept under
+         * {@code resultId}.
+         */
+        public static QueryOutput kept(String output, int rowCount, boolean truncated, String warning,
+                                       String resultId, int keptRows) {
+            return new QueryOutput(true, output, null, rowCount, truncated, warning, null, keptRows, resultId, 0);
+        }
+
+        public static QueryOutput error(String errorMessage) {
+            return new QueryOutput(false, null, errorMessage, 0, false, null, null, 0, null, 0);
+        }
+
+        /**
+         * The same output, marked as stopped by the output budget of {@code budgetBytes} after its
+         * last row.
+         */
+        public QueryOutput cutAt(long budgetBytes) {
+            return new QueryOutput(success, output, errorMessage, rowCount, truncated, warning, cursor, rowsFetched,
+                    resultId, budgetBytes);
+        }
+    }
+
     public record QueryResult(
             boolean success,
-            List<String> columns,
-            List<Map<String, Object>> rows,
+            ColumnarResult data,
             String errorMessage,
             boolean truncated,
             int maxRows
     ) {
-        public static QueryResult success(List<String> columns, List<Map<String, Object>> rows,
-                                          boolean truncated, int maxRows) {
-            return new QueryResult(true, columns, rows, null, truncated, maxRows);
+        public static QueryResult success(ColumnarResult data, boolean truncated, int maxRows) {
+            return new QueryResult(true, data, null, truncated, maxRows);
         }
 
         public static QueryResult error(String errorMessage) {
-            return new QueryResult(false, List.of(), List.of(), errorMessage, false, 0);
+            return new QueryResult(false, ColumnarResult.empty(), errorMessage, false, 0);
+        }
+
+        public List<String> columns() {
+            return data.columnNames();
+        }
+
+        /**
+         * Row-map view of {@link #data()}; maps are built on access.
+         */
+        public List<Map<String, Object>> rows() {
+            return data.asMaps();
         }
 
         public int rowCount() {
-            return rows.size();
+            return data.rowCount();
         }
     }
 }
@@ -1,35 +1,57 @@
 package com.pagoda.aiqueryselect.tools;
 
-import com.pagoda.aiqueryselect.model.ColumnInfo;
-import com.pagoda.aiqueryselect.model.ConstraintInfo;
-import com.pagoda.aiqueryselect.model.ForeignKeyInfo;
+import com.pagoda.aiqueryselect.admission.AdmissionController;
+import com.pagoda.aiqueryselect.admission.ToolClass;
+import com.pagoda.aiqueryselect.catalog.CatalogMarkdown;
+import com.pagoda.aiqueryselect.catalog.JoinGraph;
+import com.pagoda.aiqueryselect.catalog.SchemaSearchIndex;
 import com.pagoda.aiqueryselect.model.TableInfo;
+import com.pagoda.aiqueryselect.query.JsonResultRenderer;
+import com.pagoda.aiqueryselect.query.MarkdownResultRenderer;
+import com.pagoda.aiqueryselect.query.ResultFormat;
+import com.pagoda.aiqueryselect.query.ResultRenderer;
+import com.pagoda.aiqueryselect.service.ExportService;
+import com.pagoda.aiqueryselect.service.ExportService.ExportResult;
 import com.pagoda.aiqueryselect.service.QueryService;
-import com.pagoda.aiqueryselect.service.QueryService.QueryResult;
+import com.pagoda.aiqueryselect.service.QueryService.QueryOutput;
 import com.pagoda.aiqueryselect.service.SchemaService;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
 import org.springaicommunity.mcp.annotation.McpTool;
 import org.springaicommunity.mcp.annotation.McpToolParam;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Component
 public class DatabaseMcpTools {
 
+    // The ASCII rate assumed by size()
+    private static final int BYTES_PER_TOKEN = 4;
+
     private final SchemaService schemaService;
     private final QueryService queryService;
+    private final ExportService exportService;
+    private final AdmissionController admissionController;
+    private final boolean sharedServer;
 
-    public DatabaseMcpTools(SchemaService schemaService, QueryService queryService) {
+    public DatabaseMcpTools(SchemaService schemaService, QueryService queryService, ExportService exportService,
+                            AdmissionController admissionController, Environment environment) {
         this.schemaService = schemaService;
         this.queryService = queryService;
+        this.exportService = exportService;
+        this.admissionController = admissionController;
+        // Anything but stdio, such as the http profile, may serve many clients from one process
+        this.sharedServer = !environment.getProperty("spring.ai.mcp.server.stdio", Boolean.class, false);
     }
 
     @McpTool(name = "list-tables", description = "Lists all accessible database tables, excluding system schemas. Returns table names with their owners, comments, and approximate row counts.")
-    public String listTables() {
+    public String listTables(McpSyncServerExchange exchange) {
         try {
-            List<TableInfo> tables = schemaService.listAllTables();
+            List<TableInfo> tables = admissionController.call(ToolClass.SCHEMA, clientId(exchange),
+                    schemaService::listAllTables);
 
             if (tables.isEmpty()) {
                 return "No accessible tables found.";
@@ -47,7 +69,7 @@ public class DatabaseMcpTools {
 
                 sb.append("- **").append(table.tableName()).append("**");
                 if (table.numRows() != null) {
-                    sb.append(" (~").append(formatNumber(table.numRows())).append(" rows)");
+                    sb.append(" (~").append(CatalogMarkdown.formatNumber(table.numRows())).append(" rows)");
                 }
                 if (table.comments() != null && !table.comments().isBlank()) {
                     sb.append(": ").append(table.comments());
@@ -61,165 +83,363 @@ public class DatabaseMcpTools {
         }
     }
 
+    @McpTool(name = "search-schema", description = "Searches table names, column names and their comments (including Korean comments) and returns the best matching tables and columns. Use this to find the right table instead of listing every table. Partial words match.")
+    public String searchSchema(
+            McpSyncServerExchange exchange,
+            @McpToolParam(description = "Words to search for, e.g. 'customer order' or '주문 금액'.", required = true) String query,
+            @McpToolParam(description = "Maximum number of matches to return (default: 20, max: 100)", required = false) Integer limit) {
+        try {
+            int effectiveLimit = limit != null ? Math.min(Math.max(limit, 1), 100) : 20;
+            List<SchemaSearchIndex.Hit> hits = admissionController.call(ToolClass.SCHEMA, clientId(exchange),
+                    () -> schemaService.searchSchema(query, effectiveLimit));
+
+            if (hits.isEmpty()) {
+                return "No tables or columns match '" + query + "'.";
+            }
+
+            StringBuilder sb = new StringBuilder();
+            sb.append("Found ").append(hits.size()).append(" matches for '").append(query).append("':\n\n");
+            for (SchemaSearchIndex.Hit hit : hits) {
+                sb.append("- **").append(hit.owner()).append(".").append(hit.tableName());
+                if (hit.isColumn()) {
+                    sb.append(".").append(hit.columnName()).append("** column ").append(hit.dataType());
+                } else {
+                    sb.append("** table");
+                }
+                if (hit.comments() != null && !hit.comments().isBlank()) {
+                    sb.append(": ").append(hit.comments());
+                }
+                sb.append("\n");
+            }
+
+            return sb.toString();
+        } catch (Exception e) {
+            return "Error searching schema: " + e.getMessage();
+        }
+    }
+
     @McpTool(name = "get-table-schema", description = "Returns detailed schema information for a specific table, including columns with their data types, constraints (primary keys, unique, check), and foreign key relationships.")
     public String getTableSchema(
+            McpSyncServerExchange exchange,
             @McpToolParam(description = "The name of the table to describe. Can be just the table name or OWNER.TABLE_NAME format.", required = true) String tableName) {
         try {
-            TableInfo tableInfo;
-
-            if (tableName.contains(".")) {
-                String[] parts = tableName.split("\\.", 2);
-                tableInfo = schemaService.getFullTableInfo(parts[0], parts[1]);
-            } else {
-                tableInfo = schemaService.findTable(tableName);
-            }
+            TableInfo tableInfo = admissionController.call(ToolClass.SCHEMA, clientId(exchange),
+                    () -> schemaService.getTable(tableName));
 
             if (tableInfo == null) {
                 return "Table '" + tableName + "' not found or not accessible.";
             }
 
-            return formatTableSchema(tableInfo);
+            return CatalogMarkdown.table(tableInfo);
         } catch (Exception e) {
             return "Error getting table schema: " + e.getMessage();
         }
     }
 
+    @McpTool(name = "find-join-path", description = "Finds the shortest foreign key join chain connecting two or more tables and returns it as a FROM/JOIN clause with the join conditions. Use this to plan multi-table queries instead of reading all relationships.")
+    public String findJoinPath(
+            McpSyncServerExchange exchange,
+            @McpToolParam(description = "Comma separated table names to connect, e.g. 'ORDERS, CUSTOMERS, PRODUCTS'. Each can be just the table name or OWNER.TABLE_NAME format. The first table is the root of the join.", required = true) String tables) {
+        try {
+            List<String> tableNames = Arrays.stream(tables.split(","))
+                    .map(String::trim)
+                    .filter(name -> !name.isEmpty())
+                    .toList();
+            if (tableNames.size() < 2) {
+                return "Provide at least two table names to connect.";
+            }
+
+            JoinGraph.JoinPlan plan = admissionController.call(ToolClass.SCHEMA, clientId(exchange),
+                    () -> schemaService.findJoinPath(tableNames));
+
+            if (plan.tables().size() < 2) {
+                return "No foreign key path connects " + String.join(", ", tableNames) + ".";
+            }
+
+            return CatalogMarkdown.joinPlan(plan);
+        } catch (Exception e) {
+            return "Error finding join path: " + e.getMessage();
+        }
+    }
+
     @McpTool(name = "execute-select", description = "Executes a read-only SELECT query against the database. Only SELECT and WITH statements are allowed. Results are limited to prevent excessive data retrieval.")
-    public String executeSelect(
+    public CallToolResult executeSelect(
+            McpSyncServerExchange exchange,
             @McpToolParam(description = "The SELECT query to execute. Must be a valid Oracle SQL SELECT statement. INSERT, UPDATE, DELETE and other modifying statements are not allowed.", required = true) String query,
-            @McpToolParam(description = "Maximum number of rows to return (default: 100, max: 1000)", required = false) Integer maxRows) {
+            @McpToolParam(description = "Maximum number of rows to return (default: 100, max: 1000)", required = false) Integer maxRows,
+            @McpToolParam(description = "Keep the whole result on the server, up to a server-side row limit, so page-result can page, sort and slice it without running the query again. Use for large results you will revisit (default: false)", required = false) Boolean keep,
+            @McpToolParam(description = "Output format: 'markdown' (default) table, 'csv' or 'tsv' for compact text, 'json' for columnar JSON with one array per column, or 'structured' for columnar JSON returned as structured content. csv, tsv and json use far fewer tokens for wide results", required = false) String format,
+            @McpToolParam(description = "Stop fetching rows once the output reaches this many bytes. The server's own limit applies if it is lower", required = false) Integer maxBytes,
+            @McpToolParam(description = "Like maxBytes, as an estimated token count (about 4 bytes per token)", required = false) Integer maxTokens) {
         try {
             int effectiveMaxRows = maxRows != null ? Math.min(Math.max(maxRows, 1), 1000) : 100;
+            long budget = budget(maxBytes, maxTokens);
+            ResultFormat resultFormat = ResultFormat.parse(format);
+            ResultRenderer renderer = resultFormat.renderer(effectiveMaxRows);
 
-            QueryResult result = queryService.executeQuery(query, effectiveMaxRows);
+            String clientId = clientId(exchange);
+            QueryOutput result = admissionController.call(ToolClass.QUERY, clientId,
+                    () -> Boolean.TRUE.equals(keep)
+                            ? queryService.renderKept(query, effectiveMaxRows, renderer, clientId, budget)
+                            : queryService.renderQuery(query, effectiveMaxRows, renderer, clientId, budget));
 
             if (!result.success()) {
-                return "Query failed: " + result.errorMessage();
+                return text("Query failed: " + result.errorMessage());
             }
 
-            return formatQueryResult(result);
+            return content(resultFormat, renderer, result, effectiveMaxRows);
         } catch (Exception e) {
-            return "Error executing query: " + e.getMessage();
+            return text("Error executing query: " + e.getMessage());
         }
     }
 
-    private String formatTableSchema(TableInfo table) {
-        StringBuilder sb = new StringBuilder();
-
-        sb.append("# Table: ").append(table.owner()).append(".").append(table.tableName()).append("\n\n");
-
-        if (table.comments() != null && !table.comments().isBlank()) {
-            sb.append("**Description:** ").append(table.comments()).append("\n\n");
-        }
+    @McpTool(name = "fetch-more", description = "Returns the next rows of a query run by execute-select, continuing from where the previous page ended without running the query again. Use the cursor token from the end of the previous result.")
+    public CallToolResult fetchMore(
+            McpSyncServerExchange exchange,
+            @McpToolParam(description = "Cursor token from the previous execute-select or fetch-more result", required = true) String cursor,
+            @McpToolParam(description = "Maximum number of rows to return (default: 100, max: 1000)", required = false) Integer maxRows,
+            @McpToolParam(description = "Output format: 'markdown' (default), 'csv', 'tsv', 'json' or 'structured', as for execute-select", required = false) String format,
+            @McpToolParam(description = "Stop fetching rows once the output reaches this many bytes, as for execute-select", required = false) Integer maxBytes,
+            @McpToolParam(description = "Like maxBytes, as an estimated token count (about 4 bytes per token)", required = false) Integer maxTokens) {
+        try {
+            int effectiveMaxRows = maxRows != null ? Math.min(Math.max(maxRows, 1), 1000) : 100;
+            long budget = budget(maxBytes, maxTokens);
+            ResultFormat resultFormat = ResultFormat.parse(format);
+            ResultRenderer renderer = resultFormat.renderer(effectiveMaxRows);
 
-        if (table.numRows() != null) {
-            sb.append("**Approximate Rows:** ").append(formatNumber(table.numRows())).append("\n\n");
-        }
+            String clientId = clientId(exchange);
+            QueryOutput result = admissionController.call(ToolClass.QUERY, clientId,
+                    () -> queryService.fetchMore(cursor, effectiveMaxRows, renderer, clientId, budget));
 
-        // Columns
-        sb.append("## Columns\n\n");
-        sb.append("| # | Column | Type | Nullable | Default | Description |\n");
-        sb.append("|---|--------|------|----------|---------|-------------|\n");
+            if (!result.success()) {
+                return text("Fetch failed: " + result.errorMessage());
+            }
 
-        for (ColumnInfo col : table.columns()) {
-            sb.append("| ").append(col.columnPosition()).append(" | ");
-            sb.append(col.columnName()).append(" | ");
-            sb.append(col.getFormattedType()).append(" | ");
-            sb.append(col.nullable() ? "YES" : "NO").append(" | ");
-            sb.append(col.defaultValue() != null ? escapeMarkdown(col.defaultValue().trim()) : "").append(" | ");
-            sb.append(col.comments() != null ? escapeMarkdown(col.comments()) : "").append(" |\n");
+            return content(resultFormat, renderer, result, effectiveMaxRows);
+        } catch (Exception e) {
+            return text("Error fetching rows: " + e.getMessage());
         }
+    }
 
-        // Constraints
-        if (!table.constraints().isEmpty()) {
-            sb.append("\n## Constraints\n\n");
+    @McpTool(name = "page-result", description = "Returns rows of a result kept by execute-select with keep=true, from the server without querying the database. Supports paging by offset, sorting by one column and choosing columns.")
+    public String pageResult(
+            McpSyncServerExchange exchange,
+            @McpToolParam(description = "Result id from the execute-select output", required = true) String result,
+            @McpToolParam(description = "Number of rows to skip (default: 0)", required = false) Integer offset,
+            @McpToolParam(description = "Maximum number of rows to return (default: 100, max: 1000)", required = false) Integer maxRows,
+            @McpToolParam(description = "Column to sort by", required = false) String orderBy,
+            @McpToolParam(description = "Sort in descending order (default: false)", required = false) Boolean descending,
+            @McpToolParam(description = "Comma separated column names to return (default: all)", required = false) String columns) {
+        try {
+            int effectiveMaxRows = maxRows != null ? Math.min(Math.max(maxRows, 1), 1000) : 100;
+            int effectiveOffset = offset != null ? Math.max(offset, 0) : 0;
+            List<String> columnNames = columns == null ? List.of() : Arrays.stream(columns.split(","))
+                    .map(String::trim)
+                    .filter(name -> !name.isEmpty())
+                    .toList();
+
+            String clientId = clientId(exchange);
+            QueryOutput output = admissionController.call(ToolClass.SCHEMA, clientId,
+                    () -> queryService.pageResult(result, effectiveOffset, effectiveMaxRows, orderBy,
+                            Boolean.TRUE.equals(descending), columnNames, new MarkdownResultRenderer(effectiveMaxRows),
+                            clientId));
+
+            if (!output.success()) {
+                return "Page failed: " + output.errorMessage();
+            }
 
-            for (ConstraintInfo constraint : table.constraints()) {
-                sb.append("- **").append(constraint.constraintName()).append("** (");
-                sb.append(constraint.getConstraintTypeDescription()).append("): ");
-                sb.append(String.join(", ", constraint.columns()));
-                if (constraint.searchCondition() != null && "C".equals(constraint.constraintType())) {
-                    sb.append(" - ").append(constraint.searchCondition());
+            StringBuilder sb = new StringBuilder();
+            if (output.rowCount() > 0) {
+                sb.append("Rows ").append(effectiveOffset + 1).append("-").append(effectiveOffset + output.rowCount())
+                        .append(" of ").append(output.rowsFetched());
+                if (orderBy != null && !orderBy.isBlank()) {
+                    sb.append(", sorted by ").append(orderBy.trim())
+                            .append(Boolean.TRUE.equals(descending) ? " descending" : "");
                 }
-                sb.append("\n");
+                sb.append(".\n\n");
+            } else {
+                sb.append("No rows at offset ").append(effectiveOffset).append("; the result has ")
+                        .append(output.rowsFetched()).append(" row(s).\n\n");
+            }
+            sb.append(output.output());
+            if (output.budgetBytes() > 0) {
+                sb.append("\nOutput budget of ").append(output.budgetBytes()).append(" bytes reached after row ")
+                        .append(effectiveOffset + output.rowCount()).append("; continue with offset=")
+                        .append(effectiveOffset + output.rowCount()).append(".\n");
             }
+            return sb.toString();
+        } catch (Exception e) {
+            return "Error reading result: " + e.getMessage();
         }
+    }
 
-        // Foreign Keys
-        if (!table.foreignKeys().isEmpty()) {
-            sb.append("\n## Foreign Keys\n\n");
+    @McpTool(name = "export-query", description = "Runs a read-only SELECT query and writes the complete result, with full untruncated values, to a CSV file on the server. Returns the file path, row count and size instead of the rows. Use this when the whole result is needed rather than a sample.")
+    public String exportQuery(
+            McpSyncServerExchange exchange,
+            @McpToolParam(description = "The SELECT query to export. Must be a valid Oracle SQL SELECT statement.", required = true) String query,
+            @McpToolParam(description = "File name in the server's export directory, e.g. 'orders-2024'. The extension is added. Default: a generated name", required = false) String fileName,
+            @McpToolParam(description = "Compress the file with gzip (default: false)", required = false) Boolean compress) {
+        try {
+            ExportResult result = admissionController.call(ToolClass.QUERY, clientId(exchange),
+                    () -> exportService.export(query, fileName, Boolean.TRUE.equals(compress)));
 
-            for (ForeignKeyInfo fk : table.foreignKeys()) {
-                sb.append("- **").append(fk.constraintName()).append("**: ");
-                sb.append(String.join(", ", fk.sourceColumns()));
-                sb.append(" → ").append(fk.targetTable()).append("(");
-                sb.append(String.join(", ", fk.targetColumns())).append(")");
-                if (fk.deleteRule() != null && !"NO ACTION".equals(fk.deleteRule())) {
-                    sb.append(" [ON DELETE ").append(fk.deleteRule()).append("]");
-                }
-                sb.append("\n");
+            if (!result.success()) {
+                return "Export failed: " + result.errorMessage();
+            }
+
+            StringBuilder sb = new StringBuilder();
+            if (result.warning() != null) {
+                sb.append(result.warning()).append("\n");
+            }
+            sb.append("Exported ").append(result.rowCount()).append(" row(s)");
+            if (result.truncated()) {
+                sb.append(" (limited to ").append(result.maxRows()).append(")");
             }
+            sb.append(" to `").append(result.path()).append("`\n\n");
+            sb.append("- **Size:** ").append(result.bytes()).append(" bytes\n");
+            sb.append("- **Elapsed:** ").append(result.elapsedMillis()).append(" ms\n");
+            return sb.toString();
+        } catch (Exception e) {
+            return "Error exporting query: " + e.getMessage();
         }
+    }
 
-        return sb.toString();
+    /**
+     * A page of rows as tool content. Markdown is one readable text item. CSV, TSV and JSON are left
+     * exactly as rendered in their own item, so they parse, with the notes in a second item. A
+     * structured result is sent once, as structured content, with only the notes as text.
+     */
+    private static CallToolResult content(ResultFormat format, ResultRenderer renderer, QueryOutput result,
+                                          int maxRows) {
+        if (format == ResultFormat.MARKDOWN) {
+            String page = page(result);
+            return CallToolResult.builder()
+                    .addTextContent(page)
+                    .addTextContent(size(format, page))
+                    .build();
+        }
+        StringBuilder notes = new StringBuilder();
+        if (result.warning() != null) {
+            notes.append(result.warning()).append("\n");
+        }
+        notes.append(result.rowCount()).append(" row(s)");
+        if (result.truncated() && result.budgetBytes() == 0) {
+            notes.append(", limited to ").append(maxRows);
+        }
+        notes.append(". ").append(size(format, result.output()));
+        appendContinuation(notes, result);
+
+        if (renderer instanceof JsonResultRenderer json && json.structuredContent() != null) {
+            notes.insert(0, "Rows are in the structured content as columnar JSON.\n");
+            return CallToolResult.builder()
+                    .addTextContent(notes.toString())
+                    .structuredContent(json.structuredContent())
+                    .build();
+        }
+        return CallToolResult.builder()
+                .addTextContent(result.output())
+                .addTextContent(notes.toString())
+                .build();
     }
 
-    private String formatQueryResult(QueryResult result) {
+    /**
+     * Query output with the plan guard warning first and, if the cursor is still open or the result
+     * was kept, a note on how to continue.
+     */
+    private static String page(QueryOutput result) {
         StringBuilder sb = new StringBuilder();
-
-        if (result.rows().isEmpty()) {
-            return "Query executed successfully. No rows returned.";
+        if (result.warning() != null) {
+            sb.append(result.warning()).append("\n");
         }
+        sb.append(result.output());
+        appendContinuation(sb, result);
+        return sb.toString();
+    }
 
-        sb.append("Query returned ").append(result.rowCount()).append(" row(s)");
-        if (result.truncated()) {
-            sb.append(" (limited to ").append(result.maxRows()).append(")");
+    private static void appendContinuation(StringBuilder sb, QueryOutput result) {
+        if (result.budgetBytes() > 0) {
+            // With a cursor the page is one of several, so count its last row from the start of the result
+            sb.append("\nOutput budget of ").append(result.budgetBytes()).append(" bytes reached after row ")
+                    .append(result.cursor() != null ? result.rowsFetched() : result.rowCount()).append("; ")
+                    .append(result.cursor() != null || result.resultId() != null
+                            ? "the rows after it were not shown.\n"
+                            : "the rows after it were not fetched. Select fewer or narrower columns, or filter the rows.\n");
         }
-        sb.append(".\n\n");
-
-        // Build markdown table
-        List<String> columns = result.columns();
-
-        // Header
-        sb.append("| ").append(String.join(" | ", columns)).append(" |\n");
-        sb.append("|").append(columns.stream().map(c -> "---").collect(Collectors.joining("|"))).append("|\n");
+        if (result.cursor() != null) {
+            sb.append("\n").append(result.rowsFetched()).append(" row(s) read so far. More rows are available: ")
+                    .append("call fetch-more with cursor `").append(result.cursor()).append("`.\n");
+        }
+        if (result.resultId() != null) {
+            sb.append("\n").append(result.rowsFetched()).append(" row(s) kept as result `").append(result.resultId())
+                    .append("`: call page-result to page, sort or slice them without querying the database.\n");
+        }
+    }
 
-        // Rows
-        for (Map<String, Object> row : result.rows()) {
-            sb.append("| ");
-            for (int i = 0; i < columns.size(); i++) {
-                if (i > 0) sb.append(" | ");
-                Object value = row.get(columns.get(i));
-                sb.append(formatValue(value));
+    /**
+     * Exact UTF-8 size of the payload and a token estimate: about four characters per token for
+     * ASCII text and one per character otherwise, which is close for Hangul and CJK.
+     */
+    static String size(ResultFormat format, String payload) {
+        long bytes = 0;
+        long ascii = 0;
+        long other = 0;
+        for (int i = 0; i < payload.length(); i++) {
+            char c = payload.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+                ascii++;
+            } else if (c < 0x800) {
+                bytes += 2;
+                other++;
+            } else if (Character.isHighSurrogate(c)) {
+                // The pair is one code point of four bytes
+                bytes += 4;
+                other++;
+                i++;
+            } else {
+                bytes += 3;
+                other++;
             }
-            sb.append(" |\n");
         }
-
-        return sb.toString();
+        return "Format: " + format.name().toLowerCase() + ", " + bytes + " bytes, ~" + ((ascii + 3) / 4 + other)
+                + " tokens.";
     }
 
-    private String formatValue(Object value) {
-        if (value == null) {
-            return "NULL";
+    /**
+     * The smaller of the byte and token budgets asked for, in bytes, or 0 if neither was.
+     */
+    static long budget(Integer maxBytes, Integer maxTokens) {
+        long budget = 0;
+        if (maxBytes != null && maxBytes > 0) {
+            budget = maxBytes;
         }
-        String str = value.toString();
-        if (str.length() > 100) {
-            str = str.substring(0, 97) + "...";
+        if (maxTokens != null && maxTokens > 0) {
+            long tokenBytes = (long) maxTokens * BYTES_PER_TOKEN;
+            budget = budget > 0 ? Math.min(budget, tokenBytes) : tokenBytes;
         }
-        return escapeMarkdown(str);
+        return budget;
     }
 
-    private String escapeMarkdown(String text) {
-        if (text == null) return "";
-        return text.replace("|", "\\|").replace("\n", " ").replace("\r", "");
+    private static CallToolResult text(String text) {
+        return CallToolResult.builder().addTextContent(text).build();
     }
 
-    private String formatNumber(long number) {
-        if (number >= 1_000_000) {
-            return String.format("%.1fM", number / 1_000_000.0);
-        } else if (number >= 1_000) {
-            return String.format("%.1fK", number / 1_000.0);
+    /**
+     * Fairness key for admission and owner of cursors and kept results: the MCP session, so clients
+     * of the same implementation sharing an HTTP server are queued and isolated separately. Only a
+     * stdio server, which has a single client, falls back to the client name reported at
+     * initialization; a shared server refuses calls without a session.
+     */
+    private String clientId(McpSyncServerExchange exchange) {
+        if (exchange == null) {
+            return null;
+        }
+        if (exchange.sessionId() != null) {
+            return exchange.sessionId();
+        }
+        if (sharedServer) {
+            throw new IllegalStateException("the request has no MCP session id, which a shared server requires");
         }
-        return String.valueOf(number);
+        return exchange.getClientInfo() != null ? exchange.getClientInfo().name() : null;
     }
 }
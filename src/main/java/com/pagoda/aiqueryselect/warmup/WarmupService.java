@@ -0,0 +1,221 @@
+package com.pagoda.aiqueryselect.warmup;
+
+import com.pagoda.aiqueryselect.catalog.CatalogLoader;
+import com.pagoda.aiqueryselect.catalog.CatalogRepository;
+import com.pagoda.aiqueryselect.catalog.CatalogScope;
+import com.pagoda.aiqueryselect.config.CatalogConfig;
+import com.pagoda.aiqueryselect.config.WarmupConfig;
+import com.pagoda.aiqueryselect.model.TableInfo;
+import com.pagoda.aiqueryselect.resources.SchemaDocuments;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms the server up in the background while the MCP client is still initializing.
+ * <p>
+ * As soon as the context has started, pool connections are opened in parallel and the fixed
+ * {@code get-table-schema} dictionary statements are executed once on each of them. With
+ * {@code oracle.jdbc.implicitStatementCacheSize} set, the driver then keeps those cursors open per
+ * connection. Once the application is ready, and so the Oracle version is known and any snapshot
+ * has been restored, the catalog is loaded and indexed for {@code search-schema}, and
+ * {@code schema://overview} and {@code schema://relationships} are rendered into their caches.
+ * Progress is reported through {@link #progress()}.
+ */
+@Component
+public class WarmupService {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupService.class);
+
+    // A table name that cannot exist, so priming parses the statements but reads no rows
+    private static final String PRIME_NAME = "#WARMUP#";
+
+    private static final long CONNECTION_HOLD_TIMEOUT_SECONDS = 60;
+
+    private final DataSource dataSource;
+    private final CatalogConfig catalogConfig;
+    private final CatalogRepository catalogRepository;
+    private final SchemaDocuments schemaDocuments;
+    private final WarmupConfig warmupConfig;
+
+    private final Step connections = new Step("connections");
+    private final Step statementCache = new Step("statement-cache");
+    private final Step catalog = new Step("catalog");
+    private final Step schemaResources = new Step("schema-resources");
+    private final List<Step> steps = List.of(connections, statementCache, catalog, schemaResources);
+
+    public WarmupService(DataSource dataSource, CatalogConfig catalogConfig, CatalogRepository catalogRepository,
+                         SchemaDocuments schemaDocuments, WarmupConfig warmupConfig) {
+        this.dataSource = dataSource;
+        this.catalogConfig = catalogConfig;
+        this.catalogRepository = catalogRepository;
+        this.schemaDocuments = schemaDocuments;
+        this.warmupConfig = warmupConfig;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void warmConnections() {
+        if (!warmupConfig.isEnabled() || warmupConfig.getConnections() <= 0) {
+            connections.skip();
+            statementCache.skip();
+            return;
+        }
+        int count = warmupConfig.getConnections();
+        connections.start("0/" + count);
+        statementCache.start("0/" + count);
+
+        AtomicInteger opened = new AtomicInteger();
+        AtomicInteger primed = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(count);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < count; i++) {
+            Thread.ofVirtual().name("warmup-connection-" + i).start(() -> {
+                // Every connection is held until all are open, so each thread gets a distinct one
+                try (Connection con = dataSource.getConnection()) {
+                    connections.progress(opened.incrementAndGet() + "/" + count);
+                    CatalogLoader loader = new CatalogLoader(
+                            new JdbcTemplate(new SingleConnectionDataSource(con, true)), catalogConfig);
+                    loader.primeDetails(CatalogScope.table(PRIME_NAME, PRIME_NAME));
+                    loader.primeDetails(CatalogScope.tableName(PRIME_NAME));
+                    statementCache.progress(primed.incrementAndGet() + "/" + count);
+                    ready.countDown();
+                    release.await(CONNECTION_HOLD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (SQLException | RuntimeException e) {
+                    log.warn("Connection warm-up failed: {}", e.getMessage());
+                    ready.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        Thread.ofVirtual().name("warmup-connections").start(() -> {
+            try {
+                ready.await(CONNECTION_HOLD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                release.countDown();
+                connections.finish(opened.get() == count, opened.get() + "/" + count);
+                statementCache.finish(primed.get() == count, primed.get() + "/" + count);
+            }
+        });
+    }
+
+    /**
+     * Runs after the snapshot restore and {@code StartSetting}, both of which complete before the
+     * ready event is published.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmCatalog() {
+        if (!warmupConfig.isEnabled()) {
+            catalog.skip();
+            schemaResources.skip();
+            return;
+        }
+        catalog.start("loading");
+        Thread.ofVirtual().name("warmup-catalog").start(() -> {
+            try {
+                Map<String, List<TableInfo>> overview = catalogRepository.overview();
+                int tables = overview.values().stream().mapToInt(List::size).sum();
+                int foreignKeys = catalogRepository.foreignKeys().size();
+                int indexed = catalogRepository.searchIndex().size();
+                catalog.finish(true, tables + " tables in " + overview.size() + " schemas, "
+                        + foreignKeys + " foreign keys, " + indexed + " search entries");
+            } catch (RuntimeException e) {
+                log.warn("Catalog warm-up failed: {}", e.getMessage());
+                catalog.finish(false, e.getMessage());
+                schemaResources.skip();
+                return;
+            }
+
+            if (!warmupConfig.isRenderSchema()) {
+                schemaResources.skip();
+                return;
+            }
+            schemaResources.start("rendering");
+            try {
+                // Through the proxy, so the rendered markdown lands in the resource caches
+                int chars = schemaDocuments.overview().length() + schemaDocuments.relationships().length();
+                schemaResources.finish(true, chars + " characters rendered");
+            } catch (RuntimeException e) {
+                log.warn("Schema resource warm-up failed: {}", e.getMessage());
+                schemaResources.finish(false, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * {@code true} once no warm-up step is pending or running.
+     */
+    public boolean isReady() {
+        return steps.stream().allMatch(step -> step.state.isFinal());
+    }
+
+    public List<StepStatus> progress() {
+        return steps.stream().map(Step::status).toList();
+    }
+
+    public enum State {
+        PENDING, RUNNING, DONE, FAILED, SKIPPED;
+
+        boolean isFinal() {
+            return this == DONE || this == FAILED || this == SKIPPED;
+        }
+    }
+
+    public record StepStatus(String name, State state, String detail, long elapsedMillis) {
+    }
+
+    private static final class Step {
+
+        private final String name;
+        private volatile State state = State.PENDING;
+        private volatile String detail = "";
+        private volatile long startedAt;
+        private volatile long finishedAt;
+
+        Step(String name) {
+            this.name = name;
+        }
+
+        void start(String detail) {
+            this.startedAt = System.currentTimeMillis();
+            this.detail = detail;
+            this.state = State.RUNNING;
+        }
+
+        void progress(String detail) {
+            this.detail = detail;
+        }
+
+        void finish(boolean succeeded, String detail) {
+            this.finishedAt = System.currentTimeMillis();
+            this.detail = detail;
+            this.state = succeeded ? State.DONE : State.FAILED;
+        }
+
+        void skip() {
+            this.state = State.SKIPPED;
+        }
+
+        StepStatus status() {
+            long end = finishedAt != 0 ? finishedAt : System.currentTimeMillis();
+            return new StepStatus(name, state, detail, startedAt != 0 ? end - startedAt : 0);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.pagoda.aiqueryselect.admission;
+
+import com.pagoda.aiqueryselect.config.AdmissionConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControllerTest {
+
+    @Test
+    void shouldFailFastWhenQueueIsFull() throws InterruptedException {
+        AdmissionController controller = controller(1, 0, Duration.ofSeconds(5));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> controller.call(ToolClass.QUERY, "a", () -> {
+            running.countDown();
+            await(finish);
+            return null;
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        BusyException busy = assertThrows(BusyException.class,
+                () -> controller.call(ToolClass.QUERY, "b", () -> "never"));
+        assertTrue(busy.getMessage().contains("retry after"));
+        assertEquals("ok", controller.call(ToolClass.SCHEMA, "b", () -> "ok"));
+
+        finish.countDown();
+        holder.join();
+        assertEquals(1, controller.stats().getFirst().rejected());
+    }
+
+    @Test
+    void shouldTimeOutQueuedCallers() throws InterruptedException {
+        AdmissionController controller = controller(1, 4, Duration.ofMillis(50));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> controller.call(ToolClass.QUERY, "a", () -> {
+            running.countDown();
+            await(finish);
+            return null;
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        assertThrows(BusyException.class, () -> controller.call(ToolClass.QUERY, "b", () -> "never"));
+
+        finish.countDown();
+        holder.join();
+        assertEquals(0, controller.stats().getFirst().queued());
+        assertEquals(1, controller.stats().getFirst().timedOut());
+    }
+
+    @Test
+    void shouldServeClientsRoundRobin() throws InterruptedException {
+        AdmissionController controller = controller(1, 16, Duration.ofSeconds(5));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> controller.call(ToolClass.QUERY, "busy", () -> {
+            running.countDown();
+            await(finish);
+            return null;
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        List<Thread> waiters = new ArrayList<>();
+        // Three calls from the busy client queue up before one from a quiet client
+        for (String client : List.of("busy", "busy", "busy", "quiet")) {
+            waiters.add(Thread.ofVirtual().start(() -> controller.call(ToolClass.QUERY, client, () -> order.add(client))));
+            while (controller.stats().getFirst().queued() < waiters.size()) {
+                Thread.onSpinWait();
+            }
+        }
+
+        finish.countDown();
+        holder.join();
+        for (Thread waiter : waiters) {
+            waiter.join();
+        }
+        assertEquals(List.of("busy", "quiet", "busy", "busy"), order);
+    }
+
+    private static AdmissionController controller(int maxConcurrent, int maxQueue, Duration maxWait) {
+        AdmissionConfig config = new AdmissionConfig();
+        config.getQuery().setMaxConcurrent(maxConcurrent);
+        config.getQuery().setMaxQueue(maxQueue);
+        config.getQuery().setMaxWait(maxWait);
+        return new AdmissionController(config);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.config.CatalogConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogLoaderTest {
+
+    @Test
+    void partitionsAreContiguousRunsOfOwners() {
+        Map<String, Integer> tableCounts = new LinkedHashMap<>();
+        tableCounts.put("APP", 10);
+        tableCounts.put("BILLING", 3);
+        tableCounts.put("HR", 4);
+        tableCounts.put("SALES", 3);
+
+        // 20 tables over 2 threads: partitions of at least 5 tables
+        List<CatalogScope> partitions = CatalogLoader.partition(tableCounts, 2);
+
+        assertEquals(List.of(List.of("APP"), List.of("BILLING", "HR"), List.of("SALES")),
+                partitions.stream().map(CatalogScope::owners).toList());
+    }
+
+    @Test
+    void ownersScopeBindsOneParameterPerOwner() {
+        CatalogScope scope = CatalogScope.owners(List.of("APP", "HR"));
+
+        assertEquals("t.OWNER IN (?, ?)", scope.predicate("t"));
+        assertArrayEquals(new Object[]{"APP", "HR"}, scope.parameters());
+        assertFalse(scope.isAll());
+    }
+
+    @Test
+    void partitionsNeverExceedTheInListLimit() {
+        Map<String, Integer> tableCounts = new LinkedHashMap<>();
+        for (int i = 0; i < 2500; i++) {
+            tableCounts.put("OWNER_%04d".formatted(i), 1);
+        }
+
+        List<CatalogScope> partitions = CatalogLoader.partition(tableCounts, 1);
+
+        List<String> owners = new ArrayList<>();
+        partitions.forEach(partition -> {
+            assertTrue(partition.owners().size() <= 1000);
+            owners.addAll(partition.owners());
+        });
+        assertEquals(new ArrayList<>(tableCounts.keySet()), owners);
+    }
+
+    @Test
+    void overlappingLoadsShareTheLoadConnections() {
+        CatalogConfig config = new CatalogConfig();
+        config.getParallel().setThreads(4);
+        config.getParallel().setConnections(7);
+        CatalogLoader loader = new CatalogLoader(new JdbcTemplate(), config);
+
+        // The second load gets what the first left over; the third would get one and reads sequentially
+        assertEquals(4, loader.acquireLoadConnections());
+        assertEquals(3, loader.acquireLoadConnections());
+        assertEquals(0, loader.acquireLoadConnections());
+    }
+}
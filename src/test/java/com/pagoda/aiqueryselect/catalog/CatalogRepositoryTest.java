@@ -0,0 +1,150 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.config.CacheConfig;
+import com.pagoda.aiqueryselect.config.CachePolicyConfig;
+import com.pagoda.aiqueryselect.model.TableInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogRepositoryTest {
+
+    private CatalogLoader loader;
+    private CatalogSnapshotStore snapshotStore;
+    private CacheManager cacheManager;
+    private CatalogRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        loader = mock(CatalogLoader.class);
+        snapshotStore = mock(CatalogSnapshotStore.class);
+        cacheManager = new CacheConfig().cacheManager(new CachePolicyConfig());
+        repository = new CatalogRepository(loader, snapshotStore, cacheManager);
+
+        Map<String, List<TableInfo>> overview = new LinkedHashMap<>();
+        overview.put("SALES", List.of(new TableInfo("SALES", "ORDERS", null, null)));
+        overview.put("ARCHIVE", List.of(new TableInfo("ARCHIVE", "ORDERS", null, null),
+                new TableInfo("ARCHIVE", "INVOICES", null, null)));
+        when(loader.ddlFingerprint()).thenReturn("fp");
+        when(loader.loadOverview()).thenReturn(overview);
+        when(loader.loadAllForeignKeys()).thenReturn(List.of());
+    }
+
+    @Test
+    void bareNamesAreUpperCasedBeforeTheCatalogIsLoaded() {
+        assertEquals("ORDERS", repository.canonicalName(" orders "));
+        assertEquals("SALES.ORDERS", repository.canonicalName("sales.orders"));
+        verifyNoInteractions(loader);
+    }
+
+    @Test
+    void bareNamesResolveToTheFirstOwnerOnceLoaded() {
+        repository.overview();
+
+        assertEquals("ARCHIVE.ORDERS", repository.canonicalName("orders"));
+        assertEquals("ARCHIVE.ORDERS", repository.canonicalName("ORDERS"));
+        assertEquals("ARCHIVE.INVOICES", repository.canonicalName("Invoices"));
+        assertEquals("SALES.ORDERS", repository.canonicalName("Sales.Orders"));
+        assertEquals("MISSING", repository.canonicalName("missing"));
+    }
+
+    @Test
+    void tableDetailsAreLoadedOnceForEverySpelling() {
+        repository.overview();
+        TableInfo detail = new TableInfo("ARCHIVE", "ORDERS", null, null);
+        when(loader.loadDetails(CatalogScope.table("ARCHIVE", "ORDERS"))).thenReturn(List.of(detail));
+
+        assertSame(detail, repository.table("orders"));
+        assertSame(detail, repository.table("ORDERS"));
+        assertSame(detail, repository.table("Archive.Orders"));
+        verify(loader, times(1)).loadDetails(any());
+    }
+
+    @Test
+    void bareNamesReadDetailsOfOneOwnerBeforeTheCatalogIsLoaded() {
+        when(loader.loadTables(CatalogScope.tableName("ORDERS"))).thenReturn(List.of(
+                new TableInfo("SALES", "ORDERS", null, null), new TableInfo("ARCHIVE", "ORDERS", null, null)));
+        TableInfo detail = new TableInfo("ARCHIVE", "ORDERS", null, null);
+        when(loader.loadDetails(CatalogScope.table("ARCHIVE", "ORDERS"))).thenReturn(List.of(detail));
+
+        assertSame(detail, repository.table("orders"));
+        assertNull(repository.table("missing"));
+        verify(loader, times(1)).loadDetails(any());
+        verify(loader, never()).loadOverview();
+    }
+
+    @Test
+    void changesDropCachedPlanVerdicts() {
+        repository.overview();
+        Cache plans = cacheManager.getCache("plans");
+        plans.put("SELECT * FROM ORDERS", "verdict");
+
+        repository.applyChanges(Set.of(), Set.of("SALES.ORDERS"), "changed");
+
+        assertNull(plans.get("SELECT * FROM ORDERS"));
+    }
+
+    @Test
+    void incrementalChangesAreRefusedWhileAReloadRuns() throws InterruptedException {
+        repository.overview();
+        CountDownLatch reloading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(loader.ddlFingerprint()).thenReturn("reloaded");
+        when(loader.loadOverview()).thenAnswer(invocation -> {
+            reloading.countDown();
+            release.await();
+            return Map.of("SALES", List.of(new TableInfo("SALES", "ORDERS", null, null)));
+        });
+
+        assertTrue(repository.refreshInBackground());
+        assertTrue(reloading.await(5, TimeUnit.SECONDS));
+        assertFalse(repository.refreshInBackground());
+        assertFalse(repository.applyChanges(Set.of(), Set.of("SALES.ORDERS"), "incremental"));
+        release.countDown();
+
+        verify(snapshotStore, timeout(5_000))
+                .write(argThat(snapshot -> "reloaded".equals(snapshot.fingerprint())));
+        assertEquals("reloaded", repository.fingerprint());
+        assertEquals(List.of("SALES"), List.copyOf(repository.overview().keySet()));
+    }
+
+    @Test
+    void reloadRunsAgainWhenAnIncrementalUpdateLandsWhileItLoads() throws Exception {
+        repository.overview();
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch reloaded = new CountDownLatch(1);
+        when(loader.loadOverviewTable("SALES", "ORDERS")).thenAnswer(invocation -> {
+            applying.countDown();
+            assertTrue(reloaded.await(5, TimeUnit.SECONDS));
+            return new TableInfo("SALES", "ORDERS", null, null);
+        });
+        when(loader.ddlFingerprint()).thenReturn("reloaded");
+        when(loader.loadOverview()).thenAnswer(invocation -> {
+            reloaded.countDown();
+            return Map.of("SALES", List.of(new TableInfo("SALES", "ORDERS", null, null)));
+        });
+
+        Thread incremental = Thread.ofVirtual().start(
+                () -> repository.applyChanges(Set.of("SALES.ORDERS"), Set.of(), "incremental"));
+        assertTrue(applying.await(5, TimeUnit.SECONDS));
+        repository.refreshInBackground(true);
+        incremental.join(5_000);
+
+        verify(snapshotStore, timeout(5_000))
+                .write(argThat(snapshot -> "reloaded".equals(snapshot.fingerprint())));
+        // Once at startup, then the reload that raced the update and its re-run
+        verify(loader, times(3)).loadOverview();
+        assertEquals("reloaded", repository.fingerprint());
+    }
+}
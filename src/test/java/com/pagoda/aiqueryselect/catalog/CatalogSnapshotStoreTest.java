@@ -0,0 +1,105 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.config.CatalogConfig;
+import com.pagoda.aiqueryselect.model.ColumnInfo;
+import com.pagoda.aiqueryselect.model.ForeignKeyInfo;
+import com.pagoda.aiqueryselect.model.TableInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private CatalogConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new CatalogConfig();
+        config.getSnapshot().setDirectory(directory.toString());
+    }
+
+    private CatalogSnapshotStore store(String url) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.url", url)
+                .withProperty("spring.datasource.username", "app");
+        return new CatalogSnapshotStore(config, environment);
+    }
+
+    private CatalogSnapshot sample() {
+        Map<String, List<TableInfo>> overview = new LinkedHashMap<>();
+        overview.put("SALES", List.of(
+                new TableInfo("SALES", "ORDERS", "주문 테이블", 1200L).withColumns(List.of(
+                        new ColumnInfo("ID", "NUMBER", 22, 10, 0, false, null, "주문 ID", 1),
+                        new ColumnInfo("AMOUNT", "NUMBER", 22, 12, 2, true, "0", null, 2),
+                        new ColumnInfo("NOTE", "VARCHAR2", 4000, null, null, true, null, null, 3))),
+                new TableInfo("SALES", "EMPTY_TABLE", null, null)));
+        List<ForeignKeyInfo> foreignKeys = List.of(new ForeignKeyInfo(
+                "FK_ORDERS_CUSTOMER", "SALES.ORDERS", List.of("CUSTOMER_ID"),
+                "CRM.CUSTOMERS", List.of("ID"), "CASCADE"));
+        return new CatalogSnapshot("19.0.0.0.0", "42:20260101000000", 1_700_000_000_000L, overview, foreignKeys);
+    }
+
+    @Test
+    void shouldRoundTripSnapshot() {
+        CatalogSnapshotStore store = store("jdbc:oracle:thin:@db:1521/prod");
+        CatalogSnapshot snapshot = sample();
+
+        store.write(snapshot);
+        Optional<CatalogSnapshot> restored = store.read();
+
+        assertTrue(restored.isPresent());
+        assertEquals(snapshot, restored.get());
+    }
+
+    @Test
+    void shouldIgnoreSnapshotOfAnotherDatabase() throws Exception {
+        CatalogSnapshotStore prod = store("jdbc:oracle:thin:@db:1521/prod");
+        prod.write(sample());
+        CatalogSnapshotStore dev = store("jdbc:oracle:thin:@db:1521/dev");
+        Files.copy(prod.file(), dev.file());
+
+        assertTrue(dev.read().isEmpty());
+    }
+
+    @Test
+    void shouldNotStoreTheConnectionUrl() throws Exception {
+        CatalogSnapshotStore store = store("jdbc:oracle:thin:@db:1521/prod");
+        store.write(sample());
+
+        String content = new String(Files.readAllBytes(store.file()), StandardCharsets.ISO_8859_1);
+        assertFalse(content.contains("jdbc:oracle"));
+    }
+
+    @Test
+    void shouldIgnoreCorruptSnapshot() throws Exception {
+        CatalogSnapshotStore store = store("jdbc:oracle:thin:@db:1521/prod");
+        Files.write(store.file(), new byte[]{1, 2, 3});
+
+        assertTrue(store.read().isEmpty());
+    }
+
+    @Test
+    void shouldDoNothingWhenDisabled() {
+        config.getSnapshot().setEnabled(false);
+        CatalogSnapshotStore store = store("jdbc:oracle:thin:@db:1521/prod");
+
+        store.write(sample());
+
+        assertFalse(Files.exists(store.file()));
+        assertTrue(store.read().isEmpty());
+    }
+}
@@ -0,0 +1,80 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.model.ForeignKeyInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JoinGraphTest {
+
+    private JoinGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        graph = JoinGraph.build(List.of(
+                fk("FK_ORDERS_CUSTOMER", "S.ORDERS", "CUSTOMER_ID", "S.CUSTOMERS", "ID"),
+                fk("FK_ITEMS_ORDER", "S.ORDER_ITEMS", "ORDER_ID", "S.ORDERS", "ID"),
+                fk("FK_ITEMS_PRODUCT", "S.ORDER_ITEMS", "PRODUCT_ID", "S.PRODUCTS", "ID"),
+                fk("FK_PRODUCTS_VENDOR", "S.PRODUCTS", "VENDOR_ID", "S.VENDORS", "ID"),
+                fk("FK_CUSTOMERS_REFERRER", "S.CUSTOMERS", "REFERRER_ID", "S.CUSTOMERS", "ID"),
+                fk("FK_AUDIT_USER", "S.AUDIT_LOG", "USER_ID", "S.USERS", "ID")));
+    }
+
+    @Test
+    void selfReferencesAreNotEdges() {
+        assertEquals(7, graph.tableCount());
+        assertTrue(graph.contains("S.CUSTOMERS"));
+    }
+
+    @Test
+    void joinsFollowForeignKeysInBothDirections() {
+        JoinGraph.JoinPlan plan = graph.connect(List.of("S.CUSTOMERS", "S.VENDORS"));
+
+        assertEquals(List.of("S.CUSTOMERS", "S.VENDORS"), plan.tables());
+        assertEquals(List.of("FK_ORDERS_CUSTOMER", "FK_ITEMS_ORDER", "FK_ITEMS_PRODUCT", "FK_PRODUCTS_VENDOR"),
+                plan.joins().stream().map(JoinGraph.Join::constraintName).toList());
+
+        JoinGraph.Join first = plan.joins().get(0);
+        assertEquals("S.CUSTOMERS", first.fromTable());
+        assertEquals("S.ORDERS", first.toTable());
+        assertEquals(List.of("ID"), first.fromColumns());
+        assertEquals(List.of("CUSTOMER_ID"), first.toColumns());
+        assertTrue(plan.unreachable().isEmpty());
+    }
+
+    @Test
+    void laterTablesJoinTheClosestConnectedTable() {
+        JoinGraph.JoinPlan plan = graph.connect(List.of("S.ORDERS", "S.PRODUCTS", "S.CUSTOMERS"));
+
+        assertEquals(List.of("S.ORDERS", "S.PRODUCTS", "S.CUSTOMERS"), plan.tables());
+        assertEquals(List.of("S.ORDER_ITEMS", "S.PRODUCTS", "S.CUSTOMERS"),
+                plan.joins().stream().map(JoinGraph.Join::toTable).toList());
+        assertEquals("S.ORDERS", plan.joins().get(2).fromTable());
+    }
+
+    @Test
+    void unreachableTablesAreReported() {
+        JoinGraph.JoinPlan plan = graph.connect(List.of("S.ORDERS", "S.USERS", "S.UNKNOWN", "S.CUSTOMERS"));
+
+        assertEquals(List.of("S.ORDERS", "S.CUSTOMERS"), plan.tables());
+        assertEquals(List.of("S.USERS", "S.UNKNOWN"), plan.unreachable());
+        assertEquals(1, plan.joins().size());
+    }
+
+    @Test
+    void planRendersAsFromClause() {
+        String markdown = CatalogMarkdown.joinPlan(graph.connect(List.of("S.CUSTOMERS", "S.ORDER_ITEMS")));
+
+        assertTrue(markdown.contains("FROM S.CUSTOMERS t1\n"
+                + "JOIN S.ORDERS t2 ON t2.CUSTOMER_ID = t1.ID\n"
+                + "JOIN S.ORDER_ITEMS t3 ON t3.ORDER_ID = t2.ID\n"), markdown);
+    }
+
+    private static ForeignKeyInfo fk(String name, String source, String sourceColumn, String target,
+                                     String targetColumn) {
+        return new ForeignKeyInfo(name, source, List.of(sourceColumn), target, List.of(targetColumn), "NO ACTION");
+    }
+}
@@ -0,0 +1,88 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.catalog.SchemaChangeDetector.DdlChanges;
+import com.pagoda.aiqueryselect.config.CatalogConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SchemaChangeDetectorTest {
+
+    @Test
+    void shouldReportAlteredCreatedAndDroppedTables() {
+        Map<String, String> previous = Map.of(
+                "SALES.ORDERS", "20260101000000",
+                "SALES.ITEMS", "20260101000000",
+                "SALES.OLD_LOG", "20250101000000");
+        Map<String, String> latest = Map.of(
+                "SALES.ORDERS", "20260301120000",
+                "SALES.ITEMS", "20260101000000",
+                "SALES.RETURNS", "20260301120500");
+
+        DdlChanges changes = SchemaChangeDetector.diff(previous, latest);
+
+        assertEquals(Set.of("SALES.ORDERS", "SALES.RETURNS"), changes.changed());
+        assertEquals(Set.of("SALES.OLD_LOG"), changes.dropped());
+        assertEquals(3, changes.size());
+    }
+
+    @Test
+    void shouldReportNothingWhenUnchanged() {
+        Map<String, String> times = Map.of("SALES.ORDERS", "20260101000000");
+
+        assertTrue(SchemaChangeDetector.diff(times, Map.copyOf(times)).isEmpty());
+    }
+
+    @Test
+    void shouldMatchFingerprintQueryFormat() {
+        assertEquals("2:20260301120000", CatalogLoader.fingerprint(Map.of(
+                "SALES.ORDERS", "20260301120000",
+                "SALES.ITEMS", "20260101000000")));
+        assertEquals("0:null", CatalogLoader.fingerprint(Map.of()));
+    }
+
+    @Test
+    void shouldOfferDeferredChangesAgainUntilTheyArePublished() {
+        CatalogLoader loader = mock(CatalogLoader.class);
+        CatalogRepository repository = mock(CatalogRepository.class);
+        SchemaChangeDetector detector = new SchemaChangeDetector(loader, repository, new CatalogConfig());
+        Map<String, String> before = Map.of("SALES.ORDERS", "20260101000000");
+        Map<String, String> after = Map.of("SALES.ORDERS", "20260201000000");
+        when(repository.loadedAt()).thenReturn(System.currentTimeMillis());
+        when(repository.fingerprint()).thenReturn(CatalogLoader.fingerprint(before));
+        when(loader.ddlFingerprint()).thenReturn("changed");
+        when(loader.loadDdlTimes()).thenReturn(before, after, after);
+        // Refused the first time, as while a full reload runs
+        when(repository.applyChanges(any(), any(), any())).thenReturn(false, true);
+
+        detector.poll();
+        detector.poll();
+        detector.poll();
+
+        verify(repository, times(2)).applyChanges(Set.of("SALES.ORDERS"), Set.of(), CatalogLoader.fingerprint(after));
+    }
+
+    @Test
+    void shouldNotTakeABaselineUntilTheReloadIsPublished() {
+        CatalogLoader loader = mock(CatalogLoader.class);
+        CatalogRepository repository = mock(CatalogRepository.class);
+        SchemaChangeDetector detector = new SchemaChangeDetector(loader, repository, new CatalogConfig());
+        Map<String, String> latest = Map.of("SALES.ORDERS", "20260201000000");
+        when(repository.loadedAt()).thenReturn(System.currentTimeMillis());
+        when(repository.fingerprint()).thenReturn("stale");
+        when(loader.ddlFingerprint()).thenReturn(CatalogLoader.fingerprint(latest));
+        when(loader.loadDdlTimes()).thenReturn(latest);
+        // Already running, so this request does nothing
+        when(repository.refreshInBackground()).thenReturn(false);
+
+        detector.poll();
+        detector.poll();
+
+        verify(repository, times(2)).refreshInBackground();
+        verify(repository, never()).applyChanges(any(), any(), any());
+    }
+}
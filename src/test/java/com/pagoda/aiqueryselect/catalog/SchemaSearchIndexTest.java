@@ -0,0 +1,91 @@
+package com.pagoda.aiqueryselect.catalog;
+
+import com.pagoda.aiqueryselect.model.ColumnInfo;
+import com.pagoda.aiqueryselect.model.TableInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaSearchIndexTest {
+
+    private SchemaSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, List<TableInfo>> overview = new LinkedHashMap<>();
+        overview.put("SALES", List.of(
+                new TableInfo("SALES", "CUSTOMER_ORDERS", "고객주문내역", null).withColumns(List.of(
+                        column("ORDER_ID", "주문 번호", 1),
+                        column("CUSTOMER_ID", "고객 번호", 2),
+                        column("TOTAL_AMOUNT", "주문 금액", 3))),
+                new TableInfo("SALES", "PRODUCTS", "상품 마스터", null).withColumns(List.of(
+                        column("PRODUCT_ID", null, 1),
+                        column("UNIT_PRICE", "단가", 2)))));
+        overview.put("HR", List.of(
+                new TableInfo("HR", "EMPLOYEES", "직원", null).withColumns(List.of(
+                        column("EMPLOYEE_ID", null, 1),
+                        column("HIRE_DATE", "입사일", 2)))));
+        index = SchemaSearchIndex.build(overview);
+    }
+
+    @Test
+    void everyTableAndColumnIsIndexed() {
+        assertEquals(10, index.size());
+    }
+
+    @Test
+    void tableNameMatchesRankFirst() {
+        SchemaSearchIndex.Hit top = index.search("employees", 5).get(0);
+
+        assertEquals("HR", top.owner());
+        assertEquals("EMPLOYEES", top.tableName());
+        assertFalse(top.isColumn());
+    }
+
+    @Test
+    void partialWordsMatchThroughTrigrams() {
+        List<SchemaSearchIndex.Hit> hits = index.search("cust", 3);
+
+        assertFalse(hits.isEmpty());
+        assertTrue(hits.stream().allMatch(hit -> hit.tableName().equals("CUSTOMER_ORDERS")));
+    }
+
+    @Test
+    void koreanCommentsMatchInsideCompoundWords() {
+        List<SchemaSearchIndex.Hit> hits = index.search("주문", 10);
+
+        assertTrue(hits.stream().anyMatch(hit -> !hit.isColumn() && hit.tableName().equals("CUSTOMER_ORDERS")));
+        assertTrue(hits.stream().anyMatch(hit -> "TOTAL_AMOUNT".equals(hit.columnName())));
+        assertTrue(hits.stream().noneMatch(hit -> hit.tableName().equals("EMPLOYEES")));
+    }
+
+    @Test
+    void columnsAreReturnedWithTheirTypeAndComment() {
+        SchemaSearchIndex.Hit top = index.search("unit price", 1).get(0);
+
+        assertEquals("UNIT_PRICE", top.columnName());
+        assertEquals("NUMBER(10)", top.dataType());
+        assertEquals("단가", top.comments());
+    }
+
+    @Test
+    void resultsAreLimitedAndOrderedByScore() {
+        List<SchemaSearchIndex.Hit> hits = index.search("id", 3);
+
+        assertEquals(3, hits.size());
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).score() >= hits.get(i).score());
+        }
+        assertTrue(index.search("   ", 10).isEmpty());
+        assertTrue(index.search("nothing-like-this", 10).isEmpty());
+    }
+
+    private static ColumnInfo column(String name, String comments, int position) {
+        return new ColumnInfo(name, "NUMBER", null, 10, 0, true, null, comments, position);
+    }
+}
@@ -0,0 +1,63 @@
+package com.pagoda.aiqueryselect.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConfigTest {
+
+    @Test
+    void weightedCacheIsBoundedByRenderedSize() {
+        CachePolicyConfig.Policy policy = new CachePolicyConfig.Policy(DataSize.ofKilobytes(10), 0, null);
+        Cache<Object, Object> cache = CacheConfig.builder(policy).executor(Runnable::run).build();
+
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, "x".repeat(2000));
+        }
+        cache.cleanUp();
+
+        long weight = cache.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+        assertTrue(weight <= 10 * 1024, "weighted size " + weight);
+        assertTrue(cache.estimatedSize() < 10);
+        assertTrue(cache.stats().evictionCount() > 0);
+    }
+
+    @Test
+    void oneLargeEntryCountsForMoreThanManySmallOnes() {
+        assertTrue(CacheConfig.weigh("x".repeat(100_000)) > 100 * CacheConfig.weigh("small"));
+    }
+
+    @Test
+    void countedCacheKeepsEntryLimitAndExpiry() {
+        CachePolicyConfig.Policy policy = new CachePolicyConfig.Policy(null, 3, Duration.ofMinutes(5));
+        Cache<Object, Object> cache = CacheConfig.builder(policy).build();
+
+        Policy.Eviction<Object, Object> eviction = cache.policy().eviction().orElseThrow();
+        assertFalse(eviction.isWeighted());
+        assertEquals(3, eviction.getMaximum());
+        assertTrue(cache.policy().expireAfterWrite().isPresent());
+    }
+
+    @Test
+    void namedCachesGetTheirOwnPolicies() {
+        CacheManager manager = new CacheConfig().cacheManager(new CachePolicyConfig());
+
+        assertTrue(eviction(manager, "table").isWeighted());
+        assertTrue(eviction(manager, "overview").isWeighted());
+        assertFalse(eviction(manager, "plans").isWeighted());
+        assertEquals(50, eviction(manager, "other").getMaximum());
+    }
+
+    private static Policy.Eviction<Object, Object> eviction(CacheManager manager, String name) {
+        CaffeineCache cache = (CaffeineCache) manager.getCache(name);
+        assertNotNull(cache);
+        return cache.getNativeCache().policy().eviction().orElseThrow();
+    }
+}
@@ -0,0 +1,53 @@
+package com.pagoda.aiqueryselect.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnBlockTest {
+
+    @Test
+    void columnsRoundTripThroughThePackedForm() {
+        List<ColumnInfo> columns = List.of(
+                new ColumnInfo("ID", "NUMBER", 22, 18, 0, false, null, null, 1),
+                new ColumnInfo("RATE", "NUMBER", 22, 38, -84, true, "0", "rate in percent", 2),
+                new ColumnInfo("NAME", "VARCHAR2", 32767, null, null, true, null, "고객 이름", 3),
+                new ColumnInfo("NOTE", "CLOB", null, null, null, true, null, "메모".repeat(40), 1000)
+        );
+
+        List<ColumnInfo> packed = ColumnBlock.of(new ArrayList<>(columns));
+
+        assertInstanceOf(ColumnBlock.class, packed);
+        assertEquals(columns, packed);
+    }
+
+    @Test
+    void namesAndTypesAreSharedAcrossTables() {
+        TableInfo first = new TableInfo("APP", "A", null, null)
+                .withColumns(List.of(new ColumnInfo(new String("CREATED_AT"), new String("DATE"), 7, null, null, true, null, null, 1)));
+        TableInfo second = new TableInfo(new String("APP"), "B", null, null)
+                .withColumns(List.of(new ColumnInfo(new String("CREATED_AT"), new String("DATE"), 7, null, null, true, null, null, 1)));
+
+        assertSame(first.owner(), second.owner());
+        assertSame(first.columns().get(0).columnName(), second.columns().get(0).columnName());
+        assertSame(first.columns().get(0).dataType(), second.columns().get(0).dataType());
+    }
+
+    @Test
+    void valuesOutsideTheLayoutKeepThePlainList() {
+        List<ColumnInfo> columns = List.of(new ColumnInfo("HUGE", "RAW", Integer.MAX_VALUE, null, null, true, null, null, 1));
+
+        List<ColumnInfo> stored = ColumnBlock.of(columns);
+
+        assertFalse(stored instanceof ColumnBlock);
+        assertEquals(columns, stored);
+    }
+
+    @Test
+    void emptyColumnsStayEmpty() {
+        assertTrue(new TableInfo("APP", "T", null, null).columns().isEmpty());
+    }
+}
@@ -0,0 +1,114 @@
+package com.pagoda.aiqueryselect.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ColumnarResultTest {
+
+    @Test
+    void shouldStoreTypedColumnsWithNulls() throws SQLException {
+        ResultSetMetaData metaData = metaData(
+                new String[]{"ID", "PRICE", "STATUS", "AMOUNT"},
+                new int[]{Types.NUMERIC, Types.DOUBLE, Types.VARCHAR, Types.NUMERIC},
+                new int[]{10, 0, 0, 0},
+                new int[]{0, 0, 0, -127});
+        ColumnarResult.Builder builder = new ColumnarResult.Builder(metaData, 10);
+
+        builder.add(row(1L, 9.5, "A", new BigDecimal("12.50")));
+        builder.add(row(null, null, null, new BigDecimal("7")));
+        builder.add(row(3L, 1.25, "A", null));
+        ColumnarResult result = builder.build();
+
+        assertEquals(3, result.rowCount());
+        assertEquals(1L, result.value(0, 0));
+        assertEquals(9.5, result.value(0, 1));
+        assertEquals(new BigDecimal("12.50"), result.value(0, 3));
+        assertEquals(7L, result.value(1, 3));
+        assertTrue(result.isNull(1, 0));
+        assertNull(result.value(1, 1));
+        assertNull(result.value(1, 2));
+        assertEquals("A", result.value(2, 2));
+        assertNull(result.value(2, 3));
+    }
+
+    @Test
+    void shouldKeepFullPrecisionOfOracleFloatColumns() throws SQLException {
+        ResultSetMetaData metaData = metaData(new String[]{"RATE", "RATIO"}, new int[]{Types.FLOAT, 101},
+                new int[]{126, 0}, new int[]{-127, 0});
+        ColumnarResult.Builder builder = new ColumnarResult.Builder(metaData, 1);
+        builder.add(row(new BigDecimal("0.12345678901234567890123"), 0.5d));
+        ColumnarResult result = builder.build();
+
+        assertEquals(new BigDecimal("0.12345678901234567890123"), result.value(0, 0));
+        assertEquals(0.5d, result.value(0, 1));
+    }
+
+    @Test
+    void shouldFallBackToPlainStringsForHighCardinalityColumns() throws SQLException {
+        ResultSetMetaData metaData = metaData(new String[]{"NAME"}, new int[]{Types.VARCHAR}, new int[]{0}, new int[]{0});
+        ColumnarResult.Builder builder = new ColumnarResult.Builder(metaData, 16);
+
+        int rows = ColumnarResult.MAX_DICTIONARY_SIZE + 10;
+        for (int i = 0; i < rows; i++) {
+            builder.add(row(i == 5 ? null : "name-" + i));
+        }
+        ColumnarResult result = builder.build();
+
+        assertEquals(rows, result.rowCount());
+        assertEquals("name-0", result.value(0, 0));
+        assertNull(result.value(5, 0));
+        assertEquals("name-" + (rows - 1), result.value(rows - 1, 0));
+    }
+
+    @Test
+    void shouldExposeRowMapView() throws SQLException {
+        ResultSetMetaData metaData = metaData(new String[]{"ID", "NAME"}, new int[]{Types.INTEGER, Types.VARCHAR},
+                new int[]{0, 0}, new int[]{0, 0});
+        ColumnarResult.Builder builder = new ColumnarResult.Builder(metaData, 1);
+        builder.add(row(42L, "x"));
+
+        assertEquals(Map.of("ID", 42L, "NAME", "x"), builder.build().asMaps().get(0));
+    }
+
+    private static ResultSetMetaData metaData(String[] labels, int[] types, int[] precisions, int[] scales)
+            throws SQLException {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            when(metaData.getColumnLabel(i + 1)).thenReturn(labels[i]);
+            when(metaData.getColumnType(i + 1)).thenReturn(types[i]);
+            when(metaData.getPrecision(i + 1)).thenReturn(precisions[i]);
+            when(metaData.getScale(i + 1)).thenReturn(scales[i]);
+        }
+        return metaData;
+    }
+
+    private static ResultSet row(Object... values) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        Boolean[] lastNull = {false};
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            int index = i + 1;
+            when(rs.getObject(index)).thenAnswer(inv -> track(lastNull, value));
+            when(rs.getString(index)).thenAnswer(inv -> track(lastNull, value) == null ? null : value.toString());
+            when(rs.getLong(index)).thenAnswer(inv -> track(lastNull, value) == null ? 0L : ((Number) value).longValue());
+            when(rs.getDouble(index)).thenAnswer(inv -> track(lastNull, value) == null ? 0d : ((Number) value).doubleValue());
+        }
+        when(rs.wasNull()).thenAnswer(inv -> lastNull[0]);
+        return rs;
+    }
+
+    private static Object track(Boolean[] lastNull, Object value) {
+        lastNull[0] = value == null;
+        return value;
+    }
+}
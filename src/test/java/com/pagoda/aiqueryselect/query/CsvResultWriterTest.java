@@ -0,0 +1,57 @@
+package com.pagoda.aiqueryselect.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CsvResultWriterTest {
+
+    @Test
+    void shouldQuoteOnlyFieldsThatNeedIt() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        CsvResultWriter.writeField(sb, "plain", ',');
+        sb.append('|');
+        CsvResultWriter.writeField(sb, "a,b", ',');
+        sb.append('|');
+        CsvResultWriter.writeField(sb, "say \"hi\"", ',');
+        sb.append('|');
+        CsvResultWriter.writeField(sb, "two\nlines", ',');
+        sb.append('|');
+        CsvResultWriter.writeField(sb, "a,b", '\t');
+
+        assertEquals("plain|\"a,b\"|\"say \"\"hi\"\"\"|\"two\nlines\"|a,b", sb.toString());
+    }
+
+    @Test
+    void shouldWriteHeaderAndFullValuesWithEmptyNullsAndHexBinary() throws SQLException, IOException {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(3);
+        when(metaData.getColumnLabel(1)).thenReturn("ID");
+        when(metaData.getColumnLabel(2)).thenReturn("NOTE");
+        when(metaData.getColumnLabel(3)).thenReturn("RAW_ID");
+        when(metaData.getColumnType(1)).thenReturn(Types.NUMERIC);
+        when(metaData.getColumnType(2)).thenReturn(Types.VARCHAR);
+        when(metaData.getColumnType(3)).thenReturn(Types.VARBINARY);
+        ResultSet rs = mock(ResultSet.class);
+        String longNote = "x".repeat(500);
+        when(rs.getString(1)).thenReturn("1", "2");
+        when(rs.getString(2)).thenReturn(longNote, null);
+        when(rs.getBytes(3)).thenReturn(new byte[]{0x0a, (byte) 0xff}, (byte[]) null);
+
+        StringWriter out = new StringWriter();
+        CsvResultWriter writer = new CsvResultWriter(out, ',');
+        writer.start(metaData);
+        writer.row(rs);
+        writer.row(rs);
+
+        assertEquals("ID,NOTE,RAW_ID\r\n1," + longNote + ",0AFF\r\n2,,\r\n", out.toString());
+    }
+}
@@ -0,0 +1,80 @@
+package com.pagoda.aiqueryselect.query;
+
+import com.pagoda.aiqueryselect.config.DatabaseConfig;
+import com.pagoda.aiqueryselect.query.QueryExecutor.OpenCursor;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CursorRegistryTest {
+
+    @Test
+    void shouldCapOpenCursorsAndFreeSlotOnClose() {
+        CursorRegistry registry = new CursorRegistry(config(2, Duration.ofMinutes(2)));
+
+        assertTrue(registry.tryReserve());
+        CursorSession first = registry.register("a", cursor(), 1000, null);
+        assertTrue(registry.tryReserve());
+        registry.register("a", cursor(), 1000, null);
+        assertFalse(registry.tryReserve());
+
+        registry.close(first);
+        registry.close(first);
+        assertTrue(registry.tryReserve());
+        assertFalse(registry.tryReserve());
+        assertEquals(1, registry.openCount());
+    }
+
+    @Test
+    void shouldOnlyResolveTokenForOwningClient() {
+        CursorRegistry registry = new CursorRegistry(config(2, Duration.ofMinutes(2)));
+        assertTrue(registry.tryReserve());
+        CursorSession session = registry.register("a", cursor(), 1000, null);
+
+        assertSame(session, registry.get(session.token(), "a"));
+        assertNull(registry.get(session.token(), "b"));
+        assertNull(registry.get("unknown", "a"));
+
+        registry.close(session);
+        assertNull(registry.get(session.token(), "a"));
+    }
+
+    @Test
+    void shouldCloseIdleCursorsButNotBusyOnes() throws Exception {
+        CursorRegistry registry = new CursorRegistry(config(2, Duration.ZERO));
+        OpenCursor idleCursor = cursor();
+        assertTrue(registry.tryReserve());
+        CursorSession idle = registry.register("a", idleCursor, 1000, null);
+        assertTrue(registry.tryReserve());
+        CursorSession busy = registry.register("a", cursor(), 1000, null);
+
+        busy.lock().lock();
+        try {
+            Thread.ofVirtual().start(registry::evictIdle).join();
+        } finally {
+            busy.lock().unlock();
+        }
+
+        assertTrue(idle.isClosed());
+        assertFalse(busy.isClosed());
+        verify(idleCursor.connection()).close();
+        assertEquals(1, registry.openCount());
+    }
+
+    private static DatabaseConfig config(int maxOpen, Duration idleTimeout) {
+        DatabaseConfig config = new DatabaseConfig();
+        config.getCursor().setMaxOpen(maxOpen);
+        config.getCursor().setIdleTimeout(idleTimeout);
+        return config;
+    }
+
+    private static OpenCursor cursor() {
+        return new OpenCursor(mock(Connection.class), mock(Statement.class), mock(ResultSet.class));
+    }
+}
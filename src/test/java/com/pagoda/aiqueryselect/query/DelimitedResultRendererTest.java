@@ -0,0 +1,53 @@
+package com.pagoda.aiqueryselect.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DelimitedResultRendererTest {
+
+    @Test
+    void shouldRenderCsvWithEmptyNullsAndQuotingOnlyWhenNeeded() {
+        DelimitedResultRenderer renderer = new DelimitedResultRenderer(',');
+        renderer.start(List.of("ID", "NAME"));
+        renderer.row(new Object[]{1L, "plain"});
+        renderer.row(new Object[]{2L, "a, \"b\""});
+        renderer.row(new Object[]{3L, null});
+
+        assertEquals("ID,NAME\n1,plain\n2,\"a, \"\"b\"\"\"\n3,\n", renderer.finish(3, false, 100));
+    }
+
+    @Test
+    void shouldFlattenTabsAndLineBreaksInTsv() {
+        DelimitedResultRenderer renderer = new DelimitedResultRenderer('\t');
+        renderer.start(List.of("ID", "NOTE"));
+        renderer.row(new Object[]{1L, "a\tb\nc"});
+
+        assertEquals("ID\tNOTE\n1\ta b c\n", renderer.finish(1, false, 100));
+    }
+
+    @Test
+    void shouldCutLongCells() {
+        DelimitedResultRenderer renderer = new DelimitedResultRenderer(',');
+        renderer.start(List.of("NOTE"));
+        renderer.row(new Object[]{"y".repeat(120)});
+
+        assertEquals("NOTE\n" + "y".repeat(97) + "...\n", renderer.finish(1, false, 100));
+    }
+
+    @Test
+    void shouldCountRenderedBytesAsRowsArrive() {
+        DelimitedResultRenderer renderer = new DelimitedResultRenderer(',');
+        renderer.start(List.of("ID", "NAME"));
+        assertEquals(8, renderer.size());
+        renderer.row(new Object[]{1L, "주문"});
+        assertEquals(17, renderer.size());
+        renderer.row(new Object[]{2L, "\uD83D\uDE00"});
+
+        String output = renderer.finish(2, false, 100);
+        assertEquals(output.getBytes(StandardCharsets.UTF_8).length, renderer.size());
+    }
+}
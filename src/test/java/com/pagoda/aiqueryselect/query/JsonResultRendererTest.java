@@ -0,0 +1,48 @@
+package com.pagoda.aiqueryselect.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonResultRendererTest {
+
+    @Test
+    void shouldWriteOneArrayPerColumn() {
+        JsonResultRenderer renderer = new JsonResultRenderer(false);
+        renderer.start(List.of("ID", "NAME", "PRICE"));
+        renderer.row(new Object[]{1L, "a \"quoted\"\nline", new BigDecimal("9.50")});
+        renderer.row(new Object[]{2L, null, Double.NaN});
+
+        assertEquals("{\"columns\":[\"ID\",\"NAME\",\"PRICE\"],\"rowCount\":2,\"truncated\":true,"
+                        + "\"data\":[[1,2],[\"a \\\"quoted\\\"\\nline\",null],[9.50,\"NaN\"]]}",
+                renderer.finish(2, true, 2));
+        assertNull(renderer.structuredContent());
+    }
+
+    @Test
+    void shouldKeepValuesForStructuredContent() {
+        JsonResultRenderer renderer = new JsonResultRenderer(true);
+        renderer.start(List.of("ID", "NAME"));
+        renderer.row(new Object[]{1L, "x".repeat(150)});
+
+        assertEquals("{\"columns\":[\"ID\",\"NAME\"],\"rowCount\":1,\"truncated\":false,\"data\":[[1],[\""
+                + "x".repeat(97) + "...\"]]}", renderer.finish(1, false, 100));
+        Map<String, Object> content = renderer.structuredContent();
+        assertEquals(List.of("ID", "NAME"), content.get("columns"));
+        assertEquals(1, content.get("rowCount"));
+        assertEquals(List.of(List.of(1L), List.of("x".repeat(97) + "...")), content.get("data"));
+    }
+
+    @Test
+    void shouldRenderEmptyColumnsForNoRows() {
+        JsonResultRenderer renderer = new JsonResultRenderer(false);
+        renderer.start(List.of("ID"));
+
+        assertEquals("{\"columns\":[\"ID\"],\"rowCount\":0,\"truncated\":false,\"data\":[[]]}",
+                renderer.finish(0, false, 100));
+    }
+}
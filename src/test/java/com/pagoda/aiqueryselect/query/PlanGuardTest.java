@@ -0,0 +1,74 @@
+package com.pagoda.aiqueryselect.query;
+
+import com.pagoda.aiqueryselect.config.DatabaseConfig;
+import com.pagoda.aiqueryselect.query.PlanGuard.PlanLine;
+import com.pagoda.aiqueryselect.query.PlanGuard.Verdict;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlanGuardTest {
+
+    @Test
+    void shouldPassCheapIndexedPlan() {
+        List<PlanLine> plan = List.of(
+                new PlanLine(0, 0, "SELECT STATEMENT", null, null, null, 4, 1, 80),
+                new PlanLine(1, 1, "TABLE ACCESS", "BY INDEX ROWID", "SALES", "ORDERS", 4, 1, 80),
+                new PlanLine(2, 2, "INDEX", "UNIQUE SCAN", "SALES", "PK_ORDERS", 2, 1, 0));
+
+        assertTrue(PlanGuard.evaluate(plan, new DatabaseConfig.PlanGuard()).passed());
+    }
+
+    @Test
+    void shouldRejectCartesianJoinOverLargeFullScans() {
+        DatabaseConfig.PlanGuard config = new DatabaseConfig.PlanGuard();
+        config.setMaxFullScanBytes(DataSize.ofMegabytes(100));
+        List<PlanLine> plan = List.of(
+                new PlanLine(0, 0, "SELECT STATEMENT", null, null, null, 9_000_000, 1000, 64_000),
+                new PlanLine(1, 1, "MERGE JOIN", "CARTESIAN", null, null, 9_000_000, 50_000_000_000L, 3_200_000_000_000L),
+                new PlanLine(2, 2, "TABLE ACCESS", "FULL", "SALES", "ORDERS", 400_000, 5_000_000, 800_000_000),
+                new PlanLine(3, 2, "TABLE ACCESS", "FULL", "SALES", "REGIONS", 3, 10, 200));
+
+        Verdict verdict = PlanGuard.evaluate(plan, config);
+
+        assertTrue(verdict.rejected());
+        assertEquals(3, verdict.violations().size());
+        assertTrue(verdict.plan().contains("*   1   MERGE JOIN CARTESIAN"));
+        assertTrue(verdict.plan().contains("*   2     TABLE ACCESS FULL SALES.ORDERS"));
+        assertFalse(verdict.plan().contains("*   3"));
+    }
+
+    @Test
+    void shouldPassRowLimitedFullScanOfLargeTable() {
+        DatabaseConfig.PlanGuard config = new DatabaseConfig.PlanGuard();
+        config.setMaxFullScanBytes(DataSize.ofMegabytes(100));
+        List<PlanLine> plan = List.of(
+                new PlanLine(0, 0, "SELECT STATEMENT", null, null, null, 2, 1000, 64_000),
+                new PlanLine(1, 1, "COUNT", "STOPKEY", null, null, 2, 1000, 64_000),
+                new PlanLine(2, 2, "TABLE ACCESS", "FULL", "SALES", "ORDERS", 2, 50_000_000, 3_200_000_000L));
+
+        assertTrue(PlanGuard.evaluate(plan, config).passed());
+    }
+
+    @Test
+    void shouldOnlyWarnInWarnMode() {
+        DatabaseConfig.PlanGuard config = new DatabaseConfig.PlanGuard();
+        config.setAction(DatabaseConfig.PlanGuard.Action.WARN);
+        config.setMaxCost(10);
+        List<PlanLine> plan = List.of(new PlanLine(0, 0, "SELECT STATEMENT", null, null, null, 11, 1, 10));
+
+        Verdict verdict = PlanGuard.evaluate(plan, config);
+
+        assertFalse(verdict.passed());
+        assertFalse(verdict.rejected());
+    }
+
+    @Test
+    void shouldNormalizeOutsideQuotesOnly() {
+        assertEquals("SELECT * FROM T WHERE NAME = 'Kim  Lee' AND \"mixedCase\" = 1",
+                PlanGuard.normalize("select *\n  from t where name = 'Kim  Lee'   and \"mixedCase\" = 1"));
+    }
+}
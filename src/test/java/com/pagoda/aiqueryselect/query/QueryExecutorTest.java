@@ -0,0 +1,124 @@
+package com.pagoda.aiqueryselect.query;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class QueryExecutorTest {
+
+    @Test
+    void shouldSetTimeoutOnStatementAndReturnResult() throws SQLException {
+        Statement statement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(statement.executeQuery("SELECT 1 FROM dual")).thenReturn(rs);
+
+        try (QueryExecutor executor = new QueryExecutor(new JdbcTemplate(dataSource(statement)))) {
+            assertEquals("ok", executor.query("SELECT 1 FROM dual", 5, r -> "ok"));
+        }
+        verify(statement).setQueryTimeout(5);
+        verify(rs).close();
+    }
+
+    @Test
+    void shouldCancelStatementWhenDeadlinePasses() throws Exception {
+        Statement statement = mock(Statement.class);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        when(statement.executeQuery(anyString())).thenAnswer(inv -> {
+            // Ignores the statement timeout, like a driver stuck on the network
+            cancelled.await(10, TimeUnit.SECONDS);
+            throw new SQLException("ORA-01013: user requested cancel of current operation");
+        });
+        doAnswer(inv -> {
+            cancelled.countDown();
+            return null;
+        }).when(statement).cancel();
+
+        try (QueryExecutor executor = new QueryExecutor(new JdbcTemplate(dataSource(statement)))) {
+            assertThrows(QueryTimeoutException.class, () -> executor.query("SELECT * FROM big", 1, r -> null));
+        }
+        assertTrue(cancelled.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldWaitForCancelledFetchBeforeReturningTheCursor() throws Exception {
+        Statement statement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        AtomicBoolean reading = new AtomicBoolean();
+        when(rs.next()).thenAnswer(inv -> {
+            reading.set(true);
+            cancelled.await(10, TimeUnit.SECONDS);
+            // The driver takes a moment to abort the round trip
+            Thread.sleep(200);
+            reading.set(false);
+            throw new SQLException("ORA-01013: user requested cancel of current operation");
+        });
+        doAnswer(inv -> {
+            cancelled.countDown();
+            return null;
+        }).when(statement).cancel();
+        QueryExecutor.OpenCursor cursor = new QueryExecutor.OpenCursor(mock(Connection.class), statement, rs);
+
+        try (QueryExecutor executor = new QueryExecutor(new JdbcTemplate(mock(DataSource.class)))) {
+            assertThrows(QueryTimeoutException.class, () -> executor.fetch(cursor, 1, r -> r.next()));
+        }
+        // The caller closes the cursor next, so nothing may still be reading it
+        assertFalse(reading.get());
+    }
+
+    @Test
+    void shouldCancelStatementWhenCallerIsInterrupted() throws Exception {
+        Statement statement = mock(Statement.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        when(statement.executeQuery(anyString())).thenAnswer(inv -> {
+            started.countDown();
+            cancelled.await(10, TimeUnit.SECONDS);
+            throw new SQLException("ORA-01013: user requested cancel of current operation");
+        });
+        doAnswer(inv -> {
+            cancelled.countDown();
+            return null;
+        }).when(statement).cancel();
+
+        try (QueryExecutor executor = new QueryExecutor(new JdbcTemplate(dataSource(statement)))) {
+            AtomicReference<Throwable> thrown = new AtomicReference<>();
+            Thread caller = new Thread(() -> {
+                try {
+                    executor.query("SELECT * FROM big", 30, r -> null);
+                } catch (RuntimeException e) {
+                    thrown.set(e);
+                }
+            });
+            caller.start();
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            caller.interrupt();
+            caller.join(5_000);
+
+            assertInstanceOf(CancellationException.class, thrown.get());
+        }
+        verify(statement).cancel();
+    }
+
+    private static DataSource dataSource(Statement statement) throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
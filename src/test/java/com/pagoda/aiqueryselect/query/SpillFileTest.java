@@ -0,0 +1,90 @@
+package com.pagoda.aiqueryselect.query;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReadBackEveryValueKind() throws IOException {
+        SpillFile file;
+        try (SpillWriter writer = new SpillWriter(List.of("ID", "PRICE", "RATIO", "NAME", "CREATED"),
+                directory, 1024, 1 << 20)) {
+            writer.write(new Object[]{7L, new BigDecimal("12.50"), 1.1f, "주문", Timestamp.valueOf("2024-01-02 03:04:05")});
+            writer.write(new Object[]{new BigDecimal("42"), null, 2.5d, "", null});
+            file = writer.finish("r1", "client", false);
+        }
+
+        assertEquals(2, file.rowCount());
+        assertNull(file.path());
+        Object[] values = new Object[5];
+        file.read(0, values);
+        assertArrayEquals(new Object[]{7L, new BigDecimal("12.50"), 1.1d, "주문", "2024-01-02 03:04:05.0"}, values);
+        file.read(1, values);
+        assertArrayEquals(new Object[]{42L, null, 2.5d, "", null}, values);
+    }
+
+    @Test
+    void shouldMoveToMappedFilePastMemoryThreshold() throws IOException {
+        SpillFile file;
+        try (SpillWriter writer = new SpillWriter(List.of("ID", "NAME"), directory, 256, 1 << 20)) {
+            for (long i = 0; i < 1000; i++) {
+                assertTrue(writer.write(new Object[]{i, "row " + i}));
+            }
+            file = writer.finish("r1", "client", false);
+        }
+
+        assertNotNull(file.path());
+        assertTrue(Files.exists(file.path()));
+        assertEquals(Files.size(file.path()), file.size());
+        Object[] values = new Object[2];
+        file.read(999, values);
+        assertArrayEquals(new Object[]{999L, "row 999"}, values);
+        file.read(0, values);
+        assertArrayEquals(new Object[]{0L, "row 0"}, values);
+    }
+
+    @Test
+    void shouldStopAtSizeLimitAndDeleteUnfinishedFile() throws IOException {
+        Path spilled;
+        try (SpillWriter writer = new SpillWriter(List.of("NAME"), directory, 64, 512)) {
+            int written = 0;
+            while (writer.write(new Object[]{"value " + written})) {
+                written++;
+            }
+            assertTrue(writer.isFull());
+            assertEquals(written, writer.rowCount());
+            assertFalse(writer.write(new Object[]{"more"}));
+            try (var files = Files.list(directory)) {
+                spilled = files.findFirst().orElseThrow();
+            }
+        }
+        assertFalse(Files.exists(spilled));
+    }
+
+    @Test
+    void shouldSortNumbersBeforeTextAndNullsLast() throws IOException {
+        SpillFile file;
+        try (SpillWriter writer = new SpillWriter(List.of("V"), directory, 1024, 1 << 20)) {
+            for (Object value : new Object[]{"b", 10L, null, 2.5d, new BigDecimal("2.25"), "a", 3L}) {
+                writer.write(new Object[]{value});
+            }
+            file = writer.finish("r1", "client", false);
+        }
+
+        assertArrayEquals(new int[]{4, 3, 6, 1, 5, 0, 2}, file.order(0));
+        assertSame(file.order(0), file.order(0));
+    }
+}
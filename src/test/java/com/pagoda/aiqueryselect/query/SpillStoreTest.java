@@ -0,0 +1,78 @@
+package com.pagoda.aiqueryselect.query;
+
+import com.pagoda.aiqueryselect.config.DatabaseConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private DatabaseConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new DatabaseConfig();
+        config.getSpill().setDirectory(directory.toString());
+        config.getSpill().setMemoryThreshold(DataSize.ofBytes(64));
+        config.getSpill().setQuota(DataSize.ofKilobytes(4));
+    }
+
+    @Test
+    void shouldRefuseResultLargerThanTheQuotaAndKeepTheOthers() throws IOException {
+        try (SpillStore store = new SpillStore(config)) {
+            SpillFile kept = store.register(writer(store, 10), "client", false);
+
+            // Bypasses the store's own size cap, like a writer configured before the quota shrank
+            SpillWriter oversized = new SpillWriter(List.of("V"), directory, 64, 1 << 20);
+            for (int i = 0; i < 1000; i++) {
+                oversized.write(new Object[]{"row " + i});
+            }
+            assertThrows(IOException.class, () -> store.register(oversized, "client", false));
+
+            assertSame(kept, store.get(kept.id(), "client"));
+            assertEquals(kept.size(), store.totalSize());
+        }
+    }
+
+    @Test
+    void shouldKeepFilesInAProcessSubdirectory() throws IOException {
+        try (SpillStore store = new SpillStore(config)) {
+            SpillFile result = store.register(writer(store, 100), "client", false);
+
+            assertEquals(directory.resolve("pid-" + ProcessHandle.current().pid()), result.path().getParent());
+        }
+    }
+
+    @Test
+    void shouldOnlyDeleteLeftoversOfProcessesNoLongerRunning() throws IOException {
+        Path gone = Files.createDirectories(directory.resolve("pid-" + Long.MAX_VALUE));
+        Files.writeString(gone.resolve("result-2.spill"), "stale");
+        ProcessHandle parent = ProcessHandle.current().parent().orElseThrow();
+        Path parentDirectory = Files.createDirectories(directory.resolve("pid-" + parent.pid()));
+        Files.writeString(parentDirectory.resolve("result-3.spill"), "live");
+
+        new SpillStore(config).close();
+
+        assertFalse(Files.exists(gone));
+        assertTrue(Files.exists(parentDirectory.resolve("result-3.spill")));
+    }
+
+    private static SpillWriter writer(SpillStore store, int rows) throws IOException {
+        SpillWriter writer = store.writer(List.of("V"));
+        for (int i = 0; i < rows; i++) {
+            writer.write(new Object[]{"row " + i});
+        }
+        return writer;
+    }
+}
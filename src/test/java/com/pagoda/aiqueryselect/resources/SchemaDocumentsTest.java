@@ -0,0 +1,69 @@
+package com.pagoda.aiqueryselect.resources;
+
+import com.pagoda.aiqueryselect.admission.AdmissionController;
+import com.pagoda.aiqueryselect.admission.BusyException;
+import com.pagoda.aiqueryselect.admission.ToolClass;
+import com.pagoda.aiqueryselect.service.SchemaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SchemaDocumentsTest {
+
+    private static final String NO_RELATIONSHIPS = "# Table Relationships\n\nNo foreign key relationships found.";
+
+    @Test
+    void busyLaneIsReportedButNotCached() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(CachingConfig.class)) {
+            SchemaService schemaService = context.getBean(SchemaService.class);
+            AdmissionController admissionController = context.getBean(AdmissionController.class);
+            when(schemaService.getAllForeignKeys()).thenReturn(List.of());
+            when(admissionController.call(eq(ToolClass.SCHEMA), anyString(), any()))
+                    .thenThrow(new BusyException(ToolClass.SCHEMA, 64, 500))
+                    .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(2)).get());
+            DatabaseMcpResources resources = new DatabaseMcpResources(schemaService,
+                    context.getBean(SchemaDocuments.class), admissionController);
+
+            assertTrue(resources.getRelationships().contains("Server busy"));
+            assertEquals(NO_RELATIONSHIPS, resources.getRelationships());
+            assertEquals(NO_RELATIONSHIPS, resources.getRelationships());
+            verify(schemaService, times(1)).getAllForeignKeys();
+        }
+    }
+
+    @Configuration
+    @EnableCaching
+    static class CachingConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("overview", "relationships");
+        }
+
+        @Bean
+        SchemaService schemaService() {
+            return mock(SchemaService.class);
+        }
+
+        @Bean
+        AdmissionController admissionController() {
+            return mock(AdmissionController.class);
+        }
+
+        @Bean
+        SchemaDocuments schemaDocuments(SchemaService schemaService, AdmissionController admissionController,
+                                        CacheManager cacheManager) {
+            return new SchemaDocuments(schemaService, admissionController, cacheManager);
+        }
+    }
+}
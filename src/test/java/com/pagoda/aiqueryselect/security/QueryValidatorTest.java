@@ -268,12 +268,48 @@ class QueryValidatorTest {
             // "DELETE" in a string should be allowed
             ValidationResult result = validator.validate(
                     "SELECT * FROM employees WHERE action = 'DELETE'");
-            // Note: Our simple regex-based approach will still block this
-            // A more sophisticated parser would be needed to handle this correctly
-            // For safety, we accept false positives
+            assertTrue(result.valid());
+        }
+
+        @Test
+        void shouldAllowKeywordInQuotedIdentifier() {
+            ValidationResult result = validator.validate("SELECT \"DELETE\" FROM audit_log");
+            assertTrue(result.valid());
+        }
+
+        @Test
+        void shouldAllowKeywordAndSemicolonInQQuote() {
+            ValidationResult result = validator.validate("SELECT q'[it's; DROP TABLE x]' FROM dual");
+            assertTrue(result.valid());
+        }
+
+        @Test
+        void shouldAllowSemicolonAndCommentMarkersInStringLiteral() {
+            ValidationResult result = validator.validate("SELECT 'a;b', '--', '/*' FROM dual");
+            assertTrue(result.valid());
+            assertEquals("SELECT 'a;b', '--', '/*' FROM dual", result.cleanedQuery());
+        }
+
+        @Test
+        void shouldBlockKeywordAfterEscapedQuote() {
+            ValidationResult result = validator.validate("SELECT 'it''s' FROM t WHERE DELETE = 1");
+            assertFalse(result.valid());
+            assertTrue(result.errorMessage().contains("DELETE"));
+        }
+
+        @Test
+        void shouldRejectUnterminatedStringLiteral() {
+            ValidationResult result = validator.validate("SELECT 'abc FROM dual");
             assertFalse(result.valid());
         }
 
+        @Test
+        void shouldAcceptSelectFollowedByNewline() {
+            ValidationResult result = validator.validate("SELECT\n* FROM employees;");
+            assertTrue(result.valid());
+            assertEquals("SELECT\n* FROM employees", result.cleanedQuery());
+        }
+
         @Test
         void shouldAllowSelectKeywordInColumnAlias() {
             ValidationResult result = validator.validate(